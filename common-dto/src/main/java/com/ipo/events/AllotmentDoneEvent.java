@@ -5,16 +5,23 @@
 import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
-import java.util.Set;
 
+// Header of a chunked allotment result. The application ids themselves follow as
+// chunkCount AllotmentResultChunk messages on allotment.result.chunk.topic; checksum
+// is the sum of the chunk checksums, so it can be verified in any arrival order.
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class AllotmentDoneEvent implements Serializable {
     private String ipoId;
-    private Set<String> winnerApplicationIds;
-    private Set<String> nonWinnerApplicationIds;
+    private String drawId;
+    private int winnerCount;
+    private int nonWinnerCount;
+    private int chunkCount;
+    private int chunkSize;
+    private long checksum;
 
+    // Manual getters and setters for Lombok compatibility
     public String getIpoId() {
         return ipoId;
     }
@@ -23,19 +30,51 @@ public void setIpoId(String ipoId) {
         this.ipoId = ipoId;
     }
 
-    public Set<String> getWinnerApplicationIds() {
-        return winnerApplicationIds;
+    public String getDrawId() {
+        return drawId;
     }
 
-    public void setWinnerApplicationIds(Set<String> winnerApplicationIds) {
-        this.winnerApplicationIds = winnerApplicationIds;
+    public void setDrawId(String drawId) {
+        this.drawId = drawId;
     }
 
-    public Set<String> getNonWinnerApplicationIds() {
-        return nonWinnerApplicationIds;
+    public int getWinnerCount() {
+        return winnerCount;
     }
 
-    public void setNonWinnerApplicationIds(Set<String> nonWinnerApplicationIds) {
-        this.nonWinnerApplicationIds = nonWinnerApplicationIds;
+    public void setWinnerCount(int winnerCount) {
+        this.winnerCount = winnerCount;
     }
-}
\ No newline at end of file
+
+    public int getNonWinnerCount() {
+        return nonWinnerCount;
+    }
+
+    public void setNonWinnerCount(int nonWinnerCount) {
+        this.nonWinnerCount = nonWinnerCount;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(long checksum) {
+        this.checksum = checksum;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ipo.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+// One bounded slice of an allotment result. Every id in a chunk has the same outcome;
+// winner chunks come first in sequence order, then non-winner chunks.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllotmentResultChunk implements Serializable {
+    private String ipoId;
+    private String drawId;
+    private int sequence;
+    private int chunkCount;
+    private boolean winners;
+    private List<String> applicationIds;
+    private long checksum;
+
+    // Manual getters and setters for Lombok compatibility
+    public String getIpoId() {
+        return ipoId;
+    }
+
+    public void setIpoId(String ipoId) {
+        this.ipoId = ipoId;
+    }
+
+    public String getDrawId() {
+        return drawId;
+    }
+
+    public void setDrawId(String drawId) {
+        this.drawId = drawId;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(int sequence) {
+        this.sequence = sequence;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    public boolean isWinners() {
+        return winners;
+    }
+
+    public void setWinners(boolean winners) {
+        this.winners = winners;
+    }
+
+    public List<String> getApplicationIds() {
+        return applicationIds;
+    }
+
+    public void setApplicationIds(List<String> applicationIds) {
+        this.applicationIds = applicationIds;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(long checksum) {
+        this.checksum = checksum;
+    }
+}
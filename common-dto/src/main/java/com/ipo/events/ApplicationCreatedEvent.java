@@ -6,14 +6,22 @@
 
 import java.io.Serializable;
 
+// Schema versions: 1 had applicationId, investorId, userUpiId and amount; 2 adds ipoId
+// and lots so the mandate, and the approval sent for it, can carry them. Senders set
+// schemaVersion to SCHEMA_VERSION; 0 is a message sent before it existed (version 1).
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ApplicationCreatedEvent implements Serializable {
+    public static final int SCHEMA_VERSION = 2;
+
     private String applicationId;
     private String investorId;
     private String userUpiId;
     private double amount;
+    private String ipoId;
+    private int lots;
+    private int schemaVersion;
 
     // Manual getters and setters for Lombok compatibility
     public String getApplicationId() {
@@ -47,4 +55,28 @@ public double getAmount() {
     public void setAmount(double amount) {
         this.amount = amount;
     }
-}
\ No newline at end of file
+
+    public String getIpoId() {
+        return ipoId;
+    }
+
+    public void setIpoId(String ipoId) {
+        this.ipoId = ipoId;
+    }
+
+    public int getLots() {
+        return lots;
+    }
+
+    public void setLots(int lots) {
+        this.lots = lots;
+    }
+
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public void setSchemaVersion(int schemaVersion) {
+        this.schemaVersion = schemaVersion;
+    }
+}
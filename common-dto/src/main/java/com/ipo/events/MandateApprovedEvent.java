@@ -6,12 +6,24 @@
 
 import java.io.Serializable;
 
+// Schema versions: 1 had applicationId and mandateId; 2 adds the application's ipoId,
+// investorId, lots and amount, so consumers can act on an approval without looking the
+// application up. Senders set schemaVersion to SCHEMA_VERSION; 0 is a message sent
+// before it existed (version 1). A mandate created from a version 1 ApplicationCreatedEvent
+// has no details to pass on, so check hasApplicationDetails() rather than the version.
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class MandateApprovedEvent implements Serializable {
+    public static final int SCHEMA_VERSION = 2;
+
     private String applicationId;
     private String mandateId;
+    private String ipoId;
+    private String investorId;
+    private int lots;
+    private double amount;
+    private int schemaVersion;
 
     // Manual getters and setters for Lombok compatibility
     public String getApplicationId() {
@@ -29,4 +41,49 @@ public String getMandateId() {
     public void setMandateId(String mandateId) {
         this.mandateId = mandateId;
     }
-}
\ No newline at end of file
+
+    public String getIpoId() {
+        return ipoId;
+    }
+
+    public void setIpoId(String ipoId) {
+        this.ipoId = ipoId;
+    }
+
+    public String getInvestorId() {
+        return investorId;
+    }
+
+    public void setInvestorId(String investorId) {
+        this.investorId = investorId;
+    }
+
+    public int getLots() {
+        return lots;
+    }
+
+    public void setLots(int lots) {
+        this.lots = lots;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public void setSchemaVersion(int schemaVersion) {
+        this.schemaVersion = schemaVersion;
+    }
+
+    // Carries the application details a version 2 sender had, so no lookup is needed
+    public boolean hasApplicationDetails() {
+        return schemaVersion >= 2 && ipoId != null && investorId != null && lots > 0;
+    }
+}
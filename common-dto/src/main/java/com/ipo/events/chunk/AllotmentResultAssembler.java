@@ -0,0 +1,123 @@
+package com.ipo.events.chunk;
+
+import com.ipo.events.AllotmentDoneEvent;
+import com.ipo.events.AllotmentResultChunk;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Consumer side of the chunked allotment protocol. Chunks are verified and handed to
+// the caller as they arrive, in any order and before or after the header, so memory
+// stays bounded by one chunk plus a bit per chunk for each draw in flight. Once the
+// header and every chunk have been seen, totals and the checksum are verified and the
+// completion listener fires. Redelivered chunks and chunks of completed draws are skipped.
+public class AllotmentResultAssembler {
+
+    private static final int COMPLETED_DRAWS_REMEMBERED = 1024;
+
+    public interface CompletionListener {
+        void onComplete(AllotmentDoneEvent header);
+    }
+
+    private final CompletionListener completionListener;
+    private final Map<String, DrawState> draws = new HashMap<>();
+    private final Map<String, Boolean> completedDraws = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > COMPLETED_DRAWS_REMEMBERED;
+        }
+    };
+
+    public AllotmentResultAssembler(CompletionListener completionListener) {
+        this.completionListener = completionListener;
+    }
+
+    public void acceptHeader(AllotmentDoneEvent header) {
+        AllotmentDoneEvent completed;
+        synchronized (this) {
+            if (completedDraws.containsKey(header.getDrawId())) {
+                return;
+            }
+            DrawState state = draws.computeIfAbsent(header.getDrawId(), id -> new DrawState());
+            state.header = header;
+            completed = completeIfDone(header.getDrawId(), state);
+        }
+        notifyCompleted(completed);
+    }
+
+    // Runs processor for a chunk that has not been processed yet and returns true; a chunk
+    // is only marked received once processor returns, so a failure leaves it to redelivery
+    public boolean acceptChunk(AllotmentResultChunk chunk, Consumer<AllotmentResultChunk> processor) {
+        if (AllotmentResultChunker.checksum(chunk.getApplicationIds()) != chunk.getChecksum()) {
+            throw new IllegalArgumentException("Checksum mismatch in chunk " + chunk.getSequence()
+                    + " of draw " + chunk.getDrawId());
+        }
+        synchronized (this) {
+            if (completedDraws.containsKey(chunk.getDrawId())) {
+                return false;
+            }
+            DrawState state = draws.get(chunk.getDrawId());
+            if (state != null && state.received.get(chunk.getSequence())) {
+                return false;
+            }
+        }
+
+        processor.accept(chunk);
+
+        AllotmentDoneEvent completed;
+        synchronized (this) {
+            if (completedDraws.containsKey(chunk.getDrawId())) {
+                return true;
+            }
+            DrawState state = draws.computeIfAbsent(chunk.getDrawId(), id -> new DrawState());
+            if (state.received.get(chunk.getSequence())) {
+                return true;
+            }
+            state.received.set(chunk.getSequence());
+            state.checksum += chunk.getChecksum();
+            if (chunk.isWinners()) {
+                state.winnerCount += chunk.getApplicationIds().size();
+            } else {
+                state.nonWinnerCount += chunk.getApplicationIds().size();
+            }
+            completed = completeIfDone(chunk.getDrawId(), state);
+        }
+        notifyCompleted(completed);
+        return true;
+    }
+
+    public synchronized int getDrawsInFlight() {
+        return draws.size();
+    }
+
+    private AllotmentDoneEvent completeIfDone(String drawId, DrawState state) {
+        AllotmentDoneEvent header = state.header;
+        if (header == null || state.received.cardinality() < header.getChunkCount()) {
+            return null;
+        }
+        draws.remove(drawId);
+        completedDraws.put(drawId, Boolean.TRUE);
+        if (state.checksum != header.getChecksum() || state.winnerCount != header.getWinnerCount()
+                || state.nonWinnerCount != header.getNonWinnerCount()) {
+            throw new IllegalStateException("Allotment result for draw " + drawId + " failed verification");
+        }
+        return header;
+    }
+
+    private void notifyCompleted(AllotmentDoneEvent header) {
+        if (header != null && completionListener != null) {
+            completionListener.onComplete(header);
+        }
+    }
+
+    private static class DrawState {
+        private final BitSet received = new BitSet();
+        private AllotmentDoneEvent header;
+        private long checksum;
+        private int winnerCount;
+        private int nonWinnerCount;
+    }
+}
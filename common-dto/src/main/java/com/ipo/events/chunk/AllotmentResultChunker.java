@@ -0,0 +1,78 @@
+package com.ipo.events.chunk;
+
+import com.ipo.events.AllotmentDoneEvent;
+import com.ipo.events.AllotmentResultChunk;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Producer side of the chunked allotment protocol: splits the winner and non-winner
+// id lists into chunks of at most chunkSize ids. Chunks are built on demand, so the
+// publisher only ever holds one chunk's copy of the ids.
+public class AllotmentResultChunker {
+
+    private final String ipoId;
+    private final String drawId;
+    private final List<String> winners;
+    private final List<String> nonWinners;
+    private final int chunkSize;
+    private final int winnerChunks;
+    private final long[] checksums;
+
+    public AllotmentResultChunker(String ipoId, String drawId, List<String> winners, List<String> nonWinners,
+            int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.ipoId = ipoId;
+        this.drawId = drawId;
+        this.winners = winners;
+        this.nonWinners = nonWinners;
+        this.chunkSize = chunkSize;
+        this.winnerChunks = chunksFor(winners.size(), chunkSize);
+        this.checksums = new long[winnerChunks + chunksFor(nonWinners.size(), chunkSize)];
+        for (int sequence = 0; sequence < checksums.length; sequence++) {
+            checksums[sequence] = checksum(slice(sequence));
+        }
+    }
+
+    public int getChunkCount() {
+        return checksums.length;
+    }
+
+    public AllotmentDoneEvent header() {
+        long total = 0;
+        for (long checksum : checksums) {
+            total += checksum;
+        }
+        return new AllotmentDoneEvent(ipoId, drawId, winners.size(), nonWinners.size(), checksums.length,
+                chunkSize, total);
+    }
+
+    public AllotmentResultChunk chunk(int sequence) {
+        return new AllotmentResultChunk(ipoId, drawId, sequence, checksums.length, sequence < winnerChunks,
+                new ArrayList<>(slice(sequence)), checksums[sequence]);
+    }
+
+    // CRC32 over each id's UTF-8 bytes followed by a newline
+    public static long checksum(List<String> applicationIds) {
+        CRC32 crc = new CRC32();
+        for (String applicationId : applicationIds) {
+            crc.update(applicationId.getBytes(StandardCharsets.UTF_8));
+            crc.update('\n');
+        }
+        return crc.getValue();
+    }
+
+    private List<String> slice(int sequence) {
+        List<String> ids = sequence < winnerChunks ? winners : nonWinners;
+        int from = (sequence < winnerChunks ? sequence : sequence - winnerChunks) * chunkSize;
+        return ids.subList(from, Math.min(from + chunkSize, ids.size()));
+    }
+
+    private static int chunksFor(int size, int chunkSize) {
+        return (size + chunkSize - 1) / chunkSize;
+    }
+}
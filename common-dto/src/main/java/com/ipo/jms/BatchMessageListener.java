@@ -0,0 +1,20 @@
+package com.ipo.jms;
+
+import java.util.List;
+
+import jakarta.jms.Message;
+import jakarta.jms.MessageListener;
+
+// Listener that takes a BatchingMessageListenerContainer's batch in one call, so it can
+// handle the messages as a set (one multi-row statement, one run of sends) instead of
+// one at a time. Single messages - batch size 1, or the one-by-one retries after a
+// failed batch - arrive as a batch of one.
+public interface BatchMessageListener extends MessageListener {
+
+    void onMessages(List<Message> messages);
+
+    @Override
+    default void onMessage(Message message) {
+        onMessages(List.of(message));
+    }
+}
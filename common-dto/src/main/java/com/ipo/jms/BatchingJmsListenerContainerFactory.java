@@ -0,0 +1,41 @@
+package com.ipo.jms;
+
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+// Listener container factory that builds BatchingMessageListenerContainers; with the
+// default batch size of 1 they behave exactly like DefaultMessageListenerContainer.
+public class BatchingJmsListenerContainerFactory extends DefaultJmsListenerContainerFactory {
+
+    private int batchSize = 1;
+    private long batchTimeoutMs = 50;
+    private PlatformTransactionManager batchTransactionManager;
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setBatchTimeoutMs(long batchTimeoutMs) {
+        this.batchTimeoutMs = batchTimeoutMs;
+    }
+
+    // Transaction wrapped around each batch; without one the listener's own transactions apply
+    public void setBatchTransactionManager(PlatformTransactionManager batchTransactionManager) {
+        this.batchTransactionManager = batchTransactionManager;
+    }
+
+    @Override
+    protected DefaultMessageListenerContainer createContainerInstance() {
+        return new BatchingMessageListenerContainer();
+    }
+
+    @Override
+    protected void initializeContainer(DefaultMessageListenerContainer container) {
+        super.initializeContainer(container);
+        BatchingMessageListenerContainer batching = (BatchingMessageListenerContainer) container;
+        batching.setBatchSize(batchSize);
+        batching.setBatchTimeoutMs(batchTimeoutMs);
+        batching.setBatchTransactionManager(batchTransactionManager);
+    }
+}
@@ -0,0 +1,195 @@
+package com.ipo.jms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jms.connection.JmsResourceHolder;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+
+// DefaultMessageListenerContainer that hands its listener up to batchSize messages per
+// receive cycle: after the first message it keeps receiving until the batch is full or
+// batchTimeoutMs has passed, invokes the listener for each message inside one database
+// transaction (when a transaction manager is set), then commits the JMS session once.
+// Listener methods keep their one-event signature; only the transaction boundary moves.
+// A BatchMessageListener instead gets the whole batch in one call.
+//
+// A failure rolls back the whole batch (database and JMS), and the messages that were in
+// it are then retried one per transaction so a single bad message cannot keep failing
+// its neighbours; it goes through the broker's redelivery policy on its own.
+public class BatchingMessageListenerContainer extends DefaultMessageListenerContainer {
+
+    private int batchSize = 1;
+    private long batchTimeoutMs = 50;
+    private TransactionTemplate batchTransaction;
+
+    // Receives each consumer still has to do one at a time after its batch failed, keyed
+    // by the consumer's invoker: the rolled back messages come back to the session that
+    // received them, so another consumer must not spend them. Only an invoker's own
+    // thread reads or writes its entry.
+    private final Map<Object, Integer> isolatedReceives = new ConcurrentHashMap<>();
+
+    // 1 or less keeps the standard one message per transaction
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setBatchTimeoutMs(long batchTimeoutMs) {
+        this.batchTimeoutMs = batchTimeoutMs;
+    }
+
+    // Not setTransactionManager(): that would switch the container to externally managed
+    // transactions, which commit the database before any message is received
+    public void setBatchTransactionManager(PlatformTransactionManager transactionManager) {
+        this.batchTransaction = transactionManager != null ? new TransactionTemplate(transactionManager) : null;
+    }
+
+    @Override
+    public void initialize() {
+        // Batches need the session and consumer to outlive a single receive
+        if (batchSize > 1 && getCacheLevel() < CACHE_CONSUMER) {
+            setCacheLevel(CACHE_CONSUMER);
+        }
+        super.initialize();
+    }
+
+    @Override
+    protected boolean doReceiveAndExecute(Object invoker, Session session, MessageConsumer consumer,
+            TransactionStatus status) throws JMSException {
+        if (batchSize <= 1 || session == null || consumer == null || takeIsolatedReceive(invoker)) {
+            return super.doReceiveAndExecute(invoker, session, consumer, status);
+        }
+        List<Message> batch = receiveBatch(consumer);
+        if (batch.isEmpty()) {
+            noMessageReceived(invoker, session);
+            if (shouldCommitAfterNoMessageReceived(session)) {
+                commitIfNecessary(session, null);
+            }
+            return false;
+        }
+        messageReceived(invoker, session);
+        if (!isAcceptMessagesWhileStopping() && !isRunning()) {
+            rollbackIfNecessary(session);
+            return false;
+        }
+
+        // Lets a JmsTemplate send from the listener join the batch's JMS transaction
+        boolean exposeSession = isExposeListenerSession()
+                && !TransactionSynchronizationManager.hasResource(obtainConnectionFactory());
+        if (exposeSession) {
+            TransactionSynchronizationManager.bindResource(obtainConnectionFactory(), new JmsResourceHolder(session));
+        }
+        Throwable failure = null;
+        try {
+            invokeBatch(session, batch);
+        } catch (Throwable ex) {
+            failure = ex;
+        } finally {
+            // Unbind first: while bound, the container treats the session as externally
+            // managed and would neither commit nor roll it back
+            if (exposeSession) {
+                TransactionSynchronizationManager.unbindResource(obtainConnectionFactory());
+            }
+        }
+        if (failure != null) {
+            rollbackOnExceptionIfNecessary(session, failure);
+            isolatedReceives.merge(invokerKey(invoker), batch.size(), Integer::sum);
+            handleListenerException(failure);
+            return true;
+        }
+        commitIfNecessary(session, batch.get(batch.size() - 1));
+        return true;
+    }
+
+    private boolean takeIsolatedReceive(Object invoker) {
+        Object key = invokerKey(invoker);
+        Integer remaining = isolatedReceives.get(key);
+        if (remaining == null) {
+            return false;
+        }
+        if (remaining > 1) {
+            isolatedReceives.put(key, remaining - 1);
+        } else {
+            isolatedReceives.remove(key);
+        }
+        return true;
+    }
+
+    private static Object invokerKey(Object invoker) {
+        return invoker != null ? invoker : Thread.currentThread();
+    }
+
+    // Blocks for the first message as usual, then tops the batch up until it is full or
+    // the timeout has passed; after that only messages already delivered are taken
+    private List<Message> receiveBatch(MessageConsumer consumer) throws JMSException {
+        Message first = receiveMessage(consumer);
+        if (first == null) {
+            return List.of();
+        }
+        List<Message> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMs);
+        while (batch.size() < batchSize) {
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            // A negative timeout is receiveNoWait()
+            Message next = receiveFromConsumer(consumer, remainingMs > 0 ? remainingMs : -1);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void invokeBatch(Session session, List<Message> batch) throws JMSException {
+        if (batchTransaction == null) {
+            invokeEach(session, batch);
+            return;
+        }
+        try {
+            batchTransaction.executeWithoutResult(status -> {
+                try {
+                    invokeEach(session, batch);
+                } catch (JMSException e) {
+                    throw new BatchFailedException(e);
+                }
+            });
+        } catch (BatchFailedException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void invokeEach(Session session, List<Message> batch) throws JMSException {
+        if (getMessageListener() instanceof BatchMessageListener listener) {
+            listener.onMessages(batch);
+            return;
+        }
+        for (Message message : batch) {
+            invokeListener(session, message);
+        }
+    }
+
+    // Carries a JMSException out of the transaction callback
+    private static class BatchFailedException extends RuntimeException {
+
+        private BatchFailedException(JMSException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized JMSException getCause() {
+            return (JMSException) super.getCause();
+        }
+    }
+}
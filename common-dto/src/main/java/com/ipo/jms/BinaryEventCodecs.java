@@ -0,0 +1,261 @@
+package com.ipo.jms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jms.support.converter.MessageConversionException;
+
+import com.ipo.events.AllotmentDoneEvent;
+import com.ipo.events.AllotmentResultChunk;
+import com.ipo.events.ApplicationCreatedEvent;
+import com.ipo.events.MandateApprovedEvent;
+import com.ipo.events.MandateFailedEvent;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+
+// Codecs for the com.ipo.events types. Fields are written in declaration order with
+// no names or separators; strings are a presence flag followed by modified UTF-8.
+public final class BinaryEventCodecs {
+
+    private static final Map<Class<?>, EventCodec<?>> BY_TYPE = new HashMap<>();
+    private static final Map<String, EventCodec<?>> BY_TYPE_ID = new HashMap<>();
+
+    static {
+        register(new ApplicationCreatedCodec());
+        register(new MandateApprovedCodec());
+        register(new MandateFailedCodec());
+        register(new AllotmentDoneCodec());
+        register(new AllotmentResultChunkCodec());
+    }
+
+    private BinaryEventCodecs() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> EventCodec<T> forType(Class<T> type) {
+        return (EventCodec<T>) BY_TYPE.get(type);
+    }
+
+    // Type ids are the class names the JSON converter already puts in "_type"
+    public static EventCodec<?> forTypeId(String typeId) {
+        return typeId == null ? null : BY_TYPE_ID.get(typeId);
+    }
+
+    private static void register(EventCodec<?> codec) {
+        BY_TYPE.put(codec.getType(), codec);
+        BY_TYPE_ID.put(codec.getType().getName(), codec);
+    }
+
+    private static void writeString(BytesMessage message, String value) throws JMSException {
+        message.writeBoolean(value != null);
+        if (value != null) {
+            message.writeUTF(value);
+        }
+    }
+
+    private static String readString(BytesMessage message) throws JMSException {
+        return message.readBoolean() ? message.readUTF() : null;
+    }
+
+    // Returns the layout version so a codec can read the fields an older layout lacks as unset.
+    // Newer layouts only append fields, so a version above the one this codec knows is read
+    // as its known prefix and the trailing bytes are left unread.
+    private static int readVersion(BytesMessage message, Class<?> type) throws JMSException {
+        int version = message.readUnsignedByte();
+        if (version < 1) {
+            throw new MessageConversionException(
+                    "Unsupported " + type.getSimpleName() + " layout version " + version);
+        }
+        return version;
+    }
+
+    // Layout 2 appends ipoId, lots and schemaVersion
+    private static final class ApplicationCreatedCodec implements EventCodec<ApplicationCreatedEvent> {
+        private static final int VERSION = 2;
+
+        @Override
+        public Class<ApplicationCreatedEvent> getType() {
+            return ApplicationCreatedEvent.class;
+        }
+
+        @Override
+        public void write(ApplicationCreatedEvent event, BytesMessage message) throws JMSException {
+            message.writeByte((byte) VERSION);
+            writeString(message, event.getApplicationId());
+            writeString(message, event.getInvestorId());
+            writeString(message, event.getUserUpiId());
+            message.writeDouble(event.getAmount());
+            writeString(message, event.getIpoId());
+            message.writeInt(event.getLots());
+            message.writeInt(event.getSchemaVersion());
+        }
+
+        @Override
+        public ApplicationCreatedEvent read(BytesMessage message) throws JMSException {
+            int version = readVersion(message, getType());
+            ApplicationCreatedEvent event = new ApplicationCreatedEvent();
+            event.setApplicationId(readString(message));
+            event.setInvestorId(readString(message));
+            event.setUserUpiId(readString(message));
+            event.setAmount(message.readDouble());
+            if (version >= 2) {
+                event.setIpoId(readString(message));
+                event.setLots(message.readInt());
+                event.setSchemaVersion(message.readInt());
+            }
+            return event;
+        }
+    }
+
+    // Layout 2 appends ipoId, investorId, lots, amount and schemaVersion
+    private static final class MandateApprovedCodec implements EventCodec<MandateApprovedEvent> {
+        private static final int VERSION = 2;
+
+        @Override
+        public Class<MandateApprovedEvent> getType() {
+            return MandateApprovedEvent.class;
+        }
+
+        @Override
+        public void write(MandateApprovedEvent event, BytesMessage message) throws JMSException {
+            message.writeByte((byte) VERSION);
+            writeString(message, event.getApplicationId());
+            writeString(message, event.getMandateId());
+            writeString(message, event.getIpoId());
+            writeString(message, event.getInvestorId());
+            message.writeInt(event.getLots());
+            message.writeDouble(event.getAmount());
+            message.writeInt(event.getSchemaVersion());
+        }
+
+        @Override
+        public MandateApprovedEvent read(BytesMessage message) throws JMSException {
+            int version = readVersion(message, getType());
+            MandateApprovedEvent event = new MandateApprovedEvent();
+            event.setApplicationId(readString(message));
+            event.setMandateId(readString(message));
+            if (version >= 2) {
+                event.setIpoId(readString(message));
+                event.setInvestorId(readString(message));
+                event.setLots(message.readInt());
+                event.setAmount(message.readDouble());
+                event.setSchemaVersion(message.readInt());
+            }
+            return event;
+        }
+    }
+
+    private static final class MandateFailedCodec implements EventCodec<MandateFailedEvent> {
+        private static final int VERSION = 1;
+
+        @Override
+        public Class<MandateFailedEvent> getType() {
+            return MandateFailedEvent.class;
+        }
+
+        @Override
+        public void write(MandateFailedEvent event, BytesMessage message) throws JMSException {
+            message.writeByte((byte) VERSION);
+            writeString(message, event.getApplicationId());
+            writeString(message, event.getMandateId());
+            writeString(message, event.getReason());
+        }
+
+        @Override
+        public MandateFailedEvent read(BytesMessage message) throws JMSException {
+            readVersion(message, getType());
+            MandateFailedEvent event = new MandateFailedEvent();
+            event.setApplicationId(readString(message));
+            event.setMandateId(readString(message));
+            event.setReason(readString(message));
+            return event;
+        }
+    }
+
+    private static final class AllotmentDoneCodec implements EventCodec<AllotmentDoneEvent> {
+        private static final int VERSION = 1;
+
+        @Override
+        public Class<AllotmentDoneEvent> getType() {
+            return AllotmentDoneEvent.class;
+        }
+
+        @Override
+        public void write(AllotmentDoneEvent event, BytesMessage message) throws JMSException {
+            message.writeByte((byte) VERSION);
+            writeString(message, event.getIpoId());
+            writeString(message, event.getDrawId());
+            message.writeInt(event.getWinnerCount());
+            message.writeInt(event.getNonWinnerCount());
+            message.writeInt(event.getChunkCount());
+            message.writeInt(event.getChunkSize());
+            message.writeLong(event.getChecksum());
+        }
+
+        @Override
+        public AllotmentDoneEvent read(BytesMessage message) throws JMSException {
+            readVersion(message, getType());
+            AllotmentDoneEvent event = new AllotmentDoneEvent();
+            event.setIpoId(readString(message));
+            event.setDrawId(readString(message));
+            event.setWinnerCount(message.readInt());
+            event.setNonWinnerCount(message.readInt());
+            event.setChunkCount(message.readInt());
+            event.setChunkSize(message.readInt());
+            event.setChecksum(message.readLong());
+            return event;
+        }
+    }
+
+    private static final class AllotmentResultChunkCodec implements EventCodec<AllotmentResultChunk> {
+        private static final int VERSION = 1;
+
+        @Override
+        public Class<AllotmentResultChunk> getType() {
+            return AllotmentResultChunk.class;
+        }
+
+        @Override
+        public void write(AllotmentResultChunk chunk, BytesMessage message) throws JMSException {
+            message.writeByte((byte) VERSION);
+            writeString(message, chunk.getIpoId());
+            writeString(message, chunk.getDrawId());
+            message.writeInt(chunk.getSequence());
+            message.writeInt(chunk.getChunkCount());
+            message.writeBoolean(chunk.isWinners());
+            List<String> ids = chunk.getApplicationIds();
+            // -1 keeps a null list distinguishable from an empty one
+            message.writeInt(ids == null ? -1 : ids.size());
+            if (ids != null) {
+                for (String id : ids) {
+                    writeString(message, id);
+                }
+            }
+            message.writeLong(chunk.getChecksum());
+        }
+
+        @Override
+        public AllotmentResultChunk read(BytesMessage message) throws JMSException {
+            readVersion(message, getType());
+            AllotmentResultChunk chunk = new AllotmentResultChunk();
+            chunk.setIpoId(readString(message));
+            chunk.setDrawId(readString(message));
+            chunk.setSequence(message.readInt());
+            chunk.setChunkCount(message.readInt());
+            chunk.setWinners(message.readBoolean());
+            int size = message.readInt();
+            if (size >= 0) {
+                List<String> ids = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    ids.add(readString(message));
+                }
+                chunk.setApplicationIds(ids);
+            }
+            chunk.setChecksum(message.readLong());
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.ipo.jms;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+
+// Hand-written binary layout for one event type. Every layout starts with a version
+// byte so fields can be appended later without breaking consumers on the old layout:
+// readers accept any newer version and ignore the fields they do not know about.
+public interface EventCodec<T> {
+
+    Class<T> getType();
+
+    void write(T event, BytesMessage message) throws JMSException;
+
+    T read(BytesMessage message) throws JMSException;
+}
@@ -0,0 +1,114 @@
+package com.ipo.jms;
+
+import java.util.concurrent.Semaphore;
+
+import org.springframework.jms.JmsException;
+import org.springframework.jms.UncategorizedJmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.SessionCallback;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
+
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+
+// JmsTemplate.convertAndSend() does not tell the converter where a message is going;
+// this passes the destination name through so EventMessageConverter can pick the
+// format per destination.
+//
+// It can also cap how many threads are inside the JMS client at once. The ActiveMQ
+// client blocks on socket writes while holding monitors, which pins a virtual thread
+// to its carrier; with virtual threads enabled, an unbounded number of concurrent
+// sends could pin every carrier. Waiting for a permit parks instead of pinning.
+//
+// convertAndSendAll() sends a run of messages through one session and producer; with
+// sessionTransacted the run is committed once, so the broker round trip is paid per
+// run rather than per message.
+public class EventJmsTemplate extends JmsTemplate {
+
+    private Semaphore sendPermits;
+
+    public EventJmsTemplate(ConnectionFactory connectionFactory) {
+        super(connectionFactory);
+    }
+
+    // 0 or less leaves sends unbounded
+    public void setMaxConcurrentSends(int maxConcurrentSends) {
+        this.sendPermits = maxConcurrentSends > 0 ? new Semaphore(maxConcurrentSends) : null;
+    }
+
+    // A template with this one's connection factory, converter, destination resolver and
+    // send permits whose sessions are always transacted, for callers that must commit a
+    // run of sends to several destinations as one unit
+    public EventJmsTemplate transacted() {
+        EventJmsTemplate copy = new EventJmsTemplate(getConnectionFactory());
+        copy.setMessageConverter(getMessageConverter());
+        copy.setDestinationResolver(getDestinationResolver());
+        copy.setPubSubDomain(isPubSubDomain());
+        copy.setSessionTransacted(true);
+        copy.sendPermits = sendPermits;
+        return copy;
+    }
+
+    @Override
+    public void convertAndSend(String destinationName, Object message) throws JmsException {
+        MessageConverter converter = getMessageConverter();
+        if (converter instanceof EventMessageConverter eventConverter) {
+            send(destinationName, session -> eventConverter.toMessage(message, session, destinationName));
+        } else {
+            super.convertAndSend(destinationName, message);
+        }
+    }
+
+    public void convertAndSendAll(String destinationName, Iterable<?> messages) throws JmsException {
+        execute(session -> {
+            MessageProducer producer = createProducer(session, resolveDestinationName(session, destinationName));
+            try {
+                for (Object message : messages) {
+                    doSend(producer, toMessage(message, session, destinationName));
+                }
+                // Not when the session belongs to a listener: its container commits it
+                if (session.getTransacted() && isSessionLocallyTransacted(session)) {
+                    JmsUtils.commitIfNecessary(session);
+                }
+            } finally {
+                JmsUtils.closeMessageProducer(producer);
+            }
+            return null;
+        }, false);
+    }
+
+    private Message toMessage(Object message, Session session, String destinationName) throws JMSException {
+        MessageConverter converter = getMessageConverter();
+        if (converter == null) {
+            throw new IllegalStateException("No message converter set on " + getClass().getSimpleName());
+        }
+        if (converter instanceof EventMessageConverter eventConverter) {
+            return eventConverter.toMessage(message, session, destinationName);
+        }
+        return converter.toMessage(message, session);
+    }
+
+    // Every send, receive and browse operation of JmsTemplate funnels through here
+    @Override
+    public <T> T execute(SessionCallback<T> action, boolean startConnection) throws JmsException {
+        Semaphore permits = sendPermits;
+        if (permits == null) {
+            return super.execute(action, startConnection);
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncategorizedJmsException("Interrupted waiting for a JMS send permit", e);
+        }
+        try {
+            return super.execute(action, startConnection);
+        } finally {
+            permits.release();
+        }
+    }
+}
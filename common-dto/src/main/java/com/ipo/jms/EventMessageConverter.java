@@ -0,0 +1,77 @@
+package com.ipo.jms;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+
+// Sends com.ipo.events types as binary BytesMessages on the configured destinations
+// and everything else through the fallback (JSON) converter. Receiving always accepts
+// both formats, so consumers can be upgraded before any producer switches a
+// destination to binary.
+public class EventMessageConverter implements MessageConverter {
+
+    // Marks a message body as written by an EventCodec
+    public static final String FORMAT_PROPERTY = "_format";
+    public static final String BINARY_FORMAT = "binary";
+
+    private final MessageConverter fallback;
+    private final String typeIdPropertyName;
+    private final Set<String> binaryDestinations;
+
+    public EventMessageConverter(MessageConverter fallback, String typeIdPropertyName,
+            Collection<String> binaryDestinations) {
+        this.fallback = fallback;
+        this.typeIdPropertyName = typeIdPropertyName;
+        this.binaryDestinations = Set.copyOf(binaryDestinations);
+    }
+
+    public boolean isBinary(String destinationName) {
+        return binaryDestinations.contains(destinationName);
+    }
+
+    // Without a destination there is nothing to select on, so use the fallback
+    @Override
+    public Message toMessage(Object object, Session session) throws JMSException, MessageConversionException {
+        return fallback.toMessage(object, session);
+    }
+
+    public Message toMessage(Object object, Session session, String destinationName)
+            throws JMSException, MessageConversionException {
+        if (isBinary(destinationName)) {
+            EventCodec<?> codec = BinaryEventCodecs.forType(object.getClass());
+            if (codec != null) {
+                return write(codec, object, session);
+            }
+        }
+        return fallback.toMessage(object, session);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws JMSException, MessageConversionException {
+        if (message instanceof BytesMessage bytesMessage
+                && BINARY_FORMAT.equals(message.getStringProperty(FORMAT_PROPERTY))) {
+            String typeId = message.getStringProperty(typeIdPropertyName);
+            EventCodec<?> codec = BinaryEventCodecs.forTypeId(typeId);
+            if (codec == null) {
+                throw new MessageConversionException("No binary codec for type id [" + typeId + "]");
+            }
+            return codec.read(bytesMessage);
+        }
+        return fallback.fromMessage(message);
+    }
+
+    private <T> Message write(EventCodec<T> codec, Object object, Session session) throws JMSException {
+        BytesMessage message = session.createBytesMessage();
+        codec.write(codec.getType().cast(object), message);
+        message.setStringProperty(typeIdPropertyName, codec.getType().getName());
+        message.setStringProperty(FORMAT_PROPERTY, BINARY_FORMAT);
+        return message;
+    }
+}
@@ -0,0 +1,220 @@
+package com.ipo.jms;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.jms.JmsAutoConfiguration;
+import org.springframework.boot.autoconfigure.jms.activemq.ActiveMQConnectionFactoryCustomizer;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.jms.config.JmsListenerContainerFactory;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.core.JmsOperations;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.jms.support.converter.MessageType;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.jms.ConnectionFactory;
+
+// JMS setup shared by every service: the event converter, the JmsTemplate, the queue
+// and topic listener factories, their startup and the ActiveMQ client tuning. The connection factory
+// itself is Boot's: pooled-jms with spring.activemq.pool.enabled, otherwise a
+// CachingConnectionFactory (spring.jms.cache.*), both of which reuse connections,
+// sessions and producers across sends. Runs before JmsAutoConfiguration so that its
+// JmsTemplate and converter are the ones Boot's listener configurer picks up.
+@AutoConfiguration(before = JmsAutoConfiguration.class)
+@ConditionalOnClass({ JmsTemplate.class, ConnectionFactory.class })
+public class IpoJmsAutoConfiguration {
+
+    // Destinations whose events are sent as binary; everything else stays JSON
+    @Value("${ipo.jms.binary-destinations:}")
+    private List<String> binaryDestinations;
+
+    // Threads allowed inside the JMS client at once (0 = unbounded); see EventJmsTemplate
+    @Value("${ipo.jms.max-concurrent-sends:0}")
+    private int maxConcurrentSends;
+
+    // Sends in a local JMS transaction, so convertAndSendAll() commits a run once
+    @Value("${ipo.jms.send.transacted:false}")
+    private boolean sendTransacted;
+
+    // Messages handed to a listener per transaction (1 = one at a time), and how long
+    // to keep receiving to fill a batch after its first message
+    @Value("${ipo.jms.listener.batch-size:1}")
+    private int listenerBatchSize;
+
+    @Value("${ipo.jms.listener.batch-timeout-ms:50}")
+    private long listenerBatchTimeoutMs;
+
+    // First retry delay while the broker is unreachable at startup, doubled per attempt
+    @Value("${ipo.jms.startup.initial-backoff-ms:100}")
+    private long startupInitialBackoffMs;
+
+    @Value("${ipo.jms.startup.max-backoff-ms:5000}")
+    private long startupMaxBackoffMs;
+
+    // Serializer for sending/receiving payloads: binary on the destinations above,
+    // JSON elsewhere; both formats are always accepted on receive
+    @Bean
+    @ConditionalOnMissingBean(MessageConverter.class)
+    public MessageConverter jacksonJmsMessageConverter() {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setTargetType(MessageType.TEXT);
+        converter.setTypeIdPropertyName("_type");
+        return new EventMessageConverter(converter, "_type", binaryDestinations);
+    }
+
+    // Passes the destination name to the converter on convertAndSend()
+    @Bean
+    @ConditionalOnMissingBean(JmsOperations.class)
+    public EventJmsTemplate jmsTemplate(ConnectionFactory connectionFactory, MessageConverter messageConverter) {
+        EventJmsTemplate template = new EventJmsTemplate(connectionFactory);
+        template.setMessageConverter(messageConverter);
+        template.setMaxConcurrentSends(maxConcurrentSends);
+        template.setSessionTransacted(sendTransacted);
+        return template;
+    }
+
+    // Consumer count follows spring.jms.listener.min-concurrency / max-concurrency
+    @Bean
+    @ConditionalOnMissingBean(name = "queueListenerFactory")
+    public JmsListenerContainerFactory<?> queueListenerFactory(ConnectionFactory connectionFactory,
+            DefaultJmsListenerContainerFactoryConfigurer configurer,
+            ObjectProvider<PlatformTransactionManager> transactionManager, Environment environment) {
+        BatchingJmsListenerContainerFactory factory = listenerFactory(connectionFactory, configurer,
+                transactionManager, environment);
+        factory.setAutoStartup(false); // Started by JmsListenerStartup
+        return factory;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "topicListenerFactory")
+    public JmsListenerContainerFactory<?> topicListenerFactory(ConnectionFactory connectionFactory,
+            DefaultJmsListenerContainerFactoryConfigurer configurer,
+            ObjectProvider<PlatformTransactionManager> transactionManager, Environment environment) {
+        BatchingJmsListenerContainerFactory factory = listenerFactory(connectionFactory, configurer,
+                transactionManager, environment);
+        factory.setPubSubDomain(true);
+        // Each consumer on a topic is its own subscriber and would get every message again
+        factory.setConcurrency("1");
+        factory.setAutoStartup(false); // Started by JmsListenerStartup
+        return factory;
+    }
+
+    // Starts the containers of both factories above once the broker is reachable
+    @Bean
+    @ConditionalOnMissingBean
+    public JmsListenerStartup jmsListenerStartup(JmsListenerEndpointRegistry registry,
+            ConnectionFactory connectionFactory, ApplicationEventPublisher publisher) {
+        return new JmsListenerStartup(registry, connectionFactory, publisher, startupInitialBackoffMs,
+                startupMaxBackoffMs);
+    }
+
+    private BatchingJmsListenerContainerFactory listenerFactory(ConnectionFactory connectionFactory,
+            DefaultJmsListenerContainerFactoryConfigurer configurer,
+            ObjectProvider<PlatformTransactionManager> transactionManager, Environment environment) {
+        BatchingJmsListenerContainerFactory factory = new BatchingJmsListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchSize(listenerBatchSize);
+        factory.setBatchTimeoutMs(listenerBatchTimeoutMs);
+        factory.setBatchTransactionManager(transactionManager.getIfUnique());
+        // Boot 3.2.0 switches Tomcat and @Scheduled to virtual threads for
+        // spring.threads.virtual.enabled but not listener containers, so do it here
+        if (Threading.VIRTUAL.isActive(environment)) {
+            factory.setTaskExecutor(new VirtualThreadTaskExecutor("jms-listener-"));
+        }
+        return factory;
+    }
+
+    // OUT_OF_SERVICE until the listeners are running; each service adds it to the
+    // readiness group so an instance only takes traffic once it can consume
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(HealthIndicator.class)
+    static class ListenerHealthConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(name = "jmsListenersHealthIndicator")
+        public HealthIndicator jmsListenersHealthIndicator(JmsListenerStartup startup) {
+            return () -> (startup.isRunning() ? Health.up() : Health.outOfService())
+                    .withDetail("state", startup.getState())
+                    .withDetail("brokerProbes", startup.getAttempts())
+                    .build();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    static class ListenerMetricsConfiguration {
+
+        // Time from JVM start until the listeners were started (NaN before), the broker
+        // probes it took, and whether they are running
+        @Bean
+        public MeterBinder jmsListenerStartupMetrics(JmsListenerStartup startup) {
+            return registry -> {
+                TimeGauge.builder("ipo.jms.listeners.startup.latency", startup, TimeUnit.MILLISECONDS,
+                        s -> s.getStartupLatencyMs() < 0 ? Double.NaN : s.getStartupLatencyMs())
+                        .description("Time from JVM start until the JMS listeners were started")
+                        .register(registry);
+                Gauge.builder("ipo.jms.listeners.startup.probes", startup, JmsListenerStartup::getAttempts)
+                        .description("Broker connection attempts made before starting the JMS listeners")
+                        .register(registry);
+                Gauge.builder("ipo.jms.listeners.running", startup, s -> s.isRunning() ? 1 : 0)
+                        .register(registry);
+            };
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(ActiveMQConnectionFactory.class)
+    static class ActiveMQClientConfiguration {
+
+        // Messages the broker pushes ahead to each consumer. A queue prefetch well below
+        // ActiveMQ's default of 1000 lets concurrent consumers share a backlog instead of
+        // the first one buffering all of it
+        @Value("${ipo.jms.prefetch.queue:100}")
+        private int queuePrefetch;
+
+        @Value("${ipo.jms.prefetch.topic:32766}")
+        private int topicPrefetch;
+
+        // Persistent sends return without waiting for the broker's receipt; a send that
+        // fails after returning is lost, so only for events that can be replayed
+        @Value("${ipo.jms.send.async:false}")
+        private boolean asyncSend;
+
+        // Bytes of async sends a producer may have unacknowledged before it blocks
+        @Value("${ipo.jms.send.producer-window-size:1048576}")
+        private int producerWindowSize;
+
+        @Bean
+        public ActiveMQConnectionFactoryCustomizer ipoActiveMQConnectionFactoryCustomizer() {
+            return factory -> {
+                factory.getPrefetchPolicy().setQueuePrefetch(queuePrefetch);
+                factory.getPrefetchPolicy().setTopicPrefetch(topicPrefetch);
+                factory.setUseAsyncSend(asyncSend);
+                if (asyncSend) {
+                    factory.setProducerWindowSize(producerWindowSize);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ipo.jms;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.AvailabilityState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+
+// Starts the listener containers (created with autoStartup=false) once the application
+// is ready and the broker accepts a connection. Until then it probes the connection
+// factory with exponential backoff and reports the listeners as STARTING, both as an
+// availability state and, with actuator, through the jmsListeners health indicator that
+// the readiness group includes. With the broker up, listeners start within one probe of
+// ApplicationReadyEvent instead of after a fixed delay.
+public class JmsListenerStartup implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    public enum ListenerState implements AvailabilityState {
+        STARTING, RUNNING
+    }
+
+    private final JmsListenerEndpointRegistry registry;
+    private final ConnectionFactory connectionFactory;
+    private final ApplicationEventPublisher publisher;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private volatile ListenerState state = ListenerState.STARTING;
+    // Milliseconds from JVM start until the listeners were started; -1 until then
+    private volatile long startupLatencyMs = -1;
+    private volatile Thread startupThread;
+
+    public JmsListenerStartup(JmsListenerEndpointRegistry registry, ConnectionFactory connectionFactory,
+            ApplicationEventPublisher publisher, long initialBackoffMs, long maxBackoffMs) {
+        this.registry = registry;
+        this.connectionFactory = connectionFactory;
+        this.publisher = publisher;
+        this.initialBackoffMs = Math.max(1, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+    }
+
+    @Override
+    public synchronized void onApplicationEvent(ApplicationReadyEvent event) {
+        if (startupThread != null) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(publisher, this, ListenerState.STARTING);
+        startupThread = new Thread(this::awaitBrokerAndStart, "jms-listener-startup");
+        startupThread.setDaemon(true);
+        startupThread.start();
+    }
+
+    private void awaitBrokerAndStart() {
+        long backoffMs = initialBackoffMs;
+        while (!Thread.currentThread().isInterrupted()) {
+            int attempt = attempts.incrementAndGet();
+            if (brokerReachable(attempt, backoffMs)) {
+                registry.start();
+                startupLatencyMs = ManagementFactory.getRuntimeMXBean().getUptime();
+                state = ListenerState.RUNNING;
+                AvailabilityChangeEvent.publish(publisher, this, ListenerState.RUNNING);
+                System.out.println("JMS listeners started after " + attempt + " broker probe(s), "
+                        + startupLatencyMs + " ms after JVM start");
+                return;
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+        }
+    }
+
+    // Opening a connection is the cheapest end-to-end check of the broker. Through Boot's
+    // CachingConnectionFactory this also opens the shared connection the listeners then
+    // use, and closing the returned proxy keeps it open; pooled-jms returns it to the pool
+    private boolean brokerReachable(int attempt, long backoffMs) {
+        try (Connection connection = connectionFactory.createConnection()) {
+            return true;
+        } catch (JMSException | JmsException e) {
+            System.err.println("JMS broker not reachable (attempt " + attempt + "), retrying in "
+                    + backoffMs + " ms: " + e.getMessage());
+            return false;
+        }
+    }
+
+    public ListenerState getState() {
+        return state;
+    }
+
+    public boolean isRunning() {
+        return state == ListenerState.RUNNING;
+    }
+
+    public int getAttempts() {
+        return attempts.get();
+    }
+
+    public long getStartupLatencyMs() {
+        return startupLatencyMs;
+    }
+
+    @Override
+    public void destroy() {
+        Thread thread = startupThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
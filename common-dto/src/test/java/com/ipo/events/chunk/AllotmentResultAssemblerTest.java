@@ -0,0 +1,114 @@
+package com.ipo.events.chunk;
+
+import com.ipo.events.AllotmentDoneEvent;
+import com.ipo.events.AllotmentResultChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ipo.events.chunk.AllotmentResultChunkerTest.ids;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AllotmentResultAssemblerTest {
+
+    private final List<AllotmentDoneEvent> completed = new ArrayList<>();
+    private final List<Integer> processed = new ArrayList<>();
+    private final AllotmentResultAssembler assembler = new AllotmentResultAssembler(completed::add);
+    private final AllotmentResultChunker chunker =
+            new AllotmentResultChunker("ipo", "draw", ids("w", 5), ids("n", 4), 2);
+
+    @Test
+    void completesOnceWhenHeaderArrivesFirst() {
+        assembler.acceptHeader(chunker.header());
+        for (int sequence = 0; sequence < chunker.getChunkCount(); sequence++) {
+            assertTrue(completed.isEmpty());
+            accept(chunker.chunk(sequence));
+        }
+
+        assertEquals(List.of(chunker.header()), completed);
+        assertEquals(0, assembler.getDrawsInFlight());
+    }
+
+    @Test
+    void completesWhenHeaderArrivesLastAndChunksOutOfOrder() {
+        for (int sequence = chunker.getChunkCount() - 1; sequence >= 0; sequence--) {
+            accept(chunker.chunk(sequence));
+        }
+        assertTrue(completed.isEmpty());
+
+        assembler.acceptHeader(chunker.header());
+
+        assertEquals(1, completed.size());
+        assertEquals(chunker.getChunkCount(), processed.size());
+    }
+
+    @Test
+    void redeliveredChunksAreProcessedOnce() {
+        assertTrue(accept(chunker.chunk(0)));
+        assertFalse(accept(chunker.chunk(0)));
+
+        assertEquals(List.of(0), processed);
+    }
+
+    @Test
+    void chunksAndHeadersOfCompletedDrawsAreSkipped() {
+        assembler.acceptHeader(chunker.header());
+        for (int sequence = 0; sequence < chunker.getChunkCount(); sequence++) {
+            accept(chunker.chunk(sequence));
+        }
+
+        assertFalse(accept(chunker.chunk(1)));
+        assembler.acceptHeader(chunker.header());
+
+        assertEquals(1, completed.size());
+        assertEquals(chunker.getChunkCount(), processed.size());
+    }
+
+    @Test
+    void corruptChunkIsRejectedBeforeProcessing() {
+        AllotmentResultChunk chunk = chunker.chunk(2);
+        chunk.getApplicationIds().set(0, "tampered");
+
+        assertThrows(IllegalArgumentException.class, () -> accept(chunk));
+        assertTrue(processed.isEmpty());
+    }
+
+    @Test
+    void failedProcessingLeavesTheChunkToRedelivery() {
+        assertThrows(IllegalStateException.class, () -> assembler.acceptChunk(chunker.chunk(0), chunk -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertTrue(accept(chunker.chunk(0)));
+    }
+
+    @Test
+    void headerThatDisagreesWithTheChunksFailsVerification() {
+        AllotmentDoneEvent header = chunker.header();
+        header.setChecksum(header.getChecksum() + 1);
+        assembler.acceptHeader(header);
+        for (int sequence = 0; sequence < chunker.getChunkCount() - 1; sequence++) {
+            accept(chunker.chunk(sequence));
+        }
+
+        assertThrows(IllegalStateException.class, () -> accept(chunker.chunk(chunker.getChunkCount() - 1)));
+        assertTrue(completed.isEmpty());
+    }
+
+    @Test
+    void emptyDrawCompletesOnItsHeader() {
+        AllotmentResultChunker empty = new AllotmentResultChunker("ipo", "empty", List.of(), List.of(), 2);
+
+        assembler.acceptHeader(empty.header());
+
+        assertEquals(1, completed.size());
+    }
+
+    private boolean accept(AllotmentResultChunk chunk) {
+        return assembler.acceptChunk(chunk, c -> processed.add(c.getSequence()));
+    }
+}
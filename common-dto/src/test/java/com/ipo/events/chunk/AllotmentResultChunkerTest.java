@@ -0,0 +1,112 @@
+package com.ipo.events.chunk;
+
+import com.ipo.events.AllotmentDoneEvent;
+import com.ipo.events.AllotmentResultChunk;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AllotmentResultChunkerTest {
+
+    @Test
+    void winnerChunksComeFirstAndConcatenateToTheInput() {
+        List<String> winners = ids("w", 7);
+        List<String> nonWinners = ids("n", 5);
+
+        AllotmentResultChunker chunker = new AllotmentResultChunker("ipo", "draw", winners, nonWinners, 3);
+
+        assertEquals(3 + 2, chunker.getChunkCount());
+        List<String> winnerIds = new ArrayList<>();
+        List<String> nonWinnerIds = new ArrayList<>();
+        for (int sequence = 0; sequence < chunker.getChunkCount(); sequence++) {
+            AllotmentResultChunk chunk = chunker.chunk(sequence);
+            assertEquals(sequence, chunk.getSequence());
+            assertEquals(chunker.getChunkCount(), chunk.getChunkCount());
+            assertEquals(sequence < 3, chunk.isWinners());
+            assertTrue(chunk.getApplicationIds().size() <= 3);
+            (chunk.isWinners() ? winnerIds : nonWinnerIds).addAll(chunk.getApplicationIds());
+        }
+        assertEquals(winners, winnerIds);
+        assertEquals(nonWinners, nonWinnerIds);
+    }
+
+    @Test
+    void exactMultipleOfChunkSizeHasNoEmptyTrailingChunk() {
+        AllotmentResultChunker chunker = new AllotmentResultChunker("ipo", "draw", ids("w", 6), ids("n", 3), 3);
+
+        assertEquals(3, chunker.getChunkCount());
+        assertEquals(3, chunker.chunk(2).getApplicationIds().size());
+    }
+
+    @Test
+    void emptyDrawHasAHeaderAndNoChunks() {
+        AllotmentResultChunker chunker = new AllotmentResultChunker("ipo", "draw", List.of(), List.of(), 10);
+
+        AllotmentDoneEvent header = chunker.header();
+        assertEquals(0, chunker.getChunkCount());
+        assertEquals(0, header.getChunkCount());
+        assertEquals(0, header.getChecksum());
+    }
+
+    @Test
+    void headerCarriesTotalsAndTheSumOfChunkChecksums() {
+        AllotmentResultChunker chunker = new AllotmentResultChunker("ipo", "draw", ids("w", 4), ids("n", 9), 4);
+
+        AllotmentDoneEvent header = chunker.header();
+        long sum = 0;
+        for (int sequence = 0; sequence < chunker.getChunkCount(); sequence++) {
+            AllotmentResultChunk chunk = chunker.chunk(sequence);
+            assertEquals(AllotmentResultChunker.checksum(chunk.getApplicationIds()), chunk.getChecksum());
+            sum += chunk.getChecksum();
+        }
+        assertEquals(4, header.getWinnerCount());
+        assertEquals(9, header.getNonWinnerCount());
+        assertEquals(4, header.getChunkSize());
+        assertEquals(chunker.getChunkCount(), header.getChunkCount());
+        assertEquals(sum, header.getChecksum());
+    }
+
+    @Test
+    void checksumIsCrc32OfNewlineTerminatedIds() {
+        CRC32 crc = new CRC32();
+        crc.update("a\nbc\n".getBytes());
+
+        assertEquals(crc.getValue(), AllotmentResultChunker.checksum(List.of("a", "bc")));
+        // The separator keeps id boundaries significant
+        assertNotEquals(AllotmentResultChunker.checksum(List.of("ab", "c")),
+                AllotmentResultChunker.checksum(List.of("a", "bc")));
+    }
+
+    @Test
+    void chunksAreCopiesOfTheInput() {
+        List<String> winners = ids("w", 2);
+        AllotmentResultChunker chunker = new AllotmentResultChunker("ipo", "draw", winners, List.of(), 2);
+
+        chunker.chunk(0).getApplicationIds().clear();
+
+        assertEquals(2, winners.size());
+        assertFalse(chunker.chunk(0).getApplicationIds().isEmpty());
+    }
+
+    @Test
+    void rejectsNonPositiveChunkSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AllotmentResultChunker("ipo", "draw", List.of(), List.of(), 0));
+    }
+
+    static List<String> ids(String prefix, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(prefix + "-" + i);
+        }
+        return ids;
+    }
+}
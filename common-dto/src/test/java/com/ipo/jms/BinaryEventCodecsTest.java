@@ -0,0 +1,164 @@
+package com.ipo.jms;
+
+import com.ipo.events.AllotmentDoneEvent;
+import com.ipo.events.AllotmentResultChunk;
+import com.ipo.events.ApplicationCreatedEvent;
+import com.ipo.events.MandateApprovedEvent;
+import com.ipo.events.MandateFailedEvent;
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.support.converter.MessageConversionException;
+
+import jakarta.jms.BytesMessage;
+import jakarta.jms.JMSException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryEventCodecsTest {
+
+    @Test
+    void applicationCreatedRoundTrips() throws JMSException {
+        ApplicationCreatedEvent event = new ApplicationCreatedEvent();
+        event.setApplicationId("app-1");
+        event.setInvestorId("inv-1");
+        event.setUserUpiId("user@upi");
+        event.setAmount(1250.5);
+        event.setIpoId("ipo-1");
+        event.setLots(12);
+        event.setSchemaVersion(ApplicationCreatedEvent.SCHEMA_VERSION);
+
+        assertEquals(event, roundTrip(event));
+    }
+
+    @Test
+    void mandateApprovedRoundTrips() throws JMSException {
+        MandateApprovedEvent event = new MandateApprovedEvent();
+        event.setApplicationId("app-1");
+        event.setMandateId("mandate-1");
+        event.setIpoId("ipo-1");
+        event.setInvestorId("inv-1");
+        event.setLots(3);
+        event.setAmount(300.0);
+        event.setSchemaVersion(MandateApprovedEvent.SCHEMA_VERSION);
+
+        assertEquals(event, roundTrip(event));
+    }
+
+    @Test
+    void mandateFailedRoundTripsNullStrings() throws JMSException {
+        MandateFailedEvent event = new MandateFailedEvent();
+        event.setApplicationId("app-1");
+        event.setMandateId(null);
+        event.setReason("");
+
+        MandateFailedEvent read = roundTrip(event);
+
+        assertEquals(event, read);
+        assertNull(read.getMandateId());
+        assertEquals("", read.getReason());
+    }
+
+    @Test
+    void allotmentDoneRoundTripsExtremeValues() throws JMSException {
+        AllotmentDoneEvent event = new AllotmentDoneEvent("ipo-1", "42", Integer.MAX_VALUE, 0, 1, 5000,
+                0xFFFFFFFFL * 3);
+
+        assertEquals(event, roundTrip(event));
+    }
+
+    @Test
+    void allotmentResultChunkRoundTripsIds() throws JMSException {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            ids.add("app-" + i);
+        }
+        ids.add("ünïcødé-😀");
+        AllotmentResultChunk chunk = new AllotmentResultChunk("ipo-1", "42", 7, 9, true, ids, 123L);
+
+        assertEquals(chunk, roundTrip(chunk));
+    }
+
+    @Test
+    void allotmentResultChunkKeepsEmptyAndNullListsApart() throws JMSException {
+        AllotmentResultChunk empty = new AllotmentResultChunk("ipo-1", "42", 0, 1, false, List.of(), 0L);
+        AllotmentResultChunk none = new AllotmentResultChunk("ipo-1", "42", 0, 1, false, null, 0L);
+
+        assertEquals(List.of(), roundTrip(empty).getApplicationIds());
+        assertNull(roundTrip(none).getApplicationIds());
+    }
+
+    @Test
+    void readsLayoutOneWithAppendedFieldsUnset() throws JMSException {
+        BytesMessage message = new ActiveMQBytesMessage();
+        message.writeByte((byte) 1);
+        writeString(message, "app-1");
+        writeString(message, "inv-1");
+        writeString(message, "user@upi");
+        message.writeDouble(99.0);
+        ((ActiveMQBytesMessage) message).reset();
+
+        ApplicationCreatedEvent event = BinaryEventCodecs.forType(ApplicationCreatedEvent.class).read(message);
+
+        assertEquals("app-1", event.getApplicationId());
+        assertEquals("user@upi", event.getUserUpiId());
+        assertEquals(99.0, event.getAmount());
+        assertNull(event.getIpoId());
+        assertEquals(0, event.getLots());
+        assertEquals(0, event.getSchemaVersion());
+    }
+
+    @Test
+    void readsTheKnownPrefixOfANewerLayout() throws JMSException {
+        ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+        message.writeByte((byte) 200);
+        writeString(message, "app-1");
+        writeString(message, "mandate-1");
+        writeString(message, "because");
+        message.writeLong(-1L); // a field appended by the newer layout
+        message.reset();
+
+        MandateFailedEvent event = BinaryEventCodecs.forType(MandateFailedEvent.class).read(message);
+
+        assertEquals("app-1", event.getApplicationId());
+        assertEquals("because", event.getReason());
+    }
+
+    @Test
+    void rejectsLayoutVersionZero() throws JMSException {
+        ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+        message.writeByte((byte) 0);
+        message.reset();
+
+        assertThrows(MessageConversionException.class,
+                () -> BinaryEventCodecs.forType(MandateFailedEvent.class).read(message));
+    }
+
+    @Test
+    void typeIdsAreClassNames() {
+        assertSame(BinaryEventCodecs.forType(AllotmentResultChunk.class),
+                BinaryEventCodecs.forTypeId(AllotmentResultChunk.class.getName()));
+        assertNull(BinaryEventCodecs.forTypeId("com.ipo.events.Unknown"));
+        assertNull(BinaryEventCodecs.forTypeId(null));
+        assertNull(BinaryEventCodecs.forType(String.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T event) throws JMSException {
+        EventCodec<T> codec = (EventCodec<T>) BinaryEventCodecs.forType(event.getClass());
+        ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+        codec.write(event, message);
+        message.reset();
+        return codec.read(message);
+    }
+
+    private static void writeString(BytesMessage message, String value) throws JMSException {
+        message.writeBoolean(true);
+        message.writeUTF(value);
+    }
+}
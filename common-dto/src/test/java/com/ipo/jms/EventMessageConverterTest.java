@@ -0,0 +1,77 @@
+package com.ipo.jms;
+
+import com.ipo.events.MandateFailedEvent;
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQObjectMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.SimpleMessageConverter;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EventMessageConverterTest {
+
+    private final EventMessageConverter converter = new EventMessageConverter(new SimpleMessageConverter(), "_type",
+            Set.of("mandate.failed.queue"));
+
+    @Test
+    void binaryDestinationsGetBytesMessages() throws JMSException {
+        Message message = converter.toMessage(event(), session(), "mandate.failed.queue");
+
+        assertInstanceOf(ActiveMQBytesMessage.class, message);
+        assertEquals(EventMessageConverter.BINARY_FORMAT,
+                message.getStringProperty(EventMessageConverter.FORMAT_PROPERTY));
+        assertEquals(MandateFailedEvent.class.getName(), message.getStringProperty("_type"));
+        ((ActiveMQBytesMessage) message).reset();
+        assertEquals(event(), converter.fromMessage(message));
+    }
+
+    @Test
+    void otherDestinationsUseTheFallback() throws JMSException {
+        Message message = converter.toMessage(event(), session(), "mandate.approved.queue");
+
+        assertInstanceOf(ActiveMQObjectMessage.class, message);
+        assertEquals(event(), converter.fromMessage(message));
+    }
+
+    @Test
+    void binaryMessageOfUnknownTypeIsRejected() throws JMSException {
+        ActiveMQBytesMessage message = new ActiveMQBytesMessage();
+        message.setStringProperty(EventMessageConverter.FORMAT_PROPERTY, EventMessageConverter.BINARY_FORMAT);
+        message.setStringProperty("_type", "com.ipo.events.Unknown");
+
+        assertThrows(MessageConversionException.class, () -> converter.fromMessage(message));
+    }
+
+    private static MandateFailedEvent event() {
+        MandateFailedEvent event = new MandateFailedEvent();
+        event.setApplicationId("app-1");
+        event.setMandateId("mandate-1");
+        event.setReason("insufficient funds");
+        return event;
+    }
+
+    private static Session session() throws JMSException {
+        Session session = mock(Session.class);
+        when(session.createBytesMessage()).thenAnswer(invocation -> new ActiveMQBytesMessage());
+        when(session.createObjectMessage(any(Serializable.class))).thenAnswer(invocation -> {
+            ActiveMQObjectMessage message = new ActiveMQObjectMessage();
+            message.setTrustAllPackages(true);
+            message.setObject(invocation.getArgument(0));
+            return message;
+        });
+        return session;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ipo.app.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+// JMS beans come from common-dto's IpoJmsAutoConfiguration
+@Configuration
+public class RestTemplateConfig {
+
+    // Client for the application service's REST API
+    @Bean
+    public RestTemplate restTemplate() {
+        return new RestTemplate();
+    }
+}
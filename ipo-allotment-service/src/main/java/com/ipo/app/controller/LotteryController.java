@@ -1,5 +1,8 @@
 package com.ipo.app.controller;
 
+import com.ipo.app.dto.DrawResultDTO;
+import com.ipo.app.entity.AllotmentResult;
+import com.ipo.app.service.AllotmentStore;
 import com.ipo.app.service.LotteryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -12,9 +15,26 @@ public class LotteryController {
     @Autowired
     private LotteryService lotteryService;
 
+    @Autowired
+    private AllotmentStore allotmentStore;
+
     @PostMapping("/allot")
     public ResponseEntity<String> performAllotment(@RequestParam String ipoId, @RequestParam int totalShares) {
         lotteryService.performAllotment(ipoId, totalShares);
         return ResponseEntity.ok("Allotment completed for IPO: " + ipoId);
     }
+
+    @GetMapping("/applications/{applicationId}")
+    public ResponseEntity<AllotmentResult> getResult(@PathVariable String applicationId) {
+        return allotmentStore.findResult(applicationId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/draws/{drawId}")
+    public ResponseEntity<DrawResultDTO> getDraw(@PathVariable Long drawId) {
+        return allotmentStore.findDraw(drawId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.ipo.app.dto;
+
+// Read-only projection of an eligible applicant with just what a draw needs
+public class ApplicantLots {
+    private final String id;
+    private final String applicationId;
+    private final int lots;
+
+    public ApplicantLots(String id, String applicationId, int lots) {
+        this.id = id;
+        this.applicationId = applicationId;
+        this.lots = lots;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    public int getLots() {
+        return lots;
+    }
+}
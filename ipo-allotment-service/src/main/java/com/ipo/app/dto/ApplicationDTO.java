@@ -1,6 +1,8 @@
 package com.ipo.app.dto;
 
 public class ApplicationDTO {
+    private String applicationId;
+    private String ipoId;
     private String investorId;
     private int lots;
 
@@ -12,6 +14,22 @@ public ApplicationDTO(String investorId, int lots) {
         this.lots = lots;
     }
 
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(String applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    public String getIpoId() {
+        return ipoId;
+    }
+
+    public void setIpoId(String ipoId) {
+        this.ipoId = ipoId;
+    }
+
     public String getInvestorId() {
         return investorId;
     }
@@ -0,0 +1,35 @@
+package com.ipo.app.dto;
+
+import java.util.List;
+
+// A recorded draw read back from its allotments row; each id list is in sorted order
+public class DrawResultDTO {
+    private final Long drawId;
+    private final String ipoId;
+    private final List<String> winnerApplicationIds;
+    private final List<String> nonWinnerApplicationIds;
+
+    public DrawResultDTO(Long drawId, String ipoId, List<String> winnerApplicationIds,
+            List<String> nonWinnerApplicationIds) {
+        this.drawId = drawId;
+        this.ipoId = ipoId;
+        this.winnerApplicationIds = winnerApplicationIds;
+        this.nonWinnerApplicationIds = nonWinnerApplicationIds;
+    }
+
+    public Long getDrawId() {
+        return drawId;
+    }
+
+    public String getIpoId() {
+        return ipoId;
+    }
+
+    public List<String> getWinnerApplicationIds() {
+        return winnerApplicationIds;
+    }
+
+    public List<String> getNonWinnerApplicationIds() {
+        return nonWinnerApplicationIds;
+    }
+}
@@ -1,9 +1,8 @@
 package com.ipo.app.entity;
 
 import java.util.Objects;
-import java.util.Set;
 
-import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -20,11 +19,16 @@ public class Allotment {
 
     private String ipoId;
 
-    @ElementCollection
-    private Set<String> winnerApplicationIds;
+    @Column(name = "winner_count")
+    private int winnerCount;
 
-    @ElementCollection
-    private Set<String> nonWinnerApplicationIds;
+    @Column(name = "non_winner_count")
+    private int nonWinnerCount;
+
+    // Winner and non-winner application ids encoded by AllotmentResultCodec;
+    // per-application lookups go through the allotment_results table instead
+    @Column(name = "results")
+    private byte[] results;
 
     public Long getId() {
         return id;
@@ -42,20 +46,28 @@ public void setIpoId(String ipoId) {
         this.ipoId = ipoId;
     }
 
-    public Set<String> getWinnerApplicationIds() {
-        return winnerApplicationIds;
+    public int getWinnerCount() {
+        return winnerCount;
+    }
+
+    public void setWinnerCount(int winnerCount) {
+        this.winnerCount = winnerCount;
+    }
+
+    public int getNonWinnerCount() {
+        return nonWinnerCount;
     }
 
-    public void setWinnerApplicationIds(Set<String> winnerApplicationIds) {
-        this.winnerApplicationIds = winnerApplicationIds;
+    public void setNonWinnerCount(int nonWinnerCount) {
+        this.nonWinnerCount = nonWinnerCount;
     }
 
-    public Set<String> getNonWinnerApplicationIds() {
-        return nonWinnerApplicationIds;
+    public byte[] getResults() {
+        return results;
     }
 
-    public void setNonWinnerApplicationIds(Set<String> nonWinnerApplicationIds) {
-        this.nonWinnerApplicationIds = nonWinnerApplicationIds;
+    public void setResults(byte[] results) {
+        this.results = results;
     }
 
     @Override
@@ -78,8 +90,9 @@ public String toString() {
         return "Allotment{" +
                 "id=" + id +
                 ", ipoId='" + ipoId + '\'' +
-                ", winnerApplicationIds=" + winnerApplicationIds +
-                ", nonWinnerApplicationIds=" + nonWinnerApplicationIds +
+                ", winnerCount=" + winnerCount +
+                ", nonWinnerCount=" + nonWinnerCount +
+                ", results=" + (results == null ? 0 : results.length) + " bytes" +
                 '}';
     }
-}
\ No newline at end of file
+}
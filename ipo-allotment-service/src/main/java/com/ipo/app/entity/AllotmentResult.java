@@ -0,0 +1,114 @@
+package com.ipo.app.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// One row per application per draw, so "did application X win?" is an index lookup.
+// Rows are written in JDBC batches by AllotmentResultWriter, not through JPA.
+@Entity
+@Table(name = "allotment_results", indexes = @Index(name = "idx_allotment_results_application_id", columnList = "application_id"))
+@IdClass(AllotmentResult.Key.class)
+public class AllotmentResult {
+
+    @Id
+    @Column(name = "allotment_id")
+    private Long allotmentId;
+
+    @Id
+    @Column(name = "application_id")
+    private String applicationId;
+
+    @Column(name = "ipo_id")
+    private String ipoId;
+
+    private boolean won;
+
+    @Column(name = "allotted_lots")
+    private int allottedLots;
+
+    public Long getAllotmentId() {
+        return allotmentId;
+    }
+
+    public void setAllotmentId(Long allotmentId) {
+        this.allotmentId = allotmentId;
+    }
+
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(String applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    public String getIpoId() {
+        return ipoId;
+    }
+
+    public void setIpoId(String ipoId) {
+        this.ipoId = ipoId;
+    }
+
+    public boolean isWon() {
+        return won;
+    }
+
+    public void setWon(boolean won) {
+        this.won = won;
+    }
+
+    public int getAllottedLots() {
+        return allottedLots;
+    }
+
+    public void setAllottedLots(int allottedLots) {
+        this.allottedLots = allottedLots;
+    }
+
+    @Override
+    public String toString() {
+        return "AllotmentResult{" +
+                "allotmentId=" + allotmentId +
+                ", applicationId='" + applicationId + '\'' +
+                ", ipoId='" + ipoId + '\'' +
+                ", won=" + won +
+                ", allottedLots=" + allottedLots +
+                '}';
+    }
+
+    public static class Key implements Serializable {
+        private Long allotmentId;
+        private String applicationId;
+
+        public Key() {
+        }
+
+        public Key(Long allotmentId, String applicationId) {
+            this.allotmentId = allotmentId;
+            this.applicationId = applicationId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+            Key key = (Key) o;
+            return Objects.equals(allotmentId, key.allotmentId) && Objects.equals(applicationId, key.applicationId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(allotmentId, applicationId);
+        }
+    }
+}
@@ -3,10 +3,15 @@
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "eligible_applicants")
+@Table(name = "eligible_applicants", indexes = {
+        @Index(name = "idx_eligible_applicants_ipo_id", columnList = "ipo_id"),
+        // One registration per application; ApplicantRegistrationWriter relies on it for ON CONFLICT
+        @Index(name = "uk_eligible_applicants_application_id", columnList = "application_id", unique = true)
+})
 public class EligibleApplicant {
 
     @Id
@@ -16,6 +21,9 @@ public class EligibleApplicant {
     @Column(name = "application_id")
     private String applicationId;
 
+    @Column(name = "ipo_id")
+    private String ipoId;
+
     @Column(name = "investor_id")
     private String investorId;
 
@@ -40,6 +48,14 @@ public void setApplicationId(String applicationId) {
         this.applicationId = applicationId;
     }
 
+    public String getIpoId() {
+        return ipoId;
+    }
+
+    public void setIpoId(String ipoId) {
+        this.ipoId = ipoId;
+    }
+
     public String getInvestorId() {
         return investorId;
     }
@@ -69,6 +85,7 @@ public String toString() {
         return "EligibleApplicant{" +
                 "id='" + id + '\'' +
                 ", applicationId='" + applicationId + '\'' +
+                ", ipoId='" + ipoId + '\'' +
                 ", investorId='" + investorId + '\'' +
                 ", lots=" + lots +
                 ", status='" + status + '\'' +
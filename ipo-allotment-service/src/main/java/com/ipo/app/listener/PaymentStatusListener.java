@@ -2,8 +2,9 @@
 
 import com.ipo.app.dto.ApplicationDTO;
 import com.ipo.app.entity.EligibleApplicant;
+import com.ipo.app.repository.ApplicantRegistrationWriter;
 import com.ipo.app.repository.ApplicantRepository;
-import com.ipo.app.service.ApplicationServiceClient;
+import com.ipo.app.service.ApplicationLookupBatcher;
 import com.ipo.events.MandateApprovedEvent;
 import com.ipo.events.MandateFailedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,24 +21,40 @@ public class PaymentStatusListener {
     private ApplicantRepository applicantRepository;
 
     @Autowired
-    private ApplicationServiceClient applicationServiceClient;
+    private ApplicantRegistrationWriter applicantRegistrationWriter;
 
-    @JmsListener(destination = "mandate.approved.topic")
+    @Autowired
+    private ApplicationLookupBatcher applicationLookupBatcher;
+
+    @JmsListener(destination = "mandate.approved.topic", containerFactory = "queueListenerFactory")
     public void handleMandateApproved(MandateApprovedEvent event) {
-        // Get application details
-        ApplicationDTO application = applicationServiceClient.getApplication(event.getApplicationId());
-        if (application != null) {
-            EligibleApplicant applicant = new EligibleApplicant();
-            applicant.setId(UUID.randomUUID().toString());
-            applicant.setApplicationId(event.getApplicationId());
+        EligibleApplicant applicant = new EligibleApplicant();
+        applicant.setId(UUID.randomUUID().toString());
+        applicant.setApplicationId(event.getApplicationId());
+        applicant.setStatus("ELIGIBLE");
+        if (event.hasApplicationDetails()) {
+            applicant.setIpoId(event.getIpoId());
+            applicant.setInvestorId(event.getInvestorId());
+            applicant.setLots(event.getLots());
+        } else {
+            // Approval sent without the details; concurrent ones share bulk lookups
+            ApplicationDTO application = applicationLookupBatcher.getApplication(event.getApplicationId());
+            if (application == null) {
+                // Acking here would drop an approved payment without a trace; fail the message
+                // so the broker redelivers it and dead-letters it once redeliveries run out
+                System.err.println("Mandate " + event.getMandateId() + " approved for unknown application "
+                        + event.getApplicationId() + "; leaving it for redelivery");
+                throw new IllegalStateException("Application " + event.getApplicationId()
+                        + " not found for approved mandate " + event.getMandateId());
+            }
+            applicant.setIpoId(application.getIpoId());
             applicant.setInvestorId(application.getInvestorId());
             applicant.setLots(application.getLots());
-            applicant.setStatus("ELIGIBLE");
-            applicantRepository.save(applicant);
         }
+        applicantRegistrationWriter.register(applicant);
     }
 
-    @JmsListener(destination = "mandate.failed.topic")
+    @JmsListener(destination = "mandate.failed.topic", containerFactory = "queueListenerFactory")
     public void handleMandateFailed(MandateFailedEvent event) {
         // Update status to FAILED
         Optional<EligibleApplicant> optionalApplicant = applicantRepository
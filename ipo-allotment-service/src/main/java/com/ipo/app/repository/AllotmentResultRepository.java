@@ -0,0 +1,14 @@
+package com.ipo.app.repository;
+
+import com.ipo.app.entity.AllotmentResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AllotmentResultRepository extends JpaRepository<AllotmentResult, AllotmentResult.Key> {
+
+    // Latest draw the application took part in
+    Optional<AllotmentResult> findFirstByApplicationIdOrderByAllotmentIdDesc(String applicationId);
+}
@@ -0,0 +1,54 @@
+package com.ipo.app.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.ipo.app.service.LotteryResult;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+// Writes the per-application lookup rows of a draw as JDBC batches; with
+// reWriteBatchedInserts the driver turns each batch into multi-row INSERTs.
+// Runs in the caller's transaction.
+@Repository
+public class AllotmentResultWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO allotment_results "
+            + "(allotment_id, application_id, ipo_id, won, allotted_lots) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${allotment.results.batch-size:5000}")
+    private int batchSize;
+
+    // applicationIds is indexed the same way as the draw that produced the result
+    public void insert(long allotmentId, String ipoId, List<String> applicationIds, LotteryResult result) {
+        int total = applicationIds.size();
+        for (int from = 0; from < total; from += batchSize) {
+            int to = Math.min(from + batchSize, total);
+            int start = from;
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    int index = start + i;
+                    ps.setLong(1, allotmentId);
+                    ps.setString(2, applicationIds.get(index));
+                    ps.setString(3, ipoId);
+                    ps.setBoolean(4, result.isWinner(index));
+                    ps.setInt(5, result.getAllottedLots(index));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return to - start;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ipo.app.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.ipo.app.entity.EligibleApplicant;
+
+// Registers an eligible applicant in one INSERT. The JPA save() of an entity with an
+// assigned id first SELECTs to decide between insert and merge; here the unique index
+// on application_id resolves duplicates inside the statement, so a redelivered approval
+// is a no-op even when concurrent consumers receive the same application at once.
+@Repository
+public class ApplicantRegistrationWriter {
+
+    private static final String REGISTER_SQL = "INSERT INTO eligible_applicants "
+            + "(id, application_id, ipo_id, investor_id, lots, status) "
+            + "VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON CONFLICT (application_id) DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // False if the application was already registered
+    public boolean register(EligibleApplicant applicant) {
+        return jdbcTemplate.update(REGISTER_SQL, applicant.getId(), applicant.getApplicationId(),
+                applicant.getIpoId(), applicant.getInvestorId(), applicant.getLots(), applicant.getStatus()) > 0;
+    }
+}
@@ -1,13 +1,33 @@
 package com.ipo.app.repository;
 
+import com.ipo.app.dto.ApplicantLots;
 import com.ipo.app.entity.EligibleApplicant;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ApplicantRepository extends JpaRepository<EligibleApplicant, String> {
 
     Optional<EligibleApplicant> findByApplicationId(String applicationId);
-}
\ No newline at end of file
+
+    // Server-side cursor over one IPO's undecided applicants as projections, never managed
+    // entities. Rows come in id order, so a draw over the same rows always sees the same
+    // applicant indices and breaks ties the same way. Applicants a previous draw allotted
+    // or passed over, and failed mandates, are not ELIGIBLE and are left out. Must be
+    // consumed inside a transaction and closed after use.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select new com.ipo.app.dto.ApplicantLots(a.id, a.applicationId, a.lots) "
+            + "from EligibleApplicant a where a.ipoId = :ipoId and a.status = 'ELIGIBLE' order by a.id")
+    Stream<ApplicantLots> streamLotsByIpoId(@Param("ipoId") String ipoId);
+}
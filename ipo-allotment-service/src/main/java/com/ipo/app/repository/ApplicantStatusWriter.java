@@ -0,0 +1,44 @@
+package com.ipo.app.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+// Set-based status updates for eligible applicants. Each chunk is bound as a single
+// array parameter, so marking N applications costs N / chunk-size round trips instead
+// of one UPDATE per entity. Runs in the caller's transaction.
+@Repository
+public class ApplicantStatusWriter {
+
+    private static final String UPDATE_STATUS_SQL = "UPDATE eligible_applicants SET status = ? "
+            + "WHERE application_id = ANY(?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${allotment.status-update.chunk-size:10000}")
+    private int chunkSize;
+
+    public int updateStatus(List<String> applicationIds, String status) {
+        int updated = 0;
+        for (int from = 0; from < applicationIds.size(); from += chunkSize) {
+            List<String> chunk = applicationIds.subList(from, Math.min(from + chunkSize, applicationIds.size()));
+            updated += jdbcTemplate.execute(UPDATE_STATUS_SQL, (PreparedStatement ps) -> {
+                Array ids = ps.getConnection().createArrayOf("varchar", chunk.toArray());
+                try {
+                    ps.setString(1, status);
+                    ps.setArray(2, ids);
+                    return ps.executeUpdate();
+                } finally {
+                    ids.free();
+                }
+            });
+        }
+        return updated;
+    }
+}
@@ -1,23 +1,22 @@
 package com.ipo.app.scheduler;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
-import org.springframework.jms.core.JmsTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
-import com.ipo.app.entity.EligibleApplicant;
 import com.ipo.app.entity.Allotment;
-import com.ipo.app.repository.AllotmentRepository;
+import com.ipo.app.entity.EligibleApplicant;
+import com.ipo.app.service.AllotmentEventPublisher;
+import com.ipo.app.service.AllotmentStore;
 import com.ipo.app.service.LotteryEngine;
-import com.ipo.events.AllotmentDoneEvent;
+import com.ipo.app.service.LotteryResult;
 
 @Component
 public class LotteryScheduler {
@@ -26,10 +25,10 @@ public class LotteryScheduler {
     private LotteryEngine lotteryEngine;
 
     @Autowired
-    private AllotmentRepository allotmentRepository;
+    private AllotmentStore allotmentStore;
 
     @Autowired
-    private JmsTemplate jmsTemplate;
+    private AllotmentEventPublisher allotmentEventPublisher;
 
     @Autowired
     private RestTemplate restTemplate;
@@ -52,30 +51,24 @@ public void runAllotmentProcess() {
                     EligibleApplicant applicant = new EligibleApplicant();
                     applicant.setId(id);
                     applicant.setApplicationId(id);
+                    applicant.setIpoId(ipoId);
                     applicant.setLots(5); // Mock lots
                     return applicant;
                 })
                 .collect(Collectors.toList());
 
-        Set<EligibleApplicant> winners = lotteryEngine.performLottery(applicants, 100, "seed");
+        LotteryResult result = lotteryEngine.performLottery(applicants, 100, "seed");
 
-        Set<String> winnerIds = winners.stream()
-                .map(EligibleApplicant::getApplicationId)
-                .collect(Collectors.toSet());
+        List<String> winnerIds = Arrays.stream(result.getWinnerIndices())
+                .mapToObj(index -> applicants.get(index).getApplicationId())
+                .collect(Collectors.toList());
 
-        Set<String> nonWinners = new HashSet<>(approvedApplicationIds);
-        nonWinners.removeAll(winnerIds);
+        List<String> nonWinners = Arrays.stream(result.getNonWinnerIndices())
+                .mapToObj(index -> applicants.get(index).getApplicationId())
+                .collect(Collectors.toList());
 
-        Allotment allotment = new Allotment();
-        allotment.setIpoId(ipoId);
-        allotment.setWinnerApplicationIds(winnerIds);
-        allotment.setNonWinnerApplicationIds(nonWinners);
-        allotmentRepository.save(allotment);
+        Allotment allotment = allotmentStore.save(ipoId, approvedApplicationIds, result);
 
-        AllotmentDoneEvent event = new AllotmentDoneEvent();
-        event.setIpoId(ipoId);
-        event.setWinnerApplicationIds(winnerIds);
-        event.setNonWinnerApplicationIds(nonWinners);
-        jmsTemplate.convertAndSend("allotment.done.topic", event);
+        allotmentEventPublisher.publish(ipoId, String.valueOf(allotment.getId()), winnerIds, nonWinners);
     }
 }
\ No newline at end of file
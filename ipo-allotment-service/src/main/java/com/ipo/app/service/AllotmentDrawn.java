@@ -0,0 +1,36 @@
+package com.ipo.app.service;
+
+import java.util.List;
+
+// Raised by LotteryService inside the draw's transaction; AllotmentEventPublisher sends
+// the result once that transaction has committed
+public class AllotmentDrawn {
+
+    private final String ipoId;
+    private final String drawId;
+    private final List<String> winners;
+    private final List<String> nonWinners;
+
+    public AllotmentDrawn(String ipoId, String drawId, List<String> winners, List<String> nonWinners) {
+        this.ipoId = ipoId;
+        this.drawId = drawId;
+        this.winners = winners;
+        this.nonWinners = nonWinners;
+    }
+
+    public String getIpoId() {
+        return ipoId;
+    }
+
+    public String getDrawId() {
+        return drawId;
+    }
+
+    public List<String> getWinners() {
+        return winners;
+    }
+
+    public List<String> getNonWinners() {
+        return nonWinners;
+    }
+}
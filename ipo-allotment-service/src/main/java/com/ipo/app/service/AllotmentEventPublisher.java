@@ -0,0 +1,42 @@
+package com.ipo.app.service;
+
+import com.ipo.events.AllotmentResultChunk;
+import com.ipo.events.chunk.AllotmentResultChunker;
+import com.ipo.jms.EventJmsTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Service
+public class AllotmentEventPublisher {
+
+    @Autowired
+    private EventJmsTemplate jmsTemplate;
+
+    @Value("${allotment.events.chunk-size:5000}")
+    private int chunkSize;
+
+    // Sends a draw recorded by LotteryService after its transaction commits; a rolled back
+    // draw raises nothing. A crash between commit and send loses only the messages; the
+    // draw itself stays recorded in its allotments row.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onDrawn(AllotmentDrawn drawn) {
+        publish(drawn.getIpoId(), drawn.getDrawId(), drawn.getWinners(), drawn.getNonWinners());
+    }
+
+    // Publishes the AllotmentDoneEvent header followed by bounded AllotmentResultChunk
+    // messages instead of one message carrying every application id. The chunks go out
+    // through one producer (and one commit with ipo.jms.send.transacted), built one at a time
+    public void publish(String ipoId, String drawId, List<String> winners, List<String> nonWinners) {
+        AllotmentResultChunker chunker = new AllotmentResultChunker(ipoId, drawId, winners, nonWinners, chunkSize);
+        jmsTemplate.convertAndSend("allotment.done.topic", chunker.header());
+        Iterable<AllotmentResultChunk> chunks = () -> IntStream.range(0, chunker.getChunkCount())
+                .mapToObj(chunker::chunk).iterator();
+        jmsTemplate.convertAndSendAll("allotment.result.chunk.topic", chunks);
+    }
+}
@@ -0,0 +1,133 @@
+package com.ipo.app.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Compact archive of a draw: the winner and non-winner application ids, each section
+// sorted and front-coded (length of the prefix shared with the previous id + the
+// remaining suffix), then deflated. Random UUIDs come out at roughly 20 bytes each,
+// against a 36-char string plus row overhead per id in a join table.
+public final class AllotmentResultCodec {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private AllotmentResultCodec() {
+    }
+
+    public static byte[] encode(Collection<String> winnerApplicationIds,
+            Collection<String> nonWinnerApplicationIds) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new DeflaterOutputStream(bytes, deflater), BUFFER_SIZE))) {
+            out.writeByte(FORMAT_VERSION);
+            writeSection(out, winnerApplicationIds);
+            writeSection(out, nonWinnerApplicationIds);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<String> decodeWinners(byte[] encoded) {
+        return decode(encoded, 0);
+    }
+
+    public static List<String> decodeNonWinners(byte[] encoded) {
+        return decode(encoded, 1);
+    }
+
+    private static List<String> decode(byte[] encoded, int section) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new InflaterInputStream(new ByteArrayInputStream(encoded)), BUFFER_SIZE))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported allotment result format: " + version);
+            }
+            List<String> ids = readSection(in);
+            return section == 0 ? ids : readSection(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeSection(DataOutputStream out, Collection<String> ids) throws IOException {
+        String[] sorted = ids.toArray(new String[0]);
+        Arrays.sort(sorted);
+        writeVarInt(out, sorted.length);
+        String previous = "";
+        for (String id : sorted) {
+            int shared = sharedPrefix(previous, id);
+            byte[] suffix = id.substring(shared).getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, shared);
+            writeVarInt(out, suffix.length);
+            out.write(suffix);
+            previous = id;
+        }
+    }
+
+    private static List<String> readSection(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        List<String> ids = new ArrayList<>(count);
+        String previous = "";
+        for (int i = 0; i < count; i++) {
+            int shared = readVarInt(in);
+            byte[] suffix = new byte[readVarInt(in)];
+            in.readFully(suffix);
+            String id = previous.substring(0, shared) + new String(suffix, StandardCharsets.UTF_8);
+            ids.add(id);
+            previous = id;
+        }
+        return ids;
+    }
+
+    private static int sharedPrefix(String a, String b) {
+        int max = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < max && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        // Never split a surrogate pair between prefix and suffix
+        if (i > 0 && Character.isHighSurrogate(b.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in allotment result");
+    }
+}
@@ -0,0 +1,62 @@
+package com.ipo.app.service;
+
+import com.ipo.app.dto.DrawResultDTO;
+import com.ipo.app.entity.Allotment;
+import com.ipo.app.entity.AllotmentResult;
+import com.ipo.app.repository.AllotmentRepository;
+import com.ipo.app.repository.AllotmentResultRepository;
+import com.ipo.app.repository.AllotmentResultWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+public class AllotmentStore {
+
+    @Autowired
+    private AllotmentRepository allotmentRepository;
+
+    @Autowired
+    private AllotmentResultRepository allotmentResultRepository;
+
+    @Autowired
+    private AllotmentResultWriter allotmentResultWriter;
+
+    // Persists a draw as one allotments row holding the compact encoded result plus
+    // batched per-application lookup rows; applicationIds is indexed like the draw
+    @Transactional
+    public Allotment save(String ipoId, List<String> applicationIds, LotteryResult result) {
+        List<String> winners = Arrays.stream(result.getWinnerIndices())
+                .mapToObj(applicationIds::get).collect(Collectors.toList());
+        List<String> nonWinners = Arrays.stream(result.getNonWinnerIndices())
+                .mapToObj(applicationIds::get).collect(Collectors.toList());
+
+        Allotment allotment = new Allotment();
+        allotment.setIpoId(ipoId);
+        allotment.setWinnerCount(winners.size());
+        allotment.setNonWinnerCount(nonWinners.size());
+        allotment.setResults(AllotmentResultCodec.encode(winners, nonWinners));
+        Allotment saved = allotmentRepository.save(allotment);
+
+        allotmentResultWriter.insert(saved.getId(), ipoId, applicationIds, result);
+        return saved;
+    }
+
+    // Reads a whole draw back from its encoded allotments row
+    @Transactional(readOnly = true)
+    public Optional<DrawResultDTO> findDraw(Long drawId) {
+        return allotmentRepository.findById(drawId)
+                .map(allotment -> new DrawResultDTO(allotment.getId(), allotment.getIpoId(),
+                        AllotmentResultCodec.decodeWinners(allotment.getResults()),
+                        AllotmentResultCodec.decodeNonWinners(allotment.getResults())));
+    }
+
+    public Optional<AllotmentResult> findResult(String applicationId) {
+        return allotmentResultRepository.findFirstByApplicationIdOrderByAllotmentIdDesc(applicationId);
+    }
+}
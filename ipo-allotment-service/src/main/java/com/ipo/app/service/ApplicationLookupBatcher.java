@@ -0,0 +1,184 @@
+package com.ipo.app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import com.ipo.app.dto.ApplicationDTO;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+// Coalesces concurrent application lookups into bulk GET /applications?ids=... calls.
+// Callers block on their own id while a single dispatcher thread collects up to
+// max-batch-size distinct ids, waiting at most max-delay-ms after the first one, and
+// fetches them in one request; callers asking for an id already in flight share its
+// result. A burst of mandate approvals across the listener's consumers thus costs a
+// few HTTP round trips instead of one per message.
+@Service
+public class ApplicationLookupBatcher implements SmartLifecycle {
+
+    @Autowired
+    private ApplicationServiceClient applicationServiceClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${allotment.application-lookup.max-batch-size:200}")
+    private int maxBatchSize;
+
+    @Value("${allotment.application-lookup.max-delay-ms:5}")
+    private long maxDelayMs;
+
+    @Value("${allotment.application-lookup.timeout-ms:10000}")
+    private long timeoutMs;
+
+    // Ids waiting for the dispatcher, and the result each caller of an id waits on
+    private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+    private final Map<String, CompletableFuture<ApplicationDTO>> inFlight = new ConcurrentHashMap<>();
+    private volatile Thread dispatcher;
+    private volatile boolean running;
+
+    private DistributionSummary lookupSize;
+
+    @PostConstruct
+    public void init() {
+        lookupSize = DistributionSummary.builder("ipo.allotment.application.lookup.size")
+                .description("Application ids per bulk lookup")
+                .register(meterRegistry);
+    }
+
+    // The application, or null if the application service does not know the id
+    public ApplicationDTO getApplication(String applicationId) {
+        if (!running) {
+            return applicationServiceClient.getApplication(applicationId);
+        }
+        CompletableFuture<ApplicationDTO> created = new CompletableFuture<>();
+        CompletableFuture<ApplicationDTO> future = inFlight.putIfAbsent(applicationId, created);
+        if (future == null) {
+            future = created;
+            queue.add(applicationId);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted looking up application " + applicationId, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Lookup of application " + applicationId + " failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Lookup of application " + applicationId + " timed out", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "application-lookup");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    // Lets the dispatcher answer what is already queued; later lookups go direct
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = dispatcher;
+        if (thread != null) {
+            try {
+                thread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (String applicationId : new ArrayList<>(inFlight.keySet())) {
+            complete(applicationId, null, new IllegalStateException("Application lookup stopped"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void dispatchLoop() {
+        List<String> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                String first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                lookup(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Tops the batch up to maxBatchSize, waiting no longer than maxDelayMs after its first id
+    private void fill(List<String> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            String next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void lookup(List<String> batch) {
+        lookupSize.record(batch.size());
+        try {
+            Map<String, ApplicationDTO> found = applicationServiceClient.getApplications(batch);
+            for (String applicationId : batch) {
+                complete(applicationId, found.get(applicationId), null);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Lookup of " + batch.size() + " applications failed: " + e.getMessage());
+            for (String applicationId : batch) {
+                complete(applicationId, null, e);
+            }
+        }
+    }
+
+    // Removed before completing, so a caller arriving afterwards queues a fresh lookup
+    private void complete(String applicationId, ApplicationDTO application, Throwable failure) {
+        CompletableFuture<ApplicationDTO> future = inFlight.remove(applicationId);
+        if (future == null) {
+            return;
+        }
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(application);
+        }
+    }
+}
@@ -3,8 +3,15 @@
 import com.ipo.app.dto.ApplicationDTO;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
 public class ApplicationServiceClient {
@@ -12,14 +19,35 @@ public class ApplicationServiceClient {
     @Autowired
     private RestTemplate restTemplate;
 
-    @CircuitBreaker(name = "applicationService", fallbackMethod = "getApplicationFallback")
+    @Value("${application-service.url:http://localhost:8081}")
+    private String applicationServiceUrl;
+
+    // No fallback: made-up application details would end up in the lottery, so a failed
+    // or short-circuited lookup fails the approval and the broker redelivers it
+    @CircuitBreaker(name = "applicationService")
     public ApplicationDTO getApplication(String applicationId) {
-        String url = "http://ipo-application-service/applications/" + applicationId;
-        return restTemplate.getForObject(url, ApplicationDTO.class);
+        String url = applicationServiceUrl + "/applications/" + applicationId;
+        try {
+            return restTemplate.getForObject(url, ApplicationDTO.class);
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        }
     }
 
-    public ApplicationDTO getApplicationFallback(String applicationId, Throwable t) {
-        // Return default or cached data
-        return new ApplicationDTO("default-investor", 1);
+    // One GET /applications?ids=... for all ids; ids the service does not know are absent
+    @CircuitBreaker(name = "applicationService")
+    public Map<String, ApplicationDTO> getApplications(Collection<String> applicationIds) {
+        String url = UriComponentsBuilder.fromHttpUrl(applicationServiceUrl)
+                .path("/applications")
+                .queryParam("ids", String.join(",", applicationIds))
+                .toUriString();
+        ApplicationDTO[] applications = restTemplate.getForObject(url, ApplicationDTO[].class);
+        Map<String, ApplicationDTO> byId = new HashMap<>();
+        if (applications != null) {
+            for (ApplicationDTO application : applications) {
+                byId.put(application.getApplicationId(), application);
+            }
+        }
+        return byId;
     }
-}
\ No newline at end of file
+}
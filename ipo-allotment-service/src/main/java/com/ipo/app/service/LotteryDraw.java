@@ -0,0 +1,201 @@
+package com.ipo.app.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+// Incremental draw: applicants are added one at a time (e.g. straight from a database
+// cursor) and scored into primitive buffers as they arrive, so callers never need to
+// hold a list of entities. Indices in the LotteryResult are the order of add() calls.
+// A draw is single-use and not thread-safe.
+public class LotteryDraw {
+
+    // Applicants scored by one fork-join task in PARALLEL mode
+    private static final int PARTITION_SIZE = 16_384;
+
+    private final LotteryScorer scorer;
+    private final int totalShares;
+    private final boolean topK;
+    private final ForkJoinPool pool;
+
+    private int[] lots = new int[1024];
+    private int count;
+
+    // Sequential modes score into one buffer as applicants are added
+    private LotteryScores scores;
+    private long totalEntries;
+
+    // PARALLEL mode buffers one partition of ids and hands it to the pool when full
+    private String[] partitionIds;
+    private int partitionStart;
+    private final List<ForkJoinTask<ScoredRange>> partitions = new ArrayList<>();
+
+    LotteryDraw(String seed, int totalShares, LotteryEngine.Mode mode, ForkJoinPool pool) {
+        this.scorer = new LotteryScorer(seed);
+        this.totalShares = totalShares;
+        this.topK = mode != LotteryEngine.Mode.PRIMITIVE;
+        this.pool = pool;
+        if (pool != null) {
+            partitionIds = new String[PARTITION_SIZE];
+        } else {
+            scores = topK ? LotteryScores.bounded(totalShares, 1024) : new LotteryScores(1024);
+        }
+    }
+
+    // Adds an applicant and returns its index in the eventual LotteryResult
+    public int add(String applicantId, int applicantLots) {
+        int index = count;
+        if (index == lots.length) {
+            lots = Arrays.copyOf(lots, lots.length * 2);
+        }
+        lots[index] = applicantLots;
+        count++;
+
+        if (pool != null) {
+            partitionIds[index - partitionStart] = applicantId;
+            if (count - partitionStart == PARTITION_SIZE) {
+                submitPartition();
+            }
+        } else if (applicantLots > 0) {
+            totalEntries += applicantLots;
+            long key = scorer.score(applicantId);
+            if (topK) {
+                scores.offer(key, index);
+            } else {
+                scores.add(key, index);
+            }
+        }
+        return index;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public LotteryResult finish() {
+        ScoredRange scored;
+        if (pool != null) {
+            if (count > partitionStart) {
+                submitPartition();
+            }
+            scored = partitions.isEmpty() ? new ScoredRange(LotteryScores.bounded(totalShares, 0), 0)
+                    : pool.invoke(new MergeTask(partitions, 0, partitions.size()));
+        } else {
+            scored = new ScoredRange(scores, totalEntries);
+        }
+        return selectWinners(scored);
+    }
+
+    private void submitPartition() {
+        int from = partitionStart;
+        int to = count;
+        String[] ids = partitionIds;
+        int[] partitionLots = Arrays.copyOfRange(lots, from, to);
+        partitions.add(pool.submit(new ScoringTask(scorer, totalShares, ids, partitionLots, from)));
+        partitionIds = new String[PARTITION_SIZE];
+        partitionStart = to;
+    }
+
+    private LotteryResult selectWinners(ScoredRange scored) {
+        // If fewer entries than shares, all win
+        if (scored.totalEntries <= totalShares) {
+            return LotteryResult.allWin(Arrays.copyOf(lots, count));
+        }
+
+        LotteryScores winners = scored.scores;
+        winners.sort();
+
+        // An applicant wins if its first entry lands inside the first totalShares slots;
+        // the score carries the applicant index, so resolving a winner is an array read
+        int[] winnerIndices = new int[winners.size()];
+        int[] allottedLots = new int[count];
+        int winnerCount = 0;
+        long consumed = 0;
+        for (int i = 0; i < winners.size() && consumed < totalShares; i++) {
+            int index = winners.indexAt(i);
+            allottedLots[index] = (int) Math.min(lots[index], totalShares - consumed);
+            winnerIndices[winnerCount++] = index;
+            consumed += lots[index];
+        }
+        return new LotteryResult(winnerIndices, winnerCount, allottedLots);
+    }
+
+    private static class ScoredRange {
+        private final LotteryScores scores;
+        private final long totalEntries;
+
+        private ScoredRange(LotteryScores scores, long totalEntries) {
+            this.scores = scores;
+            this.totalEntries = totalEntries;
+        }
+    }
+
+    // Scores one partition into its own bounded heap
+    private static class ScoringTask extends RecursiveTask<ScoredRange> {
+        private final LotteryScorer scorer;
+        private final int totalShares;
+        private final int baseIndex;
+        // Released once scored so finished partitions do not pin their ids until finish()
+        private String[] ids;
+        private int[] lots;
+
+        private ScoringTask(LotteryScorer scorer, int totalShares, String[] ids, int[] lots, int baseIndex) {
+            this.scorer = scorer;
+            this.totalShares = totalShares;
+            this.ids = ids;
+            this.lots = lots;
+            this.baseIndex = baseIndex;
+        }
+
+        @Override
+        protected ScoredRange compute() {
+            LotteryScores scores = LotteryScores.bounded(totalShares, lots.length);
+            long totalEntries = 0;
+            for (int i = 0; i < lots.length; i++) {
+                if (lots[i] > 0) {
+                    totalEntries += lots[i];
+                    scores.offer(scorer.score(ids[i]), baseIndex + i);
+                }
+            }
+            ids = null;
+            lots = null;
+            return new ScoredRange(scores, totalEntries);
+        }
+    }
+
+    // Merges partition heaps pairwise on the pool; the (key, index) order is total,
+    // so the merged heap holds exactly the winners a sequential TOP_K draw would pick
+    private static class MergeTask extends RecursiveTask<ScoredRange> {
+        private final List<ForkJoinTask<ScoredRange>> partitions;
+        private final int from;
+        private final int to;
+
+        private MergeTask(List<ForkJoinTask<ScoredRange>> partitions, int from, int to) {
+            this.partitions = partitions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ScoredRange compute() {
+            if (to - from == 1) {
+                return partitions.get(from).join();
+            }
+            int mid = (from + to) >>> 1;
+            MergeTask left = new MergeTask(partitions, from, mid);
+            left.fork();
+            ScoredRange right = new MergeTask(partitions, mid, to).compute();
+            return merge(left.join(), right);
+        }
+
+        private static ScoredRange merge(ScoredRange a, ScoredRange b) {
+            ScoredRange into = a.scores.size() >= b.scores.size() ? a : b;
+            ScoredRange other = into == a ? b : a;
+            into.scores.offerAll(other.scores);
+            return new ScoredRange(into.scores, a.totalEntries + b.totalEntries);
+        }
+    }
+}
@@ -1,21 +1,95 @@
 package com.ipo.app.service;
 
 import com.ipo.app.entity.EligibleApplicant;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PreDestroy;
+
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 @Service
 public class LotteryEngine {
 
-    public Set<EligibleApplicant> performLottery(List<EligibleApplicant> applicants, int totalShares, String seed) {
+    // LEGACY expands one String per lot and sorts hex digests; PRIMITIVE produces the
+    // same ordering from primitive score arrays; TOP_K keeps only the candidates that
+    // can still win in a bounded heap instead of sorting every score; PARALLEL runs
+    // TOP_K over applicant partitions on a ForkJoinPool and merges the partial heaps
+    public enum Mode {
+        LEGACY, PRIMITIVE, TOP_K, PARALLEL
+    }
+
+    @Value("${lottery.engine.mode:TOP_K}")
+    private Mode mode = Mode.TOP_K;
+
+    // Worker threads for PARALLEL mode; 0 uses every available core
+    @Value("${lottery.engine.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    public LotteryResult performLottery(List<EligibleApplicant> applicants, int totalShares, String seed) {
+        return performLottery(applicants, totalShares, seed, mode);
+    }
+
+    public LotteryResult performLottery(List<EligibleApplicant> applicants, int totalShares, String seed,
+            Mode mode) {
+        if (mode == Mode.LEGACY) {
+            return performLegacyLottery(applicants, totalShares, seed);
+        }
+        LotteryDraw draw = newDraw(totalShares, seed, mode);
+        for (EligibleApplicant applicant : applicants) {
+            draw.add(applicant.getId(), applicant.getLots());
+        }
+        return draw.finish();
+    }
+
+    public LotteryDraw newDraw(int totalShares, String seed) {
+        return newDraw(totalShares, seed, mode == Mode.LEGACY ? Mode.TOP_K : mode);
+    }
+
+    // Every lot of an applicant hashes the same input (seed + ":" + id), so the legacy
+    // entry list is just each applicant repeated lots times in digest order. Scoring
+    // once per applicant and walking the sorted scores while counting lots gives the
+    // same winners without building the entry list. The key is the first 8 bytes of
+    // the digest; a full 64-bit collision between two applicants is broken by index.
+    // Every scored applicant holds at least one lot, so only the totalShares smallest
+    // scores can ever win; TOP_K keeps them in a heap of that size, which costs
+    // O(N log K) time and O(K) memory instead of sorting all N scores. The (key, index)
+    // order is total, so merging per-partition heaps gives the same winners as TOP_K.
+    // LEGACY needs the whole entry list up front and cannot be drawn incrementally.
+    public LotteryDraw newDraw(int totalShares, String seed, Mode mode) {
+        if (mode == Mode.LEGACY) {
+            throw new IllegalArgumentException("LEGACY mode does not support incremental draws");
+        }
+        return new LotteryDraw(seed, totalShares, mode, mode == Mode.PARALLEL ? pool() : null);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        }
+        return pool;
+    }
+
+    // Reference implementation kept for parity checks and benchmarks against the
+    // original engine; it still resolves each selected entry with a linear scan
+    private LotteryResult performLegacyLottery(List<EligibleApplicant> applicants, int totalShares,
+            String seed) {
         // Create list of entries based on lots
         List<String> entries = new ArrayList<>();
         for (EligibleApplicant applicant : applicants) {
@@ -26,7 +100,7 @@ public Set<EligibleApplicant> performLottery(List<EligibleApplicant> applicants,
 
         // If fewer entries than shares, all win
         if (entries.size() <= totalShares) {
-            return new HashSet<>(applicants);
+            return LotteryResult.allWin(applicants.stream().mapToInt(EligibleApplicant::getLots).toArray());
         }
 
         // Calculate hash scores for each entry
@@ -40,18 +114,22 @@ public Set<EligibleApplicant> performLottery(List<EligibleApplicant> applicants,
         scores.sort(Comparator.comparing(EntryScore::getHash));
 
         // Select winners
-        Set<EligibleApplicant> winners = new HashSet<>();
+        int[] winnerIndices = new int[applicants.size()];
+        int[] allottedLots = new int[applicants.size()];
+        int winnerCount = 0;
         for (int i = 0; i < totalShares && i < scores.size(); i++) {
             String winnerId = scores.get(i).getEntry();
-            EligibleApplicant winner = applicants.stream()
-                    .filter(a -> a.getId().equals(winnerId))
-                    .findFirst().orElse(null);
-            if (winner != null) {
-                winners.add(winner);
+            int winner = IntStream.range(0, applicants.size())
+                    .filter(index -> applicants.get(index).getId().equals(winnerId))
+                    .findFirst().orElse(-1);
+            if (winner >= 0) {
+                if (allottedLots[winner]++ == 0) {
+                    winnerIndices[winnerCount++] = winner;
+                }
             }
         }
 
-        return winners;
+        return new LotteryResult(winnerIndices, winnerCount, allottedLots);
     }
 
     private String sha256(String input) {
@@ -0,0 +1,75 @@
+package com.ipo.app.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Outcome of a draw, expressed as positions in the applicant list that was passed
+// to the engine. Winner indices are in draw order, non-winner indices ascending.
+public class LotteryResult {
+
+    private final int[] winnerIndices;
+    private final int[] nonWinnerIndices;
+    private final int[] allottedLots;
+    private final BitSet winners;
+
+    LotteryResult(int[] winnerIndices, int winnerCount, int[] allottedLots) {
+        this.winnerIndices = Arrays.copyOf(winnerIndices, winnerCount);
+        this.allottedLots = allottedLots;
+        this.winners = new BitSet(allottedLots.length);
+        for (int index : this.winnerIndices) {
+            winners.set(index);
+        }
+        this.nonWinnerIndices = new int[allottedLots.length - winners.cardinality()];
+        int position = 0;
+        for (int index = winners.nextClearBit(0); index < allottedLots.length; index = winners
+                .nextClearBit(index + 1)) {
+            nonWinnerIndices[position++] = index;
+        }
+    }
+
+    // Fewer entries than shares: every applicant wins all of its lots
+    static LotteryResult allWin(int[] lots) {
+        int[] winnerIndices = new int[lots.length];
+        int[] allottedLots = new int[lots.length];
+        for (int i = 0; i < lots.length; i++) {
+            winnerIndices[i] = i;
+            allottedLots[i] = Math.max(lots[i], 0);
+        }
+        return new LotteryResult(winnerIndices, lots.length, allottedLots);
+    }
+
+    public int[] getWinnerIndices() {
+        return winnerIndices;
+    }
+
+    public int[] getNonWinnerIndices() {
+        return nonWinnerIndices;
+    }
+
+    public int getWinnerCount() {
+        return winnerIndices.length;
+    }
+
+    public int getApplicantCount() {
+        return allottedLots.length;
+    }
+
+    public boolean isWinner(int index) {
+        return winners.get(index);
+    }
+
+    // Number of the applicant's lots that fell inside the allotted slots; the last
+    // winner of a draw may be allotted fewer lots than it applied for
+    public int getAllottedLots(int index) {
+        return allottedLots[index];
+    }
+
+    @Override
+    public String toString() {
+        return "LotteryResult{" +
+                "applicants=" + allottedLots.length +
+                ", winners=" + winnerIndices.length +
+                ", nonWinners=" + nonWinnerIndices.length +
+                '}';
+    }
+}
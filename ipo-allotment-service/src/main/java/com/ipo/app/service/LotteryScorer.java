@@ -0,0 +1,73 @@
+package com.ipo.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// Computes SHA-256(seed + ":" + applicantId) and returns the first 8 bytes of the
+// digest as a sortable key. The digest and scratch buffers are reused per thread,
+// so scoring ASCII applicant ids does not allocate.
+final class LotteryScorer {
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final byte[] prefix;
+
+    LotteryScorer(String seed) {
+        this.prefix = (seed + ":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    long score(String applicantId) {
+        Scratch scratch = SCRATCH.get();
+        MessageDigest digest = scratch.digest;
+        digest.update(prefix);
+        int length = scratch.encode(applicantId);
+        if (length >= 0) {
+            digest.update(scratch.input, 0, length);
+        } else {
+            digest.update(applicantId.getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] hash = scratch.hash;
+        try {
+            digest.digest(hash, 0, hash.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        long score = 0;
+        for (int i = 0; i < 8; i++) {
+            score = (score << 8) | (hash[i] & 0xff);
+        }
+        return LotteryScores.toKey(score);
+    }
+
+    private static final class Scratch {
+        private final MessageDigest digest;
+        private final byte[] hash = new byte[32];
+        private byte[] input = new byte[64];
+
+        private Scratch() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        // Copies an ASCII id into the input buffer; returns -1 for anything that needs real UTF-8 encoding
+        private int encode(String value) {
+            int length = value.length();
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    return -1;
+                }
+                input[i] = (byte) c;
+            }
+            return length;
+        }
+    }
+}
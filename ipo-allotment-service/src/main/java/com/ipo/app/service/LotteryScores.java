@@ -0,0 +1,194 @@
+package com.ipo.app.service;
+
+import java.util.Arrays;
+
+// Primitive (score, applicant index) pairs. Scores are stored with the sign bit
+// flipped so that a signed long comparison gives the unsigned digest order, and
+// ties are broken by applicant index so the ordering is total and deterministic.
+// A bounded instance keeps only the smallest pairs seen so far in a max-heap.
+final class LotteryScores {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final int limit;
+    private long[] keys;
+    private int[] indices;
+    private int size;
+
+    LotteryScores(int initialCapacity) {
+        this(initialCapacity, Integer.MAX_VALUE);
+    }
+
+    private LotteryScores(int initialCapacity, int limit) {
+        int capacity = Math.max(Math.min(initialCapacity, limit), 16);
+        this.limit = limit;
+        this.keys = new long[capacity];
+        this.indices = new int[capacity];
+    }
+
+    static LotteryScores bounded(int limit, int expectedSize) {
+        return new LotteryScores(expectedSize, Math.max(limit, 0));
+    }
+
+    void add(long key, int index) {
+        if (size == keys.length) {
+            grow();
+        }
+        keys[size] = key;
+        indices[size] = index;
+        size++;
+    }
+
+    // Heap insert for bounded instances: O(log limit) per pair, memory proportional to limit
+    void offer(long key, int index) {
+        if (size < limit) {
+            if (size == keys.length) {
+                grow();
+            }
+            siftUp(size, key, index);
+            size++;
+        } else if (limit > 0 && less(key, index, keys[0], indices[0])) {
+            siftDown(0, key, index);
+        }
+    }
+
+    void offerAll(LotteryScores other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.keys[i], other.indices[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long keyAt(int position) {
+        return keys[position];
+    }
+
+    int indexAt(int position) {
+        return indices[position];
+    }
+
+    void sort() {
+        quickSort(0, size - 1);
+    }
+
+    static long toKey(long unsignedScore) {
+        return unsignedScore ^ Long.MIN_VALUE;
+    }
+
+    static boolean less(long keyA, int indexA, long keyB, int indexB) {
+        return keyA < keyB || (keyA == keyB && indexA < indexB);
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min((long) keys.length + (keys.length >> 1), limit);
+        keys = Arrays.copyOf(keys, capacity);
+        indices = Arrays.copyOf(indices, capacity);
+    }
+
+    private void siftUp(int position, long key, int index) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!less(keys[parent], indices[parent], key, index)) {
+                break;
+            }
+            keys[position] = keys[parent];
+            indices[position] = indices[parent];
+            position = parent;
+        }
+        keys[position] = key;
+        indices[position] = index;
+    }
+
+    private void siftDown(int position, long key, int index) {
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && less(keys[child], indices[child], keys[right], indices[right])) {
+                child = right;
+            }
+            if (!less(key, index, keys[child], indices[child])) {
+                break;
+            }
+            keys[position] = keys[child];
+            indices[position] = indices[child];
+            position = child;
+        }
+        keys[position] = key;
+        indices[position] = index;
+    }
+
+    private void quickSort(int low, int high) {
+        // Recurse into the smaller half and loop on the larger one to keep the stack shallow
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            int pivot = partition(low, high);
+            if (pivot - low < high - pivot) {
+                quickSort(low, pivot - 1);
+                low = pivot + 1;
+            } else {
+                quickSort(pivot + 1, high);
+                high = pivot - 1;
+            }
+        }
+        insertionSort(low, high);
+    }
+
+    private int partition(int low, int high) {
+        int mid = (low + high) >>> 1;
+        if (less(keys[mid], indices[mid], keys[low], indices[low])) {
+            swap(mid, low);
+        }
+        if (less(keys[high], indices[high], keys[low], indices[low])) {
+            swap(high, low);
+        }
+        if (less(keys[high], indices[high], keys[mid], indices[mid])) {
+            swap(high, mid);
+        }
+        // Median of three is now at mid; park it just before high
+        swap(mid, high - 1);
+        long pivotKey = keys[high - 1];
+        int pivotIndex = indices[high - 1];
+
+        int i = low;
+        int j = high - 1;
+        while (true) {
+            while (less(keys[++i], indices[i], pivotKey, pivotIndex)) {
+            }
+            while (less(pivotKey, pivotIndex, keys[--j], indices[j])) {
+            }
+            if (i >= j) {
+                break;
+            }
+            swap(i, j);
+        }
+        swap(i, high - 1);
+        return i;
+    }
+
+    private void insertionSort(int low, int high) {
+        for (int i = low + 1; i <= high; i++) {
+            long key = keys[i];
+            int index = indices[i];
+            int j = i - 1;
+            while (j >= low && less(key, index, keys[j], indices[j])) {
+                keys[j + 1] = keys[j];
+                indices[j + 1] = indices[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            indices[j + 1] = index;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int index = indices[a];
+        indices[a] = indices[b];
+        indices[b] = index;
+    }
+}
@@ -1,14 +1,19 @@
 package com.ipo.app.service;
 
-import com.ipo.app.entity.EligibleApplicant;
+import com.ipo.app.dto.ApplicantLots;
+import com.ipo.app.entity.Allotment;
 import com.ipo.app.repository.ApplicantRepository;
-import com.ipo.events.AllotmentDoneEvent;
+import com.ipo.app.repository.ApplicantStatusWriter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jms.core.JmsTemplate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class LotteryService {
@@ -16,32 +21,49 @@ public class LotteryService {
     @Autowired
     private ApplicantRepository applicantRepository;
 
+    @Autowired
+    private ApplicantStatusWriter applicantStatusWriter;
+
+    @Autowired
+    private AllotmentStore allotmentStore;
+
     @Autowired
     private LotteryEngine lotteryEngine;
 
     @Autowired
-    private JmsTemplate jmsTemplate;
+    private ApplicationEventPublisher applicationEventPublisher;
 
+    @Transactional
     public void performAllotment(String ipoId, int totalShares) {
-        // Get all eligible applicants for the IPO
-        List<EligibleApplicant> applicants = applicantRepository.findAll(); // In real, filter by ipoId if needed
+        // Stream the IPO's eligible applicants straight into the draw; rows arrive as
+        // projections, so no entities are materialized or attached to the persistence context
+        LotteryDraw draw = lotteryEngine.newDraw(totalShares, ipoId);
+        List<String> applicationIds = new ArrayList<>();
+        try (Stream<ApplicantLots> rows = applicantRepository.streamLotsByIpoId(ipoId)) {
+            rows.forEach(row -> {
+                draw.add(row.getId(), row.getLots());
+                applicationIds.add(row.getApplicationId());
+            });
+        }
+        LotteryResult result = draw.finish();
 
-        // Perform lottery
-        Set<EligibleApplicant> winners = lotteryEngine.performLottery(applicants, totalShares, ipoId);
+        List<String> winnerApplicationIds = Arrays.stream(result.getWinnerIndices())
+                .mapToObj(applicationIds::get).collect(Collectors.toList());
 
-        // Update winners status
-        for (EligibleApplicant winner : winners) {
-            winner.setStatus("ALLOTTED");
-            applicantRepository.save(winner);
-        }
+        List<String> nonWinnerApplicationIds = Arrays.stream(result.getNonWinnerIndices())
+                .mapToObj(applicationIds::get).collect(Collectors.toList());
+
+        // Decide every applicant of the draw in set-based chunks within this transaction,
+        // so a later draw for the IPO does not score them again
+        applicantStatusWriter.updateStatus(winnerApplicationIds, "ALLOTTED");
+        applicantStatusWriter.updateStatus(nonWinnerApplicationIds, "NOT_ALLOTTED");
+
+        // Record the draw
+        Allotment allotment = allotmentStore.save(ipoId, applicationIds, result);
 
-        // Publish AllotmentDoneEvent
-        AllotmentDoneEvent event = new AllotmentDoneEvent();
-        event.setIpoId(ipoId);
-        event.setWinnerApplicationIds(
-                winners.stream().map(EligibleApplicant::getApplicationId).collect(java.util.stream.Collectors.toSet()));
-        event.setNonWinnerApplicationIds(applicants.stream().filter(a -> !winners.contains(a))
-                .map(EligibleApplicant::getApplicationId).collect(java.util.stream.Collectors.toSet()));
-        jmsTemplate.convertAndSend("allotment.done.topic", event);
+        // Publish the result as a header plus bounded chunks once this transaction commits,
+        // so consumers never see a draw that was rolled back
+        applicationEventPublisher.publishEvent(new AllotmentDrawn(ipoId, String.valueOf(allotment.getId()),
+                winnerApplicationIds, nonWinnerApplicationIds));
     }
-}
\ No newline at end of file
+}
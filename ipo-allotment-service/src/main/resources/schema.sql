@@ -0,0 +1,13 @@
+-- Runs after Hibernate's schema update (spring.jpa.defer-datasource-initialization)
+-- and adds what the update cannot be relied on for.
+
+-- One registration per application, the ON CONFLICT target of ApplicantRegistrationWriter.
+-- Hibernate's update only logs a failed CREATE INDEX, so while duplicate registrations
+-- exist the index is silently missing. Until it exists, duplicates are removed first,
+-- keeping each application's decided row, else its first one; RequiredIndexVerifier
+-- stops startup if the index is still missing afterwards.
+DELETE FROM eligible_applicants e
+USING (SELECT id, row_number() OVER (PARTITION BY application_id ORDER BY (status = 'ELIGIBLE'), id) AS rn
+       FROM eligible_applicants WHERE application_id IS NOT NULL) d
+WHERE e.id = d.id AND d.rn > 1 AND to_regclass('uk_eligible_applicants_application_id') IS NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_eligible_applicants_application_id ON eligible_applicants (application_id);
@@ -0,0 +1,41 @@
+package com.ipo.app.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RequiredIndexVerifierTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private RequiredIndexVerifier verifier;
+
+    @Test
+    void passesWhenEveryUniqueIndexExists() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), anyString())).thenReturn(1);
+
+        assertDoesNotThrow(verifier::afterSingletonsInstantiated);
+    }
+
+    @Test
+    void failsStartupWhenAUniqueIndexIsMissing() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), anyString())).thenReturn(0);
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                verifier::afterSingletonsInstantiated);
+        assertTrue(failure.getMessage().contains("uk_eligible_applicants_application_id"));
+    }
+}
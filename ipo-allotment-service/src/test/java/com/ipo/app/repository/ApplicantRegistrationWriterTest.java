@@ -0,0 +1,61 @@
+package com.ipo.app.repository;
+
+import com.ipo.app.entity.EligibleApplicant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The conflict itself is resolved by Postgres; these pin the statement and its binding
+@ExtendWith(MockitoExtension.class)
+class ApplicantRegistrationWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ApplicantRegistrationWriter writer;
+
+    @Test
+    void insertsWithConflictOnApplicationIdAndBindsColumnsInOrder() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        assertTrue(writer.register(applicant()));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(sql.capture(), args.capture());
+        assertTrue(sql.getValue().contains("(id, application_id, ipo_id, investor_id, lots, status)"));
+        assertTrue(sql.getValue().endsWith("ON CONFLICT (application_id) DO NOTHING"));
+        assertArrayEquals(new Object[] { "id-1", "app-1", "ipo-1", "inv-1", 4, "ELIGIBLE" }, args.getValue());
+    }
+
+    @Test
+    void alreadyRegisteredApplicationIsNotRegisteredAgain() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(0);
+
+        assertFalse(writer.register(applicant()));
+    }
+
+    private static EligibleApplicant applicant() {
+        EligibleApplicant applicant = new EligibleApplicant();
+        applicant.setId("id-1");
+        applicant.setApplicationId("app-1");
+        applicant.setIpoId("ipo-1");
+        applicant.setInvestorId("inv-1");
+        applicant.setLots(4);
+        applicant.setStatus("ELIGIBLE");
+        return applicant;
+    }
+}
@@ -0,0 +1,99 @@
+package com.ipo.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Both sections decode to the encoded ids in sorted order
+class AllotmentResultCodecTest {
+
+    @Test
+    void emptySectionsRoundTrip() {
+        byte[] encoded = AllotmentResultCodec.encode(List.of(), List.of());
+
+        assertEquals(List.of(), AllotmentResultCodec.decodeWinners(encoded));
+        assertEquals(List.of(), AllotmentResultCodec.decodeNonWinners(encoded));
+    }
+
+    @Test
+    void singleEntryRoundTrips() {
+        byte[] encoded = AllotmentResultCodec.encode(List.of("app-1"), List.of());
+
+        assertEquals(List.of("app-1"), AllotmentResultCodec.decodeWinners(encoded));
+        assertEquals(List.of(), AllotmentResultCodec.decodeNonWinners(encoded));
+    }
+
+    @Test
+    void sharedPrefixesRoundTrip() {
+        // Identical ids, a prefix of the next id, a longer common run and a non-ASCII suffix
+        List<String> winners = List.of("app-100", "app-10", "app-1", "app-1", "app-1000", "app-2", "");
+        List<String> nonWinners = List.of("zeta", "zetä", "z😀a", "z😀b");
+
+        byte[] encoded = AllotmentResultCodec.encode(winners, nonWinners);
+
+        assertEquals(sorted(winners), AllotmentResultCodec.decodeWinners(encoded));
+        assertEquals(sorted(nonWinners), AllotmentResultCodec.decodeNonWinners(encoded));
+    }
+
+    @Test
+    void largeListsRoundTripCompactly() {
+        Random random = new Random(31);
+        List<String> winners = new ArrayList<>();
+        List<String> nonWinners = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            String id = new UUID(random.nextLong(), random.nextLong()).toString();
+            (i % 4 == 0 ? winners : nonWinners).add(id);
+        }
+
+        byte[] encoded = AllotmentResultCodec.encode(winners, nonWinners);
+
+        assertEquals(sorted(winners), AllotmentResultCodec.decodeWinners(encoded));
+        assertEquals(sorted(nonWinners), AllotmentResultCodec.decodeNonWinners(encoded));
+        // Lengths above 127 need multi-byte varints; random UUIDs stay well under 36 bytes each
+        assertTrue(encoded.length < 200_000 * 24, encoded.length + " bytes");
+    }
+
+    @Test
+    void longIdsRoundTrip() {
+        String longId = "x".repeat(300);
+
+        byte[] encoded = AllotmentResultCodec.encode(List.of(longId, longId + "y"), List.of(longId));
+
+        assertEquals(List.of(longId, longId + "y"), AllotmentResultCodec.decodeWinners(encoded));
+        assertEquals(List.of(longId), AllotmentResultCodec.decodeNonWinners(encoded));
+    }
+
+    @Test
+    void rejectsUnknownFormatVersion() {
+        byte[] encoded = AllotmentResultCodec.encode(List.of("a"), List.of());
+        byte[] future = deflate(new byte[] { 2, 0, 0 });
+
+        assertEquals(List.of("a"), AllotmentResultCodec.decodeWinners(encoded));
+        assertThrows(IllegalArgumentException.class, () -> AllotmentResultCodec.decodeWinners(future));
+    }
+
+    private static List<String> sorted(List<String> ids) {
+        List<String> sorted = new ArrayList<>(ids);
+        sorted.sort(null);
+        return sorted;
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] out = new byte[64];
+        int length = deflater.deflate(out);
+        deflater.end();
+        return Arrays.copyOf(out, length);
+    }
+}
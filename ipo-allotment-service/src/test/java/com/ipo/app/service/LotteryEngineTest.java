@@ -0,0 +1,174 @@
+package com.ipo.app.service;
+
+import com.ipo.app.entity.EligibleApplicant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Every optimised mode has to pick exactly the winners the legacy engine picks,
+// in the same order and with the same allotted lots, for the same seed and input
+class LotteryEngineTest {
+
+    private static final String SEED = "parity-ipo";
+
+    private static final LotteryEngine.Mode[] OPTIMISED = {
+            LotteryEngine.Mode.PRIMITIVE, LotteryEngine.Mode.TOP_K, LotteryEngine.Mode.PARALLEL
+    };
+
+    private final LotteryEngine engine = new LotteryEngine();
+
+    @AfterEach
+    void shutdown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void optimisedModesMatchLegacyWinners() {
+        List<EligibleApplicant> applicants = randomApplicants(2_000, 5, 7);
+
+        assertMatchesLegacy(applicants, 750);
+    }
+
+    @Test
+    void optimisedModesMatchLegacyAcrossParallelPartitions() {
+        // More applicants than one PARALLEL partition holds, so partial heaps get merged
+        List<EligibleApplicant> applicants = randomApplicants(40_000, 3, 11);
+
+        assertMatchesLegacy(applicants, 400);
+    }
+
+    @Test
+    void optimisedModesMatchLegacyWhenEveryoneWins() {
+        List<EligibleApplicant> applicants = randomApplicants(50, 4, 13);
+
+        assertMatchesLegacy(applicants, 1_000);
+    }
+
+    @Test
+    void optimisedModesMatchLegacyWhenApplicantsHaveZeroLots() {
+        List<EligibleApplicant> applicants = randomApplicants(500, 3, 17);
+        for (int i = 0; i < applicants.size(); i += 7) {
+            applicants.get(i).setLots(0);
+        }
+
+        assertMatchesLegacy(applicants, 120);
+    }
+
+    @Test
+    void tiedScoresGoToTheEarliestApplicant() {
+        // Applicants sharing an id hash to the same score; the legacy engine resolves a
+        // winning entry to the first applicant with that id, the optimised modes break
+        // the tie by applicant index, so the earliest applicant wins either way
+        List<EligibleApplicant> applicants = new ArrayList<>();
+        applicants.add(applicant("duplicate", 3));
+        applicants.add(applicant("duplicate", 2));
+        applicants.add(applicant("duplicate", 4));
+
+        LotteryResult legacy = assertMatchesLegacy(applicants, 2);
+
+        assertArrayEquals(new int[] { 0 }, legacy.getWinnerIndices());
+        assertEquals(2, legacy.getAllottedLots(0));
+    }
+
+    @Test
+    void optimisedModesAgreeOnTiedScores() {
+        // Duplicated ids spread through the list: the legacy engine folds them onto one
+        // applicant, but the optimised modes must still agree with each other exactly
+        List<EligibleApplicant> applicants = randomApplicants(30_000, 4, 19);
+        for (int i = 1; i < applicants.size(); i += 3) {
+            applicants.get(i).setId(applicants.get(i - 1).getId());
+        }
+
+        LotteryResult expected = engine.performLottery(applicants, 5_000, SEED, LotteryEngine.Mode.PRIMITIVE);
+        for (LotteryEngine.Mode mode : OPTIMISED) {
+            assertSameWinners(expected, engine.performLottery(applicants, 5_000, SEED, mode), mode);
+        }
+    }
+
+    @Test
+    void parallelMatchesTopKAtPartitionBoundaries() {
+        // One applicant short of, exactly at and one past a full partition, and two full ones
+        for (int count : new int[] { 16_383, 16_384, 16_385, 32_768 }) {
+            List<EligibleApplicant> applicants = randomApplicants(count, 3, count);
+            LotteryResult topK = engine.performLottery(applicants, 2_000, SEED, LotteryEngine.Mode.TOP_K);
+            LotteryResult parallel = engine.performLottery(applicants, 2_000, SEED, LotteryEngine.Mode.PARALLEL);
+
+            assertSameWinners(topK, parallel, LotteryEngine.Mode.PARALLEL);
+        }
+    }
+
+    @Test
+    void parallelDrawIsRepeatable() {
+        List<EligibleApplicant> applicants = randomApplicants(50_000, 2, 23);
+
+        LotteryResult first = engine.performLottery(applicants, 3_000, SEED, LotteryEngine.Mode.PARALLEL);
+        for (int run = 0; run < 3; run++) {
+            assertSameWinners(first, engine.performLottery(applicants, 3_000, SEED, LotteryEngine.Mode.PARALLEL),
+                    LotteryEngine.Mode.PARALLEL);
+        }
+    }
+
+    @Test
+    void incrementalParallelDrawMatchesListDraw() {
+        List<EligibleApplicant> applicants = randomApplicants(20_000, 4, 29);
+
+        LotteryDraw draw = engine.newDraw(1_500, SEED, LotteryEngine.Mode.PARALLEL);
+        for (EligibleApplicant applicant : applicants) {
+            draw.add(applicant.getId(), applicant.getLots());
+        }
+
+        assertEquals(applicants.size(), draw.size());
+        assertSameWinners(engine.performLottery(applicants, 1_500, SEED, LotteryEngine.Mode.TOP_K), draw.finish(),
+                LotteryEngine.Mode.PARALLEL);
+    }
+
+    @Test
+    void emptyParallelDrawHasNoWinners() {
+        LotteryResult result = engine.newDraw(10, SEED, LotteryEngine.Mode.PARALLEL).finish();
+
+        assertEquals(0, result.getApplicantCount());
+        assertEquals(0, result.getWinnerCount());
+    }
+
+    private LotteryResult assertMatchesLegacy(List<EligibleApplicant> applicants, int totalShares) {
+        LotteryResult legacy = engine.performLottery(applicants, totalShares, SEED, LotteryEngine.Mode.LEGACY);
+        for (LotteryEngine.Mode mode : OPTIMISED) {
+            assertSameWinners(legacy, engine.performLottery(applicants, totalShares, SEED, mode), mode);
+        }
+        return legacy;
+    }
+
+    private static void assertSameWinners(LotteryResult expected, LotteryResult actual, LotteryEngine.Mode mode) {
+        assertArrayEquals(expected.getWinnerIndices(), actual.getWinnerIndices(), mode + " winner order");
+        assertArrayEquals(expected.getNonWinnerIndices(), actual.getNonWinnerIndices(), mode + " non-winners");
+        for (int i = 0; i < expected.getApplicantCount(); i++) {
+            assertEquals(expected.getAllottedLots(i), actual.getAllottedLots(i), mode + " lots of applicant " + i);
+        }
+    }
+
+    private static List<EligibleApplicant> randomApplicants(int count, int maxLots, long seed) {
+        Random random = new Random(seed);
+        List<EligibleApplicant> applicants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = new UUID(random.nextLong(), random.nextLong()).toString();
+            applicants.add(applicant(id, 1 + random.nextInt(maxLots)));
+        }
+        return applicants;
+    }
+
+    private static EligibleApplicant applicant(String id, int lots) {
+        EligibleApplicant applicant = new EligibleApplicant();
+        applicant.setId(id);
+        applicant.setApplicationId(id);
+        applicant.setLots(lots);
+        applicant.setStatus("ELIGIBLE");
+        return applicant;
+    }
+}
@@ -1,47 +0,0 @@
-// File: com.ipo.app.config.JmsConfig.java
-package com.ipo.app.config;
-
-import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
-import org.springframework.jms.config.JmsListenerContainerFactory;
-import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
-import org.springframework.jms.support.converter.MessageConverter;
-import org.springframework.jms.support.converter.MessageType;
-
-import jakarta.jms.ConnectionFactory;
-
-@Configuration
-public class JmsConfig {
-
-    // Serializer for sending/receiving JSON payloads
-    @Bean
-    public MessageConverter jacksonJmsMessageConverter() {
-        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
-        converter.setTargetType(MessageType.TEXT);
-        converter.setTypeIdPropertyName("_type");
-        return converter;
-    }
-
-    // Factory for listening on Queues (Point-to-Point)
-    @Bean
-    public JmsListenerContainerFactory<?> queueListenerFactory(ConnectionFactory connectionFactory,
-            DefaultJmsListenerContainerFactoryConfigurer configurer) {
-        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
-        configurer.configure(factory, connectionFactory);
-        factory.setAutoStartup(false); // Don't start automatically
-        return factory;
-    }
-
-    // Factory for listening on Topics (Pub/Sub)
-    @Bean
-    public JmsListenerContainerFactory<?> topicListenerFactory(ConnectionFactory connectionFactory,
-            DefaultJmsListenerContainerFactoryConfigurer configurer) {
-        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
-        configurer.configure(factory, connectionFactory);
-        factory.setPubSubDomain(true);
-        factory.setAutoStartup(false); // Don't start automatically
-        return factory;
-    }
-}
\ No newline at end of file
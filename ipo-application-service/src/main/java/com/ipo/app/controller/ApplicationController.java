@@ -1,13 +1,13 @@
 package com.ipo.app.controller;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jms.core.JmsTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -19,33 +19,29 @@
 import com.ipo.events.ApplicationCreatedEvent;
 import com.ipo.app.dto.ApplicationRequest;
 import com.ipo.app.entity.IPOApplication;
-import com.ipo.app.repository.ApplicationRepository;
+import com.ipo.app.repository.ApplicationIntakeWriter;
+import com.ipo.app.service.ApplicationIntakeBuffer;
+import com.ipo.app.service.IntakeRejectedException;
+import com.ipo.app.service.OutboxRelay;
 
 @RestController
 @RequestMapping("/api/v1/ipo")
 public class ApplicationController {
 
     @Autowired
-    private ApplicationRepository applicationRepository;
+    private ApplicationIntakeWriter applicationIntakeWriter;
 
     @Autowired
-    private JmsTemplate jmsTemplate;
+    private OutboxRelay outboxRelay;
+
+    // Present only when intake.write-behind.enabled=true
+    @Autowired(required = false)
+    private ApplicationIntakeBuffer applicationIntakeBuffer;
 
     @PostMapping("/{ipoId}/apply")
-    public ResponseEntity<IPOApplication> applyForIPO(@PathVariable String ipoId,
+    public CompletableFuture<ResponseEntity<IPOApplication>> applyForIPO(@PathVariable String ipoId,
             @RequestBody ApplicationRequest request,
             @RequestHeader("Idempotency-Key") String idempotencyKey) {
-        // Check if this request was already processed (idempotency)
-        Optional<IPOApplication> existing = applicationRepository.findByIdempotencyKey(idempotencyKey);
-        if (existing.isPresent()) {
-            return ResponseEntity.ok(existing.get()); // Return existing application
-        }
-
-        // Prevent duplicate applications for the same user and IPO
-        if (applicationRepository.existsByIpoIdAndInvestorId(ipoId, request.getInvestorId())) {
-            return ResponseEntity.status(409).build(); // Conflict if duplicate
-        }
-
         // Creating a new application record
         IPOApplication application = new IPOApplication();
         application.setApplicationId(UUID.randomUUID().toString());
@@ -55,18 +51,58 @@ public ResponseEntity<IPOApplication> applyForIPO(@PathVariable String ipoId,
         application.setStatus("PENDING");
         application.setIdempotencyKey(idempotencyKey);
 
-        IPOApplication saved = applicationRepository.save(application);
-
-        // Sending an event to the payment svc
+        // Event for the payment svc, stored with the application and relayed by OutboxRelay
         ApplicationCreatedEvent event = new ApplicationCreatedEvent();
-        event.setApplicationId(saved.getApplicationId());
-        event.setInvestorId(saved.getInvestorId());
+        event.setApplicationId(application.getApplicationId());
+        event.setInvestorId(application.getInvestorId());
         event.setUserUpiId(request.getUserUpiId());
-        event.setAmount(calculateAmount(saved.getLots()));
+        event.setAmount(calculateAmount(application.getLots()));
+        event.setIpoId(ipoId);
+        event.setLots(application.getLots());
+        event.setSchemaVersion(ApplicationCreatedEvent.SCHEMA_VERSION);
 
-        jmsTemplate.convertAndSend("app.created.queue", event);
+        ApplicationIntakeWriter.Submission submission = new ApplicationIntakeWriter.Submission(application,
+                "app.created.queue", event);
+        if (applicationIntakeBuffer == null) {
+            // Insert, idempotency check, duplicate check and outbox write in one round trip
+            return CompletableFuture.completedFuture(toResponse(applicationIntakeWriter.submit(application,
+                    submission.getDestination(), event), idempotencyKey));
+        }
 
-        return ResponseEntity.accepted().body(saved);
+        // Write-behind: the response is sent once the group commit holding this request is done
+        try {
+            return applicationIntakeBuffer.submit(submission)
+                    .handle((intake, failure) -> failure == null ? toResponse(intake, idempotencyKey)
+                            : rejectedResponse(failure));
+        } catch (IntakeRejectedException e) {
+            return CompletableFuture.completedFuture(rejectedResponse(e));
+        }
+    }
+
+    // Requests still queued when the buffer stops are rejected through their future;
+    // they get the same retryable status as a submit that is turned away up front
+    private ResponseEntity<IPOApplication> rejectedResponse(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (!(cause instanceof IntakeRejectedException)) {
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new CompletionException(cause);
+        }
+        IntakeRejectedException rejected = (IntakeRejectedException) cause;
+        return ResponseEntity.status(rejected.getReason().getStatus())
+                .header("Retry-After", "1").build();
+    }
+
+    private ResponseEntity<IPOApplication> toResponse(ApplicationIntakeWriter.Intake intake, String idempotencyKey) {
+        if (intake.isReplayOf(idempotencyKey)) {
+            return ResponseEntity.ok(intake.getApplication()); // Return existing application
+        }
+        if (!intake.isCreated()) {
+            return ResponseEntity.status(409).build(); // Conflict if duplicate
+        }
+        // The application and its outbox row are committed by now
+        outboxRelay.wakeUp();
+        return ResponseEntity.accepted().body(intake.getApplication());
     }
 
     private double calculateAmount(int lots) {
@@ -0,0 +1,50 @@
+package com.ipo.app.controller;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ipo.app.entity.IPOApplication;
+import com.ipo.app.repository.ApplicationRepository;
+
+// Application lookups for the other services. The bulk form answers many ids with one
+// query, so a caller can batch its lookups instead of making one request per id
+@RestController
+@RequestMapping("/applications")
+public class ApplicationQueryController {
+
+    // Ids accepted per bulk request; keeps the IN list and the response bounded
+    static final int MAX_IDS = 1000;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @GetMapping("/{applicationId}")
+    public ResponseEntity<IPOApplication> getApplication(@PathVariable String applicationId) {
+        return applicationRepository.findByApplicationId(applicationId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // GET /applications?ids=a,b,c - the applications found, in no particular order;
+    // unknown ids are left out
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<IPOApplication>> getApplications(@RequestParam List<String> ids) {
+        Set<String> distinct = new LinkedHashSet<>(ids);
+        if (distinct.size() > MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (distinct.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        return ResponseEntity.ok(applicationRepository.findByApplicationIdIn(distinct));
+    }
+}
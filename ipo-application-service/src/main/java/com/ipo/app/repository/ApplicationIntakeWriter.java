@@ -0,0 +1,234 @@
+package com.ipo.app.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.ipo.app.entity.IPOApplication;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+// Application intake in one statement: the insert and the idempotency / duplicate
+// checks are resolved together by the unique constraints on idempotency_key and
+// (ipo_id, investor_id). On conflict the existing row is returned instead, so
+// concurrent retries of the same request all see the one row that won. The event
+// announcing a new application goes into outbox_events in the same statement, so
+// it is stored exactly when the application is; OutboxRelay sends it later.
+@Repository
+public class ApplicationIntakeWriter {
+
+    private static final String COLUMNS = "id, application_id, ipo_id, investor_id, lots, status, idempotency_key";
+
+    private static final String APPLICATION_COLUMNS = "a.id, a.application_id, a.ipo_id, a.investor_id, a.lots, "
+            + "a.status, a.idempotency_key";
+
+    // The fallback SELECT reads the statement's snapshot, so it can miss a conflicting
+    // row committed after the statement started; submit() re-runs it in that case.
+    // A row matching the idempotency key is preferred over an (ipo, investor) match.
+    private static final String INTAKE_SQL = "WITH inserted AS ("
+            + " INSERT INTO ipo_applications (application_id, ipo_id, investor_id, lots, status, idempotency_key)"
+            + " VALUES (?, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT DO NOTHING"
+            + " RETURNING " + COLUMNS + "),"
+            + " outboxed AS ("
+            + " INSERT INTO outbox_events (destination, payload_type, payload, created_at)"
+            + " SELECT ?, ?, ?, now() FROM inserted)"
+            + " SELECT " + COLUMNS + ", true AS created FROM inserted"
+            + " UNION ALL"
+            + " (SELECT " + COLUMNS + ", false AS created FROM ipo_applications"
+            + " WHERE (idempotency_key = ? OR (ipo_id = ? AND investor_id = ?))"
+            + " AND NOT EXISTS (SELECT 1 FROM inserted)"
+            + " ORDER BY (idempotency_key = ?) DESC LIMIT 1)";
+
+    // Group-commit form of INTAKE_SQL: the submissions arrive as one array per column and
+    // are inserted in submission order, so within a group the earlier request wins a
+    // conflict. Each submission is then matched to the row that now holds its slot,
+    // looking at rows inserted by this statement as well as rows already committed.
+    private static final String INTAKE_BATCH_SQL = "WITH input AS ("
+            + " SELECT * FROM unnest(?::int[], ?::varchar[], ?::varchar[], ?::varchar[], ?::int[], ?::varchar[],"
+            + " ?::varchar[], ?::varchar[], ?::varchar[], ?::text[])"
+            + " AS t(ord, application_id, ipo_id, investor_id, lots, status, idempotency_key,"
+            + " destination, payload_type, payload)),"
+            + " inserted AS ("
+            + " INSERT INTO ipo_applications (application_id, ipo_id, investor_id, lots, status, idempotency_key)"
+            + " SELECT application_id, ipo_id, investor_id, lots, status, idempotency_key FROM input ORDER BY ord"
+            + " ON CONFLICT DO NOTHING"
+            + " RETURNING " + COLUMNS + "),"
+            + " outboxed AS ("
+            + " INSERT INTO outbox_events (destination, payload_type, payload, created_at)"
+            + " SELECT i.destination, i.payload_type, i.payload, now()"
+            + " FROM input i JOIN inserted n ON n.application_id = i.application_id ORDER BY i.ord),"
+            + " candidates AS ("
+            + " SELECT " + COLUMNS + " FROM inserted"
+            + " UNION ALL"
+            + " SELECT " + APPLICATION_COLUMNS + " FROM ipo_applications a"
+            + " JOIN input i ON a.idempotency_key = i.idempotency_key"
+            + " UNION ALL"
+            + " SELECT " + APPLICATION_COLUMNS + " FROM ipo_applications a"
+            + " JOIN input i ON a.ipo_id = i.ipo_id AND a.investor_id = i.investor_id)"
+            + " SELECT i.ord, m.id, m.application_id, m.ipo_id, m.investor_id, m.lots, m.status,"
+            + " m.idempotency_key, m.application_id = i.application_id AS created"
+            + " FROM input i LEFT JOIN LATERAL ("
+            + " SELECT * FROM candidates c"
+            + " WHERE c.application_id = i.application_id OR c.idempotency_key = i.idempotency_key"
+            + " OR (c.ipo_id = i.ipo_id AND c.investor_id = i.investor_id)"
+            + " ORDER BY c.application_id = i.application_id DESC, c.idempotency_key = i.idempotency_key DESC"
+            + " LIMIT 1) m ON true"
+            + " ORDER BY i.ord";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final RowMapper<Intake> INTAKE_MAPPER = (rs, rowNum) -> {
+        IPOApplication application = new IPOApplication();
+        application.setId(rs.getLong("id"));
+        application.setApplicationId(rs.getString("application_id"));
+        application.setIpoId(rs.getString("ipo_id"));
+        application.setInvestorId(rs.getString("investor_id"));
+        application.setLots(rs.getInt("lots"));
+        application.setStatus(rs.getString("status"));
+        application.setIdempotencyKey(rs.getString("idempotency_key"));
+        return new Intake(application, rs.getBoolean("created"));
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Inserts the application and, only if it was new, queues event for destination
+    public Intake submit(IPOApplication application, String destination, Object event) {
+        String payload = toJson(event);
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            List<Intake> rows = jdbcTemplate.query(INTAKE_SQL, INTAKE_MAPPER,
+                    application.getApplicationId(), application.getIpoId(), application.getInvestorId(),
+                    application.getLots(), application.getStatus(), application.getIdempotencyKey(),
+                    destination, event.getClass().getName(), payload,
+                    application.getIdempotencyKey(), application.getIpoId(), application.getInvestorId(),
+                    application.getIdempotencyKey());
+            if (!rows.isEmpty()) {
+                return rows.get(0);
+            }
+        }
+        throw new IllegalStateException("Application intake for idempotency key "
+                + application.getIdempotencyKey() + " neither inserted nor found a conflicting row");
+    }
+
+    // Submits a group in one statement and one commit; results are in submission order
+    public List<Intake> submitAll(List<Submission> submissions) {
+        int size = submissions.size();
+        Object[][] columns = new Object[10][size];
+        for (int i = 0; i < size; i++) {
+            Submission submission = submissions.get(i);
+            IPOApplication application = submission.getApplication();
+            columns[0][i] = i;
+            columns[1][i] = application.getApplicationId();
+            columns[2][i] = application.getIpoId();
+            columns[3][i] = application.getInvestorId();
+            columns[4][i] = application.getLots();
+            columns[5][i] = application.getStatus();
+            columns[6][i] = application.getIdempotencyKey();
+            columns[7][i] = submission.getDestination();
+            columns[8][i] = submission.getEvent().getClass().getName();
+            columns[9][i] = toJson(submission.getEvent());
+        }
+        String[] types = { "int4", "varchar", "varchar", "varchar", "int4", "varchar", "varchar", "varchar",
+                "varchar", "text" };
+
+        List<Intake> results = jdbcTemplate.execute(INTAKE_BATCH_SQL, (PreparedStatement ps) -> {
+            Array[] arrays = new Array[columns.length];
+            try {
+                for (int c = 0; c < columns.length; c++) {
+                    arrays[c] = ps.getConnection().createArrayOf(types[c], columns[c]);
+                    ps.setArray(c + 1, arrays[c]);
+                }
+                List<Intake> rows = new ArrayList<>(size);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        // No match: the conflicting row was committed after the statement began
+                        rows.add(rs.getObject("id") == null ? null : INTAKE_MAPPER.mapRow(rs, rs.getRow()));
+                    }
+                }
+                return rows;
+            } finally {
+                for (Array array : arrays) {
+                    if (array != null) {
+                        array.free();
+                    }
+                }
+            }
+        });
+
+        for (int i = 0; i < size; i++) {
+            if (results.get(i) == null) {
+                Submission submission = submissions.get(i);
+                results.set(i, submit(submission.getApplication(), submission.getDestination(), submission.getEvent()));
+            }
+        }
+        return results;
+    }
+
+    private String toJson(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + event.getClass().getName(), e);
+        }
+    }
+
+    // One application and the event to queue if it turns out to be new
+    public static class Submission {
+        private final IPOApplication application;
+        private final String destination;
+        private final Object event;
+
+        public Submission(IPOApplication application, String destination, Object event) {
+            this.application = application;
+            this.destination = destination;
+            this.event = event;
+        }
+
+        public IPOApplication getApplication() {
+            return application;
+        }
+
+        public String getDestination() {
+            return destination;
+        }
+
+        public Object getEvent() {
+            return event;
+        }
+    }
+
+    // The row now stored for the request, and whether this call created it
+    public static class Intake {
+        private final IPOApplication application;
+        private final boolean created;
+
+        public Intake(IPOApplication application, boolean created) {
+            this.application = application;
+            this.created = created;
+        }
+
+        public IPOApplication getApplication() {
+            return application;
+        }
+
+        public boolean isCreated() {
+            return created;
+        }
+
+        // Same Idempotency-Key as an earlier request: replay its result
+        public boolean isReplayOf(String idempotencyKey) {
+            return !created && idempotencyKey.equals(application.getIdempotencyKey());
+        }
+    }
+}
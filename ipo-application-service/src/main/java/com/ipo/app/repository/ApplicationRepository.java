@@ -4,6 +4,8 @@
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,6 +13,8 @@ public interface ApplicationRepository extends JpaRepository<IPOApplication, Lon
 
     Optional<IPOApplication> findByApplicationId(String applicationId);
 
+    List<IPOApplication> findByApplicationIdIn(Collection<String> applicationIds);
+
     boolean existsByIpoIdAndInvestorId(String ipoId, String investorId);
 
     boolean existsByIdempotencyKey(String idempotencyKey);
@@ -0,0 +1,193 @@
+package com.ipo.app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import com.ipo.app.repository.ApplicationIntakeWriter;
+import com.ipo.app.repository.ApplicationIntakeWriter.Intake;
+import com.ipo.app.repository.ApplicationIntakeWriter.Submission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+// Opt-in write-behind intake (intake.write-behind.enabled). Requests are queued in a
+// bounded buffer and a single writer thread flushes them as group commits of up to
+// max-batch-size applications, waiting at most max-delay-ms after the first one, so
+// a burst of applies costs one INSERT statement and one commit per group instead of
+// one per request. Each request's future completes with its own persisted result.
+@Service
+@ConditionalOnProperty(name = "intake.write-behind.enabled", havingValue = "true")
+public class ApplicationIntakeBuffer implements SmartLifecycle {
+
+    @Autowired
+    private ApplicationIntakeWriter applicationIntakeWriter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${intake.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${intake.write-behind.max-batch-size:256}")
+    private int maxBatchSize;
+
+    @Value("${intake.write-behind.max-delay-ms:2}")
+    private long maxDelayMs;
+
+    private BlockingQueue<Pending> queue;
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    private DistributionSummary flushSize;
+    private Timer flushTime;
+    private Counter rejectedFull;
+    private Counter rejectedUnavailable;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("ipo.intake.buffer.depth", queue, BlockingQueue::size)
+                .description("Applications waiting for a group commit")
+                .register(meterRegistry);
+        Gauge.builder("ipo.intake.buffer.capacity", () -> capacity).register(meterRegistry);
+        flushSize = DistributionSummary.builder("ipo.intake.flush.size")
+                .description("Applications per group commit")
+                .register(meterRegistry);
+        flushTime = Timer.builder("ipo.intake.flush.time").register(meterRegistry);
+        rejectedFull = Counter.builder("ipo.intake.rejected").tag("reason", "buffer_full").register(meterRegistry);
+        rejectedUnavailable = Counter.builder("ipo.intake.rejected").tag("reason", "unavailable")
+                .register(meterRegistry);
+    }
+
+    // Queues a submission; throws IntakeRejectedException instead of blocking when full
+    public CompletableFuture<Intake> submit(Submission submission) {
+        if (!running) {
+            rejectedUnavailable.increment();
+            throw new IntakeRejectedException(IntakeRejectedException.Reason.UNAVAILABLE);
+        }
+        Pending pending = new Pending(submission);
+        if (!queue.offer(pending)) {
+            rejectedFull.increment();
+            throw new IntakeRejectedException(IntakeRejectedException.Reason.BUFFER_FULL);
+        }
+        return pending.future;
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stops taking new applications and lets the writer flush what is already queued
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            try {
+                thread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        for (Pending pending : abandoned) {
+            pending.future.completeExceptionally(
+                    new IntakeRejectedException(IntakeRejectedException.Reason.UNAVAILABLE));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Tops the group up to maxBatchSize, waiting no longer than maxDelayMs after its first entry
+    private void fill(List<Pending> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<Submission> submissions = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            submissions.add(pending.submission);
+        }
+        flushSize.record(batch.size());
+        long start = System.nanoTime();
+        try {
+            List<Intake> results = applicationIntakeWriter.submitAll(submissions);
+            flushTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            // The group shares one statement, so a failure fails every request in it
+            System.err.println("Group commit of " + batch.size() + " applications failed: " + e.getMessage());
+            for (Pending pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class Pending {
+        private final Submission submission;
+        private final CompletableFuture<Intake> future = new CompletableFuture<>();
+
+        private Pending(Submission submission) {
+            this.submission = submission;
+        }
+    }
+}
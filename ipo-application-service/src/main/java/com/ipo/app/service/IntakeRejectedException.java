@@ -0,0 +1,33 @@
+package com.ipo.app.service;
+
+// Thrown when the write-behind intake buffer cannot take another application
+public class IntakeRejectedException extends RuntimeException {
+
+    public enum Reason {
+        // Buffer at capacity: the client should back off and retry (429)
+        BUFFER_FULL(429),
+        // Writer not running, e.g. during shutdown (503)
+        UNAVAILABLE(503);
+
+        private final int status;
+
+        Reason(int status) {
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    private final Reason reason;
+
+    public IntakeRejectedException(Reason reason) {
+        super("Application intake rejected: " + reason);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
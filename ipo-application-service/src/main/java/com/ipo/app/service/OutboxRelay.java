@@ -0,0 +1,288 @@
+package com.ipo.app.service;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ipo.jms.EventJmsTemplate;
+import com.ipo.jms.EventMessageConverter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+
+// Drains outbox_events to the broker in batches. Each batch is claimed with
+// FOR UPDATE SKIP LOCKED (so several instances can relay side by side), sent in one
+// transacted JMS session and deleted once that session has committed. A crash
+// between the JMS commit and the delete resends the batch: delivery is at-least-once.
+// Sends share the EventJmsTemplate's permits, so ipo.jms.max-concurrent-sends bounds
+// them too. Rows that cannot be read back into an event are moved to
+// outbox_dead_letters in the same transaction. Once drained, the relay waits for
+// wakeUp() from intake, polling with a doubling backoff for rows written elsewhere.
+@Service
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final String SELECT_BATCH_SQL = "SELECT id, destination, payload_type, payload "
+            + "FROM outbox_events ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String DELETE_BATCH_SQL = "DELETE FROM outbox_events WHERE id = ANY(?)";
+
+    private static final String DEAD_LETTER_SQL = "INSERT INTO outbox_dead_letters "
+            + "(id, destination, payload_type, payload, created_at, dead_lettered_at, error) "
+            + "SELECT o.id, o.destination, o.payload_type, o.payload, o.created_at, now(), d.error "
+            + "FROM outbox_events o JOIN unnest(?::bigint[], ?::text[]) AS d(id, error) ON o.id = d.id "
+            + "ON CONFLICT (id) DO NOTHING";
+
+    private static final RowMapper<OutboxRow> ROW_MAPPER = (rs, rowNum) -> new OutboxRow(rs.getLong("id"),
+            rs.getString("destination"), rs.getString("payload_type"), rs.getString("payload"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EventJmsTemplate eventJmsTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    // Idle polls after a short batch: first wait, doubled while the outbox stays empty
+    @Value("${outbox.relay.idle-initial-backoff-ms:20}")
+    private long idleInitialBackoffMs;
+
+    @Value("${outbox.relay.idle-max-backoff-ms:1000}")
+    private long idleMaxBackoffMs;
+
+    @Value("${outbox.relay.error-backoff-ms:1000}")
+    private long errorBackoffMs;
+
+    private final Semaphore wakeups = new Semaphore(0);
+    private EventJmsTemplate jmsTemplate;
+    private TransactionTemplate transactionTemplate;
+    private Counter deadLettered;
+    private volatile Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        jmsTemplate = eventJmsTemplate.transacted();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        deadLettered = Counter.builder("ipo.outbox.dead_lettered")
+                .description("Outbox events moved to outbox_dead_letters")
+                .register(meterRegistry);
+    }
+
+    // Called once new outbox rows are committed, so an idle relay picks them up at once
+    public void wakeUp() {
+        if (wakeups.availablePermits() == 0) {
+            wakeups.release();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::relayLoop, "outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void relayLoop() {
+        long idleBackoffMs = idleInitialBackoffMs;
+        while (running) {
+            try {
+                // Full batches go back to back; a short one means the outbox is drained
+                int relayed = relayBatch();
+                if (relayed < batchSize) {
+                    idleBackoffMs = relayed > 0 ? idleInitialBackoffMs
+                            : Math.min(idleBackoffMs * 2, idleMaxBackoffMs);
+                    if (wakeups.tryAcquire(idleBackoffMs, TimeUnit.MILLISECONDS)) {
+                        idleBackoffMs = idleInitialBackoffMs;
+                    }
+                    wakeups.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Outbox relay failed, retrying in " + errorBackoffMs + " ms: " + e.getMessage());
+                try {
+                    Thread.sleep(errorBackoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Relays one batch and returns the number of outbox rows it consumed
+    public int relayBatch() {
+        int[] deadLetteredRows = new int[1];
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<OutboxRow> rows = jdbcTemplate.query(SELECT_BATCH_SQL, ROW_MAPPER, batchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            deadLetteredRows[0] = send(rows);
+            delete(rows);
+            return rows.size();
+        });
+        // Counted once committed, so a batch that is rolled back and retried counts once
+        deadLettered.increment(deadLetteredRows[0]);
+        return relayed == null ? 0 : relayed;
+    }
+
+    // Sends the readable rows and dead-letters the rest, returning how many were dead-lettered
+    private int send(List<OutboxRow> rows) {
+        List<OutboxRow> sendable = new ArrayList<>(rows.size());
+        List<Long> unreadableIds = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (OutboxRow row : rows) {
+            try {
+                row.event = objectMapper.readValue(row.payload, Class.forName(row.payloadType));
+                sendable.add(row);
+            } catch (Exception e) {
+                // Retrying cannot fix an unreadable row; set it aside rather than stall the outbox
+                System.err.println("Dead-lettering unreadable outbox event " + row.id + " (" + row.payloadType
+                        + "): " + e);
+                unreadableIds.add(row.id);
+                errors.add(e.toString());
+            }
+        }
+        if (!unreadableIds.isEmpty()) {
+            deadLetter(unreadableIds, errors);
+        }
+        if (sendable.isEmpty()) {
+            return unreadableIds.size();
+        }
+        jmsTemplate.execute((Session session) -> {
+            Map<String, MessageProducer> producers = new HashMap<>();
+            try {
+                for (OutboxRow row : sendable) {
+                    MessageProducer producer = producers.get(row.destination);
+                    if (producer == null) {
+                        Destination destination = jmsTemplate.getDestinationResolver()
+                                .resolveDestinationName(session, row.destination, jmsTemplate.isPubSubDomain());
+                        producer = session.createProducer(destination);
+                        producers.put(row.destination, producer);
+                    }
+                    producer.send(toMessage(row, session));
+                }
+                session.commit();
+            } finally {
+                for (MessageProducer producer : producers.values()) {
+                    producer.close();
+                }
+            }
+            return null;
+        }, true);
+        return unreadableIds.size();
+    }
+
+    private Message toMessage(OutboxRow row, Session session) throws JMSException {
+        MessageConverter messageConverter = jmsTemplate.getMessageConverter();
+        if (messageConverter instanceof EventMessageConverter eventConverter) {
+            return eventConverter.toMessage(row.event, session, row.destination);
+        }
+        return messageConverter.toMessage(row.event, session);
+    }
+
+    // Copies the rows into outbox_dead_letters; the batch delete then removes them here
+    private void deadLetter(List<Long> ids, List<String> errors) {
+        jdbcTemplate.execute(DEAD_LETTER_SQL, (PreparedStatement ps) -> {
+            Array idArray = ps.getConnection().createArrayOf("bigint", ids.toArray());
+            Array errorArray = ps.getConnection().createArrayOf("text", errors.toArray());
+            try {
+                ps.setArray(1, idArray);
+                ps.setArray(2, errorArray);
+                return ps.executeUpdate();
+            } finally {
+                idArray.free();
+                errorArray.free();
+            }
+        });
+    }
+
+    private void delete(List<OutboxRow> rows) {
+        Long[] ids = rows.stream().map(row -> row.id).toArray(Long[]::new);
+        jdbcTemplate.execute(DELETE_BATCH_SQL, (PreparedStatement ps) -> {
+            Array idArray = ps.getConnection().createArrayOf("bigint", ids);
+            try {
+                ps.setArray(1, idArray);
+                return ps.executeUpdate();
+            } finally {
+                idArray.free();
+            }
+        });
+    }
+
+    private static class OutboxRow {
+        private final long id;
+        private final String destination;
+        private final String payloadType;
+        private final String payload;
+        private Object event;
+
+        private OutboxRow(long id, String destination, String payloadType, String payload) {
+            this.id = id;
+            this.destination = destination;
+            this.payloadType = payloadType;
+            this.payload = payload;
+        }
+    }
+}
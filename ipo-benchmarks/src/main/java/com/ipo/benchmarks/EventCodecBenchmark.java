@@ -0,0 +1,139 @@
+package com.ipo.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQMessage;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+import org.springframework.jms.support.converter.MessageType;
+
+import com.ipo.events.AllotmentDoneEvent;
+import com.ipo.events.ApplicationCreatedEvent;
+import com.ipo.events.MandateApprovedEvent;
+import com.ipo.events.chunk.AllotmentResultChunker;
+import com.ipo.jms.EventMessageConverter;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+
+// JSON (the services' MappingJackson2MessageConverter setup) against the binary
+// codecs, through the same EventMessageConverter the services use. Messages are
+// ActiveMQ's own implementations with the body marshalled as it would be on send;
+// the wire body size of each event is printed once per trial as "bytes/message".
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private static final String DESTINATION = "benchmark.queue";
+
+    public enum Event {
+        APPLICATION_CREATED, MANDATE_APPROVED, ALLOTMENT_DONE, RESULT_CHUNK
+    }
+
+    public enum Format {
+        JSON, BINARY
+    }
+
+    @Param({ "APPLICATION_CREATED", "MANDATE_APPROVED", "ALLOTMENT_DONE", "RESULT_CHUNK" })
+    private Event event;
+
+    @Param({ "JSON", "BINARY" })
+    private Format format;
+
+    private EventMessageConverter converter;
+    private Session session;
+    private Object payload;
+    private ActiveMQMessage encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JMSException {
+        MappingJackson2MessageConverter json = new MappingJackson2MessageConverter();
+        json.setTargetType(MessageType.TEXT);
+        json.setTypeIdPropertyName("_type");
+        converter = new EventMessageConverter(json, "_type",
+                format == Format.BINARY ? Set.of(DESTINATION) : Set.of());
+        session = messageFactory();
+        payload = payload(event);
+        encoded = encode();
+        encoded.storeContentAndClear();
+        System.out.println("bytes/message: " + encoded.getContent().getLength());
+    }
+
+    @Benchmark
+    public ActiveMQMessage encode() throws JMSException {
+        ActiveMQMessage message = (ActiveMQMessage) converter.toMessage(payload, session, DESTINATION);
+        message.storeContent();
+        return message;
+    }
+
+    // Decodes from the marshalled body, as a consumer receives it
+    @Benchmark
+    public Object decode() throws JMSException {
+        ActiveMQMessage message = (ActiveMQMessage) encoded.copy();
+        message.setReadOnlyBody(true);
+        return converter.fromMessage(message);
+    }
+
+    private static Object payload(Event event) {
+        Random random = new Random(42);
+        switch (event) {
+            case APPLICATION_CREATED:
+                return new ApplicationCreatedEvent(uuid(random), "investor-1042", "investor1042@upi", 14250.0,
+                        "ipo-2024-17", 10, ApplicationCreatedEvent.SCHEMA_VERSION);
+            case MANDATE_APPROVED:
+                return new MandateApprovedEvent(uuid(random), uuid(random), "ipo-2024-17", "investor-1042", 10,
+                        14250.0, MandateApprovedEvent.SCHEMA_VERSION);
+            case ALLOTMENT_DONE:
+                return new AllotmentDoneEvent("ipo-2024-17", uuid(random), 10_000, 1_990_000, 400, 5000,
+                        1_234_567_890_123L);
+            default:
+                List<String> ids = new ArrayList<>(5000);
+                for (int i = 0; i < 5000; i++) {
+                    ids.add(uuid(random));
+                }
+                return new AllotmentResultChunker("ipo-2024-17", uuid(random), ids, List.of(), 5000).chunk(0);
+        }
+    }
+
+    private static String uuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    // The converters only ever ask a session to create messages
+    private static Session messageFactory() {
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[] { Session.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "createTextMessage" -> {
+                        ActiveMQTextMessage message = new ActiveMQTextMessage();
+                        message.setText(args == null ? null : (String) args[0]);
+                        yield message;
+                    }
+                    case "createBytesMessage" -> new ActiveMQBytesMessage();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,161 @@
+package com.ipo.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Closed-loop load generator for POST /api/v1/ipo/{ipoId}/apply against a running
+// ipo-application-service: every client sends its next apply as soon as the previous
+// one returns, with a fresh investor and Idempotency-Key each time. Run it once with
+// the service on platform threads and once with VIRTUAL_THREADS_ENABLED=true:
+//
+//   java -cp ipo-benchmarks/target/benchmarks.jar com.ipo.benchmarks.IntakeLoadTest \
+//       --url http://localhost:8081 --clients 1000 --warmup 10 --duration 30
+public final class IntakeLoadTest {
+
+    private IntakeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String url = options.getOrDefault("url", "http://localhost:8081");
+        String ipoId = options.getOrDefault("ipo", "LOAD-" + UUID.randomUUID().toString().substring(0, 8));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "500"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "10")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "30")));
+
+        ExecutorService httpExecutor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(httpExecutor)
+                .build();
+        URI target = URI.create(url + "/api/v1/ipo/" + ipoId + "/apply");
+
+        Client[] workers = new Client[clients];
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        for (int i = 0; i < clients; i++) {
+            Client worker = new Client(http, target, i, measureFrom, end);
+            workers[i] = worker;
+            pool.execute(() -> {
+                try {
+                    worker.run();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        pool.shutdown();
+        httpExecutor.shutdown();
+
+        report(workers, clients, durationNanos);
+    }
+
+    private static void report(Client[] workers, int clients, long durationNanos) {
+        int total = 0;
+        for (Client worker : workers) {
+            total += worker.count;
+        }
+        long[] latencies = new long[total];
+        int position = 0;
+        Map<Integer, Integer> statuses = new TreeMap<>();
+        for (Client worker : workers) {
+            System.arraycopy(worker.latencies, 0, latencies, position, worker.count);
+            position += worker.count;
+            worker.statuses.forEach((status, count) -> statuses.merge(status, count, Integer::sum));
+        }
+        Arrays.sort(latencies);
+
+        double seconds = durationNanos / 1e9;
+        System.out.printf("clients=%d requests=%d throughput=%.1f req/s%n", clients, total, total / seconds);
+        System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), total == 0 ? 0 : latencies[total - 1] / 1e6);
+        System.out.println("status codes: " + statuses);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static final class Client {
+        private final HttpClient http;
+        private final URI target;
+        private final int clientId;
+        private final long measureFrom;
+        private final long end;
+
+        // Latencies of requests started inside the measurement window
+        private long[] latencies = new long[1024];
+        private int count;
+        private final Map<Integer, Integer> statuses = new HashMap<>();
+
+        private Client(HttpClient http, URI target, int clientId, long measureFrom, long end) {
+            this.http = http;
+            this.target = target;
+            this.clientId = clientId;
+            this.measureFrom = measureFrom;
+            this.end = end;
+        }
+
+        private void run() {
+            for (int sequence = 0;; sequence++) {
+                long sent = System.nanoTime();
+                if (sent >= end) {
+                    return;
+                }
+                String investorId = "load-" + clientId + "-" + sequence;
+                HttpRequest request = HttpRequest.newBuilder(target)
+                        .timeout(Duration.ofSeconds(60))
+                        .header("Content-Type", "application/json")
+                        .header("Idempotency-Key", UUID.randomUUID().toString())
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"investorId\":\"" + investorId
+                                + "\",\"lots\":1,\"userUpiId\":\"" + investorId + "@upi\"}"))
+                        .build();
+                int status;
+                try {
+                    status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (Exception e) {
+                    status = -1;
+                }
+                if (sent >= measureFrom) {
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - sent;
+                    statuses.merge(status, 1, Integer::sum);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.ipo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.messaginghub.pooled.jms.JmsPoolConnectionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jms.connection.CachingConnectionFactory;
+import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+import org.springframework.jms.support.converter.MessageType;
+
+import com.ipo.events.ApplicationCreatedEvent;
+import com.ipo.jms.EventJmsTemplate;
+import com.ipo.jms.EventMessageConverter;
+
+import jakarta.jms.Connection;
+import jakarta.jms.ConnectionFactory;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+
+// Sends per second through the services' EventJmsTemplate, four sending threads, over
+// each connection factory a service can end up with: a bare ActiveMQConnectionFactory
+// (a connection, session and producer opened per send), Boot's CachingConnectionFactory
+// and pooled-jms. Needs a running broker (-p brokerUrl=..., default localhost); a
+// listener on its own connection drains the queue so the broker never flow-controls.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JmsSendBenchmark {
+
+    private static final int BATCH = 100;
+
+    public enum Factory {
+        RAW, CACHING, POOLED
+    }
+
+    // SYNC waits for the broker's receipt per persistent send, ASYNC does not
+    // (ipo.jms.send.async), TRANSACTED commits once per template call (ipo.jms.send.transacted)
+    public enum Delivery {
+        SYNC, ASYNC, TRANSACTED
+    }
+
+    @Param("tcp://localhost:61616")
+    private String brokerUrl;
+
+    @Param({ "RAW", "CACHING", "POOLED" })
+    private Factory factory;
+
+    @Param({ "SYNC", "ASYNC", "TRANSACTED" })
+    private Delivery delivery;
+
+    private String queue;
+    private ConnectionFactory connectionFactory;
+    private EventJmsTemplate template;
+    private Connection drainConnection;
+    private ApplicationCreatedEvent event;
+    private List<ApplicationCreatedEvent> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JMSException {
+        queue = "benchmark.send." + UUID.randomUUID();
+        ActiveMQConnectionFactory activeMq = new ActiveMQConnectionFactory(brokerUrl);
+        if (delivery == Delivery.ASYNC) {
+            activeMq.setUseAsyncSend(true);
+            activeMq.setProducerWindowSize(1 << 20);
+        }
+        connectionFactory = switch (factory) {
+            case RAW -> activeMq;
+            case CACHING -> {
+                CachingConnectionFactory caching = new CachingConnectionFactory(activeMq);
+                caching.setSessionCacheSize(10);
+                yield caching;
+            }
+            case POOLED -> {
+                JmsPoolConnectionFactory pooled = new JmsPoolConnectionFactory();
+                pooled.setConnectionFactory(activeMq);
+                yield pooled;
+            }
+        };
+
+        MappingJackson2MessageConverter json = new MappingJackson2MessageConverter();
+        json.setTargetType(MessageType.TEXT);
+        json.setTypeIdPropertyName("_type");
+        template = new EventJmsTemplate(connectionFactory);
+        template.setMessageConverter(new EventMessageConverter(json, "_type", List.of()));
+        template.setSessionTransacted(delivery == Delivery.TRANSACTED);
+
+        drainConnection = new ActiveMQConnectionFactory(brokerUrl).createConnection();
+        Session drainSession = drainConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        MessageConsumer drain = drainSession.createConsumer(drainSession.createQueue(queue));
+        drain.setMessageListener(message -> {
+        });
+        drainConnection.start();
+
+        event = new ApplicationCreatedEvent(UUID.randomUUID().toString(), "investor-1042", "investor1042@upi",
+                14250.0, "ipo-2024-17", 10, ApplicationCreatedEvent.SCHEMA_VERSION);
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(new ApplicationCreatedEvent(UUID.randomUUID().toString(), "investor-" + i,
+                    "investor" + i + "@upi", 14250.0, "ipo-2024-17", 10, ApplicationCreatedEvent.SCHEMA_VERSION));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws JMSException {
+        drainConnection.close();
+        if (connectionFactory instanceof CachingConnectionFactory caching) {
+            caching.destroy();
+        } else if (connectionFactory instanceof JmsPoolConnectionFactory pooled) {
+            pooled.stop();
+        }
+    }
+
+    @Benchmark
+    public void send() {
+        template.convertAndSend(queue, event);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void sendAll() {
+        template.convertAndSendAll(queue, batch);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ipo.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ipo.app.entity.EligibleApplicant;
+import com.ipo.app.service.LotteryEngine;
+import com.ipo.app.service.LotteryResult;
+
+// Baseline: the original String/hex engine next to the default mode on the same
+// input. LEGACY resolves winners with a linear scan, so sizes stay small enough
+// to finish; pass -p entries=1000000 to push it further.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class LegacyLotteryBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int entries;
+
+    @Param({ "1", "5" })
+    private int lotsPerApplicant;
+
+    @Param({ "50", "200" })
+    private int oversubscription;
+
+    @Param({ "LEGACY", "TOP_K" })
+    private LotteryEngine.Mode mode;
+
+    private LotteryEngine engine;
+    private List<EligibleApplicant> applicants;
+    private int totalShares;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new LotteryEngine();
+        applicants = LotteryFixtures.applicants(entries, lotsPerApplicant);
+        totalShares = LotteryFixtures.totalShares(entries, oversubscription);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public LotteryResult performLottery() {
+        return engine.performLottery(applicants, totalShares, LotteryFixtures.SEED, mode);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ipo.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ipo.app.entity.EligibleApplicant;
+import com.ipo.app.service.LotteryEngine;
+import com.ipo.app.service.LotteryResult;
+
+// Full draw over 10k / 1M / 10M lot entries for the primitive engine modes.
+// Entries = applicants x lotsPerApplicant, totalShares = entries / oversubscription.
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class LotteryEngineBenchmark {
+
+    @Param({ "10000", "1000000", "10000000" })
+    private int entries;
+
+    @Param({ "1", "5", "20" })
+    private int lotsPerApplicant;
+
+    @Param({ "50", "200" })
+    private int oversubscription;
+
+    @Param({ "PRIMITIVE", "TOP_K", "PARALLEL" })
+    private LotteryEngine.Mode mode;
+
+    private LotteryEngine engine;
+    private List<EligibleApplicant> applicants;
+    private int totalShares;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new LotteryEngine();
+        applicants = LotteryFixtures.applicants(entries, lotsPerApplicant);
+        totalShares = LotteryFixtures.totalShares(entries, oversubscription);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public LotteryResult performLottery() {
+        return engine.performLottery(applicants, totalShares, LotteryFixtures.SEED, mode);
+    }
+}
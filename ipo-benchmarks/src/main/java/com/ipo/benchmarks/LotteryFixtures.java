@@ -0,0 +1,38 @@
+package com.ipo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import com.ipo.app.entity.EligibleApplicant;
+
+// Deterministic applicant lists so every run draws over the same input
+final class LotteryFixtures {
+
+    static final String SEED = "benchmark-ipo";
+
+    private LotteryFixtures() {
+    }
+
+    static List<EligibleApplicant> applicants(int entries, int lotsPerApplicant) {
+        int count = Math.max(1, entries / lotsPerApplicant);
+        Random random = new Random(42);
+        List<EligibleApplicant> applicants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = new UUID(random.nextLong(), random.nextLong()).toString();
+            EligibleApplicant applicant = new EligibleApplicant();
+            applicant.setId(id);
+            applicant.setApplicationId(id);
+            applicant.setInvestorId("investor-" + i);
+            applicant.setLots(lotsPerApplicant);
+            applicant.setStatus("ELIGIBLE");
+            applicants.add(applicant);
+        }
+        return applicants;
+    }
+
+    static int totalShares(int entries, int oversubscription) {
+        return Math.max(1, entries / oversubscription);
+    }
+}
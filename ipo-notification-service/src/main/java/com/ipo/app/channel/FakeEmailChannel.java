@@ -0,0 +1,19 @@
+package com.ipo.app.channel;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "notification.channel.email.enabled", havingValue = "true", matchIfMissing = true)
+public class FakeEmailChannel extends SimulatedChannel {
+
+    public FakeEmailChannel(@Value("${notification.channel.email.batch-size:500}") int batchSize,
+            @Value("${notification.channel.email.rate-per-second:10000}") double ratePerSecond,
+            @Value("${notification.channel.email.burst:10000}") int burst,
+            @Value("${notification.channel.email.concurrency:8}") int concurrency,
+            @Value("${notification.channel.email.latency-ms:50}") long latencyMs,
+            @Value("${notification.channel.email.failure-rate:0}") double failureRate) {
+        super("email", batchSize, ratePerSecond, burst, concurrency, latencyMs, failureRate);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ipo.app.channel;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "notification.channel.sms.enabled", havingValue = "true", matchIfMissing = true)
+public class FakeSmsChannel extends SimulatedChannel {
+
+    public FakeSmsChannel(@Value("${notification.channel.sms.batch-size:100}") int batchSize,
+            @Value("${notification.channel.sms.rate-per-second:2000}") double ratePerSecond,
+            @Value("${notification.channel.sms.burst:2000}") int burst,
+            @Value("${notification.channel.sms.concurrency:8}") int concurrency,
+            @Value("${notification.channel.sms.latency-ms:100}") long latencyMs,
+            @Value("${notification.channel.sms.failure-rate:0}") double failureRate) {
+        super("sms", batchSize, ratePerSecond, burst, concurrency, latencyMs, failureRate);
+    }
+}
@@ -0,0 +1,28 @@
+package com.ipo.app.channel;
+
+import com.ipo.app.dto.NotificationBatch;
+
+// A provider that delivers notices to investors (email, SMS, ...). Every channel bean is
+// picked up by NotificationDispatcher, which sends each allotment notice on all of them
+// within the limits the channel declares here.
+public interface NotificationChannel {
+
+    // Short name used in logs and metrics
+    String getName();
+
+    // Recipients the provider takes in one call
+    int getBatchSize();
+
+    // Recipients per second the provider allows (0 or less for no limit), and how many
+    // it accepts at once above that rate
+    double getRatePerSecond();
+
+    int getBurst();
+
+    // Provider calls in flight at once
+    int getConcurrency();
+
+    // Delivers the batch, or throws NotificationDeliveryException; any other exception
+    // is treated as a retryable failure
+    void send(NotificationBatch batch);
+}
@@ -0,0 +1,17 @@
+package com.ipo.app.channel;
+
+// A provider call that failed for the whole batch
+public class NotificationDeliveryException extends RuntimeException {
+
+    // False when repeating the call cannot help, e.g. the provider rejected the request
+    private final boolean retryable;
+
+    public NotificationDeliveryException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ipo.app.channel;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ipo.app.dto.NotificationBatch;
+
+// Local stand-in for a notification provider: each call takes latency-ms, fails with
+// probability failure-rate, and logs one line per batch instead of contacting anyone
+public abstract class SimulatedChannel implements NotificationChannel {
+
+    private final String name;
+    private final int batchSize;
+    private final double ratePerSecond;
+    private final int burst;
+    private final int concurrency;
+    private final long latencyMs;
+    private final double failureRate;
+    private final AtomicLong delivered = new AtomicLong();
+
+    protected SimulatedChannel(String name, int batchSize, double ratePerSecond, int burst, int concurrency,
+            long latencyMs, double failureRate) {
+        this.name = name;
+        this.batchSize = batchSize;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.concurrency = concurrency;
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public void send(NotificationBatch batch) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new NotificationDeliveryException("Interrupted", true);
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new NotificationDeliveryException("Simulated " + name + " provider error", true);
+        }
+        delivered.addAndGet(batch.size());
+        System.out.println("Mock " + name + ": '" + (batch.isWinners() ? "CONGRATS" : "SORRY") + "' for IPO "
+                + batch.getIpoId() + " to " + batch.size() + " users, first " + batch.getRecipients().get(0));
+    }
+
+    // Recipients delivered since startup
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    @Override
+    public int getBurst() {
+        return burst;
+    }
+
+    @Override
+    public int getConcurrency() {
+        return concurrency;
+    }
+}
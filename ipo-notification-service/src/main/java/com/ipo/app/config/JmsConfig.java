@@ -1,43 +1,22 @@
 package com.ipo.app.config;
 
-import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
-import org.springframework.jms.config.JmsListenerContainerFactory;
-import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
-import org.springframework.jms.support.converter.MessageConverter;
-import org.springframework.jms.support.converter.MessageType;
 
-import jakarta.jms.ConnectionFactory;
+import com.ipo.events.chunk.AllotmentResultAssembler;
 
+// Converter, JmsTemplate and listener factories come from common-dto's IpoJmsAutoConfiguration
 @Configuration
 public class JmsConfig {
 
+    // Reassembles chunked allotment results delivered on allotment.done.topic and
+    // allotment.result.chunk.topic. Completion here only fires on an instance that saw the
+    // header and every chunk, so draw progress is closed by NotificationProgressLog from
+    // its own file instead
     @Bean
-    public MessageConverter jacksonJmsMessageConverter() {
-        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
-        converter.setTargetType(MessageType.TEXT);
-        converter.setTypeIdPropertyName("_type");
-        return converter;
+    public AllotmentResultAssembler allotmentResultAssembler() {
+        return new AllotmentResultAssembler(header -> System.out.println("Allotment result complete for IPO: "
+                + header.getIpoId() + " (" + header.getWinnerCount() + " winners, " + header.getNonWinnerCount()
+                + " non-winners)"));
     }
-
-    @Bean
-    public JmsListenerContainerFactory<?> queueListenerFactory(ConnectionFactory connectionFactory,
-            DefaultJmsListenerContainerFactoryConfigurer configurer) {
-        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
-        configurer.configure(factory, connectionFactory);
-        factory.setAutoStartup(false); // Don't start automatically
-        return factory;
-    }
-
-    @Bean
-    public JmsListenerContainerFactory<?> topicListenerFactory(ConnectionFactory connectionFactory,
-            DefaultJmsListenerContainerFactoryConfigurer configurer) {
-        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
-        configurer.configure(factory, connectionFactory);
-        factory.setPubSubDomain(true);
-        factory.setAutoStartup(false); // Don't start automatically
-        return factory;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.ipo.app.dto;
+
+import java.util.List;
+
+// One provider call's worth of allotment notices: the same message, for one IPO draw
+// and outcome, to up to the channel's batch size of recipients (application ids)
+public class NotificationBatch {
+    private final String ipoId;
+    private final String drawId;
+    private final boolean winners;
+    private final List<String> recipients;
+
+    public NotificationBatch(String ipoId, String drawId, boolean winners, List<String> recipients) {
+        this.ipoId = ipoId;
+        this.drawId = drawId;
+        this.winners = winners;
+        this.recipients = recipients;
+    }
+
+    public String getIpoId() {
+        return ipoId;
+    }
+
+    public String getDrawId() {
+        return drawId;
+    }
+
+    public boolean isWinners() {
+        return winners;
+    }
+
+    public List<String> getRecipients() {
+        return recipients;
+    }
+
+    public int size() {
+        return recipients.size();
+    }
+}
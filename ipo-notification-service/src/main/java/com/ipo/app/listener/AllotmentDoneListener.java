@@ -1,20 +1,23 @@
 package com.ipo.app.listener;
 
 import com.ipo.events.AllotmentDoneEvent;
+import com.ipo.events.chunk.AllotmentResultAssembler;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AllotmentDoneListener {
 
-    @JmsListener(destination = "allotment.done.topic")
+    @Autowired
+    private AllotmentResultAssembler allotmentResultAssembler;
+
+    // The header only announces the draw; application ids arrive as chunks
+    // handled by NotificationListener
+    @JmsListener(destination = "allotment.done.topic", containerFactory = "queueListenerFactory")
     public void handleAllotmentDone(AllotmentDoneEvent event) {
-        // Send notifications to allotted investors
-        for (String applicationId : event.getWinnerApplicationIds()) {
-            // Mock: Send email/SMS notification
-            System.out.println("Sending notification to investor for application: " + applicationId
-                    + " - Allotment successful for IPO: " + event.getIpoId());
-            // In real implementation, integrate with email/SMS service
-        }
+        System.out.println("Allotment done for IPO: " + event.getIpoId() + ", expecting "
+                + event.getChunkCount() + " result chunks");
+        allotmentResultAssembler.acceptHeader(event);
     }
-}
\ No newline at end of file
+}
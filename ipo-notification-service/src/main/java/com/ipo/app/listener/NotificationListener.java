@@ -1,18 +1,40 @@
 package com.ipo.app.listener;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.stereotype.Component;
 
-import com.ipo.events.AllotmentDoneEvent;
+import com.ipo.app.service.NotificationDispatcher;
+import com.ipo.events.AllotmentResultChunk;
+import com.ipo.events.chunk.AllotmentResultAssembler;
 
 @Component
 public class NotificationListener {
-    @JmsListener(destination = "allotment.done.topic", containerFactory = "topicListenerFactory")
-    public void handleAllotmentDone(AllotmentDoneEvent event) {
-        event.getWinnerApplicationIds()
-                .forEach(appId -> System.out.println("Mock: Sending 'CONGRATS' email to user " + appId + "."));
 
-        event.getNonWinnerApplicationIds()
-                .forEach(appId -> System.out.println("Mock: Sending 'SORRY' email to user " + appId + "."));
+    @Autowired
+    private AllotmentResultAssembler allotmentResultAssembler;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    // Each chunk is dispatched as soon as it arrives; redelivered chunks are skipped.
+    // The allotment service sends to this destination as a queue, so instances share
+    // the chunks of a draw rather than each notifying every recipient
+    @JmsListener(destination = "allotment.result.chunk.topic", containerFactory = "queueListenerFactory")
+    public void handleAllotmentResultChunk(AllotmentResultChunk chunk) {
+        allotmentResultAssembler.acceptChunk(chunk, this::notifyRecipients);
+    }
+
+    // Returns once the chunk is sent on every channel, so it is only acknowledged then;
+    // a chunk redelivered after a crash skips the recipients notified before
+    private void notifyRecipients(AllotmentResultChunk chunk) {
+        try {
+            notificationDispatcher.dispatch(chunk.getIpoId(), chunk.getDrawId(), chunk.getSequence(),
+                    chunk.getChunkCount(), chunk.isWinners(), chunk.getApplicationIds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted dispatching chunk " + chunk.getSequence() + " of draw "
+                    + chunk.getDrawId(), e);
+        }
     }
-}
\ No newline at end of file
+}
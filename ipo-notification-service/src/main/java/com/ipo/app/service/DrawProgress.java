@@ -0,0 +1,259 @@
+package com.ipo.app.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Which recipients of one draw have been notified on which channel, kept as a bitmap
+// over the positions of each result chunk and backed by an append-only file. Every
+// provider call is preceded by a CLAIM of its recipient range, forced to disk before
+// the call is made; SENT and RELEASED (the call failed) follow without a sync. After a
+// crash the file is replayed and claimed ranges are never sent again, so each recipient
+// is notified at most once for as long as the file is kept (NotificationProgressLog only
+// deletes files of completed draws). Claims never confirmed are reported as in doubt.
+// Concurrent claims share one force: whoever syncs writes out everything appended so far.
+// A CHUNK_DONE record, also forced, marks a chunk dispatched on every channel and carries
+// the draw's chunk count, so completion survives restarts and needs no in-memory state.
+class DrawProgress {
+
+    private static final byte CLAIM = 1;
+    private static final byte SENT = 2;
+    private static final byte RELEASED = 3;
+    private static final byte CHUNK_DONE = 4;
+
+    private final String drawId;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private final Object syncLock = new Object();
+
+    // channel name -> chunk sequence -> recipient positions
+    private final Map<String, Map<Integer, BitSet>> claimed = new HashMap<>();
+    private final Map<String, Map<Integer, BitSet>> sent = new HashMap<>();
+
+    // Chunk sequences dispatched on every channel, out of chunkCount (-1 until known)
+    private final BitSet doneChunks = new BitSet();
+    private int chunkCount = -1;
+
+    // Bytes handed to the file channel, and bytes known to be on disk
+    private long written;
+    private long synced;
+    private boolean closed;
+
+    DrawProgress(String drawId, Path file) throws IOException {
+        this.drawId = drawId;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        replay();
+    }
+
+    String getDrawId() {
+        return drawId;
+    }
+
+    // Ranges of the first size positions of a chunk not claimed on the channel, cut
+    // into pieces of at most batchSize: {from, count}
+    synchronized List<int[]> unclaimedRanges(String channelName, int sequence, int size, int batchSize) {
+        BitSet positions = positions(claimed, channelName, sequence);
+        List<int[]> ranges = new ArrayList<>();
+        int from = positions.nextClearBit(0);
+        while (from < size) {
+            int next = positions.nextSetBit(from);
+            int to = next < 0 ? size : Math.min(size, next);
+            for (int start = from; start < to; start += batchSize) {
+                ranges.add(new int[] { start, Math.min(batchSize, to - start) });
+            }
+            from = positions.nextClearBit(to);
+        }
+        return ranges;
+    }
+
+    // Claims a range before it is sent and returns once the claim is on disk; false if
+    // any of it is already claimed
+    boolean claim(String channelName, int sequence, int from, int count) throws IOException {
+        long end;
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            BitSet positions = positions(claimed, channelName, sequence);
+            if (anySet(positions, from, count)) {
+                return false;
+            }
+            positions.set(from, from + count);
+            end = append(CLAIM, channelName, sequence, from, count);
+        }
+        sync(end);
+        return true;
+    }
+
+    synchronized void sent(String channelName, int sequence, int from, int count) throws IOException {
+        if (!closed) {
+            positions(sent, channelName, sequence).set(from, from + count);
+            append(SENT, channelName, sequence, from, count);
+        }
+    }
+
+    // The provider did not take the range, so a later attempt may claim it again
+    synchronized void release(String channelName, int sequence, int from, int count) throws IOException {
+        if (!closed) {
+            positions(claimed, channelName, sequence).clear(from, from + count);
+            append(RELEASED, channelName, sequence, from, count);
+        }
+    }
+
+    // Records a chunk as dispatched on every channel and returns once that is on disk;
+    // true if it was the last chunk of the draw not yet done
+    boolean chunkDone(int sequence, int drawChunkCount) throws IOException {
+        long end;
+        boolean completes;
+        synchronized (this) {
+            if (closed || isComplete()) {
+                return false;
+            }
+            doneChunks.set(sequence);
+            chunkCount = drawChunkCount;
+            completes = isComplete();
+            end = append(CHUNK_DONE, "", sequence, 0, drawChunkCount);
+        }
+        sync(end);
+        return completes;
+    }
+
+    synchronized boolean isComplete() {
+        return chunkCount >= 0 && doneChunks.cardinality() >= chunkCount;
+    }
+
+    // Recipients claimed on a channel, and of those the ones never confirmed sent
+    synchronized long claimedCount(String channelName) {
+        return count(claimed.get(channelName));
+    }
+
+    synchronized long inDoubtCount(String channelName) {
+        return count(claimed.get(channelName)) - count(sent.get(channelName));
+    }
+
+    synchronized List<String> channelNames() {
+        return new ArrayList<>(claimed.keySet());
+    }
+
+    void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                writeBuffer();
+            }
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private long append(byte type, String channelName, int sequence, int from, int count) throws IOException {
+        byte[] name = channelName.getBytes(StandardCharsets.UTF_8);
+        if (buffer.remaining() < 14 + name.length) {
+            writeBuffer();
+        }
+        buffer.put(type).put((byte) name.length).put(name).putInt(sequence).putInt(from).putInt(count);
+        return written + buffer.position();
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, written);
+        }
+        buffer.clear();
+    }
+
+    private void sync(long end) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= end) {
+                return;
+            }
+            long upTo;
+            synchronized (this) {
+                writeBuffer();
+                upTo = written;
+            }
+            channel.force(false);
+            synced = upTo;
+        }
+    }
+
+    // Rebuilds the bitmaps from the file and cuts off a record torn by a crash; a torn
+    // CLAIM was never forced, so its call was never made
+    private void replay() throws IOException {
+        long size = channel.size();
+        ByteBuffer in = ByteBuffer.allocate((int) size);
+        while (in.hasRemaining()) {
+            if (channel.read(in, in.position()) < 0) {
+                break;
+            }
+        }
+        in.flip();
+        long valid = 0;
+        while (in.remaining() >= 2) {
+            byte type = in.get();
+            int nameLength = in.get() & 0xff;
+            if (in.remaining() < nameLength + 12 || type < CLAIM || type > CHUNK_DONE) {
+                break;
+            }
+            byte[] name = new byte[nameLength];
+            in.get(name);
+            String channelName = new String(name, StandardCharsets.UTF_8);
+            int sequence = in.getInt();
+            int from = in.getInt();
+            int count = in.getInt();
+            if (type == CHUNK_DONE) {
+                doneChunks.set(sequence);
+                chunkCount = count;
+            } else if (type == CLAIM) {
+                positions(claimed, channelName, sequence).set(from, from + count);
+            } else if (type == SENT) {
+                positions(sent, channelName, sequence).set(from, from + count);
+            } else {
+                positions(claimed, channelName, sequence).clear(from, from + count);
+            }
+            valid = in.position();
+        }
+        if (valid < size) {
+            System.err.println("Progress log of draw " + drawId + " ends in a torn record, truncating "
+                    + (size - valid) + " bytes");
+            channel.truncate(valid);
+        }
+        written = valid;
+        synced = valid;
+    }
+
+    private static BitSet positions(Map<String, Map<Integer, BitSet>> byChannel, String channelName,
+            int sequence) {
+        return byChannel.computeIfAbsent(channelName, name -> new TreeMap<>())
+                .computeIfAbsent(sequence, s -> new BitSet());
+    }
+
+    private static long count(Map<Integer, BitSet> byChunk) {
+        long total = 0;
+        if (byChunk != null) {
+            for (BitSet positions : byChunk.values()) {
+                total += positions.cardinality();
+            }
+        }
+        return total;
+    }
+
+    private static boolean anySet(BitSet bits, int from, int count) {
+        int next = bits.nextSetBit(from);
+        return next >= 0 && next < from + count;
+    }
+}
@@ -0,0 +1,401 @@
+package com.ipo.app.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.ipo.app.channel.NotificationChannel;
+import com.ipo.app.channel.NotificationDeliveryException;
+import com.ipo.app.dto.NotificationBatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+// Sends allotment notices on every NotificationChannel. Each channel has its own lane:
+// a bounded queue of provider-sized batches, a TokenBucket at the channel's rate and
+// as many workers as the channel allows calls in flight, so a slow or throttled
+// provider never holds up the others. dispatch() returns once every batch of a chunk
+// has been sent or given up, so the JMS consumer runs at the rate the providers accept
+// and a chunk is only acknowledged when it is done. Each call is claimed in the draw's
+// NotificationProgressLog first: a chunk redelivered after a crash, or a draw published
+// again, only reaches recipients not claimed before. A failed call is retried with
+// exponential backoff and jitter up to max-attempts, then dropped.
+@Service
+public class NotificationDispatcher implements SmartLifecycle {
+
+    // How soon a retry that found its lane's queue full tries again
+    private static final long REQUEUE_INTERVAL_MS = 100;
+
+    @Autowired
+    private List<NotificationChannel> channels;
+
+    @Autowired
+    private NotificationProgressLog progressLog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private Environment environment;
+
+    // Batches queued per channel
+    @Value("${notification.dispatch.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${notification.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.dispatch.initial-backoff-ms:500}")
+    private long initialBackoffMs;
+
+    @Value("${notification.dispatch.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    // How long stop() waits for the lanes to drain
+    @Value("${notification.dispatch.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    private final List<Lane> lanes = new ArrayList<>();
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void init() {
+        for (NotificationChannel channel : channels) {
+            lanes.add(new Lane(channel));
+            System.out.println("Notification channel " + channel.getName() + ": " + channel.getBatchSize()
+                    + " per call, " + channel.getConcurrency() + " calls in flight, "
+                    + (channel.getRatePerSecond() > 0 ? channel.getRatePerSecond() + "/s" : "no rate limit"));
+        }
+    }
+
+    // Sends the notice for one chunk of an allotment result on every channel, in the
+    // channel's batch size, to the recipients not yet claimed on it. Blocks while a
+    // channel's queue is full and returns when every batch has been sent or given up,
+    // after recording the chunk as done in the draw's progress file
+    public void dispatch(String ipoId, String drawId, int sequence, int chunkCount, boolean winners,
+            List<String> applicationIds) throws InterruptedException {
+        DrawProgress progress = progressLog.acquire(drawId);
+        try {
+            dispatch(new Chunk(progress, sequence), ipoId, drawId, winners, applicationIds);
+            try {
+                progressLog.chunkDone(progress, sequence, chunkCount);
+            } catch (IOException e) {
+                // The chunk is still sent; the draw's progress is then closed once it is idle
+                System.err.println("Cannot record chunk " + sequence + " of draw " + drawId + " as done: "
+                        + e.getMessage());
+            }
+        } finally {
+            progressLog.release(progress);
+        }
+    }
+
+    private void dispatch(Chunk chunk, String ipoId, String drawId, boolean winners, List<String> applicationIds)
+            throws InterruptedException {
+        int sequence = chunk.sequence;
+        for (Lane lane : lanes) {
+            List<int[]> ranges = chunk.progress.unclaimedRanges(lane.channel.getName(), sequence,
+                    applicationIds.size(), Math.max(1, lane.channel.getBatchSize()));
+            int unclaimed = 0;
+            for (int[] range : ranges) {
+                List<String> recipients = List.copyOf(applicationIds.subList(range[0], range[0] + range[1]));
+                chunk.pending.incrementAndGet();
+                lane.put(new Delivery(new NotificationBatch(ipoId, drawId, winners, recipients), chunk, range[0], 1));
+                unclaimed += range[1];
+            }
+            lane.skipped.increment(applicationIds.size() - unclaimed);
+        }
+        chunk.finish();
+        // Batches given up because of a shutdown were released, so the chunk must not be
+        // acknowledged then either: its redelivery sends them
+        boolean done = false;
+        while (running && !done) {
+            done = chunk.done.await(100, TimeUnit.MILLISECONDS);
+        }
+        if (!running) {
+            throw new IllegalStateException("Notification dispatcher stopped before chunk " + sequence
+                    + " of draw " + drawId + " was sent");
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Lane lane : lanes) {
+            lane.start();
+        }
+    }
+
+    // Stops taking notices and lets the workers send what is already queued; retries
+    // still waiting for their backoff are given up until their chunk is redelivered
+    @Override
+    public void stop() {
+        running = false;
+        List<Runnable> pendingRetries = retryScheduler.shutdownNow();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        for (Lane lane : lanes) {
+            try {
+                if (!lane.finished.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    System.err.println("Notification channel " + lane.channel.getName() + " stopped with "
+                            + lane.queue.size() + " batches unsent");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!pendingRetries.isEmpty()) {
+            System.err.println("Notification dispatcher stopped with " + pendingRetries.size()
+                    + " batches waiting for a retry");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Below the JMS listener registry's phase: the listeners stop first, so no chunk is
+    // dispatched into lanes that have stopped taking work
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 1024;
+    }
+
+    private TaskExecutor workerExecutor(String prefix) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor(prefix);
+        }
+        return new SimpleAsyncTaskExecutor(prefix);
+    }
+
+    // Batches of one chunk still being sent, plus one held by dispatch() while it queues them
+    private static class Chunk {
+        private final DrawProgress progress;
+        private final int sequence;
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private Chunk(DrawProgress progress, int sequence) {
+            this.progress = progress;
+            this.sequence = sequence;
+        }
+
+        private void finish() {
+            if (pending.decrementAndGet() == 0) {
+                done.countDown();
+            }
+        }
+    }
+
+    private static class Delivery {
+        private final NotificationBatch batch;
+        private final Chunk chunk;
+        // Position of the batch's first recipient in the chunk
+        private final int from;
+        private final int attempt;
+
+        private Delivery(NotificationBatch batch, Chunk chunk, int from, int attempt) {
+            this.batch = batch;
+            this.chunk = chunk;
+            this.from = from;
+            this.attempt = attempt;
+        }
+    }
+
+    private class Lane {
+        private final NotificationChannel channel;
+        private final BlockingQueue<Delivery> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final TokenBucket bucket;
+        private final int workers;
+        private final CountDownLatch finished;
+
+        private final Counter delivered;
+        private final Counter failed;
+        private final Counter skipped;
+        private final Counter retries;
+        private final Timer calls;
+        private final Timer claims;
+
+        private Lane(NotificationChannel channel) {
+            this.channel = channel;
+            this.bucket = new TokenBucket(channel.getRatePerSecond(), channel.getBurst());
+            this.workers = Math.max(1, channel.getConcurrency());
+            this.finished = new CountDownLatch(workers);
+            String name = channel.getName();
+            delivered = recipients(name, "delivered");
+            failed = recipients(name, "failed");
+            skipped = recipients(name, "skipped");
+            retries = Counter.builder("ipo.notification.retries").tag("channel", name)
+                    .description("Provider calls repeated after a failure")
+                    .register(meterRegistry);
+            calls = Timer.builder("ipo.notification.provider.calls").tag("channel", name)
+                    .register(meterRegistry);
+            claims = Timer.builder("ipo.notification.progress.claims").tag("channel", name)
+                    .description("Time to make a batch's claim durable before its provider call")
+                    .register(meterRegistry);
+            Gauge.builder("ipo.notification.queue.depth", queue, BlockingQueue::size).tag("channel", name)
+                    .description("Batches waiting for a worker")
+                    .register(meterRegistry);
+        }
+
+        private Counter recipients(String channel, String outcome) {
+            return Counter.builder("ipo.notification.recipients").tag("channel", channel).tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        private void start() {
+            TaskExecutor executor = workerExecutor("notification-" + channel.getName() + "-");
+            for (int i = 0; i < workers; i++) {
+                executor.execute(this::work);
+            }
+        }
+
+        private void put(Delivery delivery) throws InterruptedException {
+            while (!queue.offer(delivery, 100, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    throw new IllegalStateException("Notification dispatcher is stopped");
+                }
+            }
+        }
+
+        private void work() {
+            try {
+                while (running || !queue.isEmpty()) {
+                    Delivery delivery = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (delivery == null) {
+                        continue;
+                    }
+                    bucket.acquire(delivery.batch.size());
+                    send(delivery);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        private void send(Delivery delivery) {
+            NotificationBatch batch = delivery.batch;
+            DrawProgress progress = delivery.chunk.progress;
+            String name = channel.getName();
+            int sequence = delivery.chunk.sequence;
+            long start = System.nanoTime();
+            try {
+                if (!progress.claim(name, sequence, delivery.from, batch.size())) {
+                    skipped.increment(batch.size());
+                    delivery.chunk.finish();
+                    return;
+                }
+            } catch (IOException e) {
+                // No call without a durable claim
+                retryOrDrop(delivery, true, "Cannot record progress: " + e.getMessage());
+                return;
+            } finally {
+                claims.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+
+            start = System.nanoTime();
+            try {
+                channel.send(batch);
+            } catch (NotificationDeliveryException e) {
+                release(delivery);
+                retryOrDrop(delivery, e.isRetryable(), e.getMessage());
+                return;
+            } catch (RuntimeException e) {
+                release(delivery);
+                retryOrDrop(delivery, true, String.valueOf(e.getMessage()));
+                return;
+            } finally {
+                calls.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            delivered.increment(batch.size());
+            try {
+                progress.sent(name, sequence, delivery.from, batch.size());
+            } catch (IOException e) {
+                // The claim already keeps the batch from being sent again
+                System.err.println("Cannot record " + name + " batch of draw " + batch.getDrawId() + " as sent: "
+                        + e.getMessage());
+            }
+            delivery.chunk.finish();
+        }
+
+        private void release(Delivery delivery) {
+            try {
+                delivery.chunk.progress.release(channel.getName(), delivery.chunk.sequence, delivery.from,
+                        delivery.batch.size());
+            } catch (IOException e) {
+                // The range stays claimed and is not sent again after a restart
+                System.err.println("Cannot release " + channel.getName() + " batch of draw "
+                        + delivery.batch.getDrawId() + ": " + e.getMessage());
+            }
+        }
+
+        private void retryOrDrop(Delivery delivery, boolean retryable, String error) {
+            NotificationBatch batch = delivery.batch;
+            if (!retryable || delivery.attempt >= maxAttempts || !running) {
+                failed.increment(batch.size());
+                System.err.println("Dropping " + channel.getName() + " notice for IPO " + batch.getIpoId() + " to "
+                        + batch.size() + " users after " + delivery.attempt + " attempts: " + error);
+                delivery.chunk.finish();
+                return;
+            }
+            // Exponential backoff with jitter, so batches failed together do not retry together
+            long backoffMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(delivery.attempt - 1, 20));
+            long delayMs = backoffMs / 2 + ThreadLocalRandom.current().nextLong(backoffMs / 2 + 1);
+            retries.increment();
+            Delivery next = new Delivery(batch, delivery.chunk, delivery.from, delivery.attempt + 1);
+            retryScheduler.schedule(() -> requeue(next), delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        // Runs on the retry scheduler, which all lanes share, so it never waits for room:
+        // while the queue is full the retry is tried again REQUEUE_INTERVAL_MS later,
+        // leaving the scheduler free for the other lanes' retries
+        private void requeue(Delivery delivery) {
+            if (queue.offer(delivery)) {
+                return;
+            }
+            if (running) {
+                try {
+                    retryScheduler.schedule(() -> requeue(delivery), REQUEUE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // Stopped meanwhile
+                }
+            }
+            failed.increment(delivery.batch.size());
+            delivery.chunk.finish();
+        }
+    }
+}
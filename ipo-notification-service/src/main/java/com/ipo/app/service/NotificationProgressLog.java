@@ -0,0 +1,238 @@
+package com.ipo.app.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// One DrawProgress file per draw in notification.progress.directory. A draw's file is
+// opened, and replayed if it exists, on its first chunk. It is closed once its file
+// records every chunk of the draw as done, which holds across restarts and redeliveries,
+// or after idle-timeout-ms without a chunk in dispatch, which covers draws whose chunks
+// went partly to other instances. A draw published again later, or a chunk arriving
+// after an idle close, reopens the file and only reaches recipients that were not
+// notified. A completed draw's file is renamed to *.complete, and only those files are
+// deleted at startup once older than retention-hours: files of draws that never completed
+// are kept, so a draw redelivered however late still skips the recipients it reached.
+// The directory belongs to one instance: it is locked at startup, and a second instance
+// pointed at it fails to start instead of writing the same files.
+@Service
+public class NotificationProgressLog {
+
+    private static final String SUFFIX = ".progress";
+    private static final String COMPLETE_SUFFIX = ".complete";
+    private static final String LOCK_FILE = ".lock";
+
+    @Value("${notification.progress.directory:./data/notifications}")
+    private String directory;
+
+    @Value("${notification.progress.retention-hours:168}")
+    private long retentionHours;
+
+    @Value("${notification.progress.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    private Path root;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private final Map<String, OpenDraw> open = new HashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(directory).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        lockDirectory();
+        Instant cutoff = Instant.now().minus(Duration.ofHours(retentionHours));
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*" + COMPLETE_SUFFIX)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.delete(file);
+                    deleted++;
+                }
+            }
+        }
+        int incomplete = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    incomplete++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            System.out.println("Deleted " + deleted + " completed notification progress files older than "
+                    + retentionHours + " hours");
+        }
+        if (incomplete > 0) {
+            System.err.println("Keeping " + incomplete + " progress files of incomplete draws older than "
+                    + retentionHours + " hours in " + root + "; delete them by hand once their draws are settled");
+        }
+    }
+
+    // Held until shutdown; the OS drops it if the process dies, so a restart takes it over
+    private void lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(root.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by this JVM already, which is just as much another instance
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Notification progress directory " + root
+                    + " is in use by another instance; give each instance its own directory");
+        }
+    }
+
+    // The draw's progress, replaying its file the first time it is opened; held open until
+    // every caller has handed it back with release()
+    synchronized DrawProgress acquire(String drawId) {
+        OpenDraw draw = open.get(drawId);
+        if (draw == null) {
+            draw = new OpenDraw(openFile(drawId));
+            open.put(drawId, draw);
+        }
+        draw.users++;
+        return draw.progress;
+    }
+
+    synchronized void release(DrawProgress progress) {
+        OpenDraw draw = open.get(progress.getDrawId());
+        if (draw != null && draw.progress == progress) {
+            draw.users--;
+            draw.idleSince = System.nanoTime();
+        }
+    }
+
+    // Records a chunk as dispatched on every channel and closes the draw once its file
+    // holds every chunk of it
+    void chunkDone(DrawProgress progress, int sequence, int chunkCount) throws IOException {
+        if (!progress.chunkDone(sequence, chunkCount)) {
+            return;
+        }
+        String drawId = progress.getDrawId();
+        // Under the lock, so the draw cannot be reopened from its old name meanwhile
+        synchronized (this) {
+            OpenDraw draw = open.get(drawId);
+            if (draw != null && draw.progress == progress) {
+                open.remove(drawId);
+            }
+            close(progress);
+            Path file = root.resolve(fileName(drawId, SUFFIX));
+            if (Files.exists(file)) {
+                Files.move(file, root.resolve(fileName(drawId, COMPLETE_SUFFIX)), StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        System.out.println("Notification of draw " + drawId + " complete (" + chunkCount + " chunks)");
+    }
+
+    // Frees the file handle and bitmaps of draws no chunk has used for idle-timeout-ms
+    @Scheduled(fixedDelayString = "${notification.progress.idle-sweep-interval-ms:60000}",
+            initialDelayString = "${notification.progress.idle-sweep-interval-ms:60000}")
+    public void closeIdle() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        List<DrawProgress> idle = new ArrayList<>();
+        synchronized (this) {
+            Iterator<OpenDraw> draws = open.values().iterator();
+            while (draws.hasNext()) {
+                OpenDraw draw = draws.next();
+                if (draw.users == 0 && draw.idleSince - cutoff < 0) {
+                    draws.remove();
+                    idle.add(draw.progress);
+                }
+            }
+        }
+        for (DrawProgress progress : idle) {
+            System.out.println("Closing notification progress of idle draw " + progress.getDrawId());
+            close(progress);
+        }
+    }
+
+    private DrawProgress openFile(String drawId) {
+        DrawProgress progress;
+        try {
+            // A completed draw published again keeps its file under the completed name
+            Path file = root.resolve(fileName(drawId, COMPLETE_SUFFIX));
+            if (!Files.exists(file)) {
+                file = root.resolve(fileName(drawId, SUFFIX));
+            }
+            progress = new DrawProgress(drawId, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open notification progress of draw " + drawId, e);
+        }
+        for (String channelName : progress.channelNames()) {
+            System.out.println("Resuming notification of draw " + drawId + " on " + channelName + ": "
+                    + progress.claimedCount(channelName) + " recipients already notified, "
+                    + progress.inDoubtCount(channelName) + " of them in doubt");
+        }
+        return progress;
+    }
+
+    @PreDestroy
+    public synchronized void closeAll() {
+        open.values().forEach(draw -> close(draw.progress));
+        open.clear();
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Releasing notification progress directory " + root + " failed: " + e.getMessage());
+        }
+    }
+
+    private void close(DrawProgress progress) {
+        if (progress == null) {
+            return;
+        }
+        try {
+            progress.close();
+        } catch (IOException e) {
+            System.err.println("Closing notification progress of draw " + progress.getDrawId() + " failed: "
+                    + e.getMessage());
+        }
+    }
+
+    private static class OpenDraw {
+        private final DrawProgress progress;
+        // Chunks in dispatch holding the draw, and since when it has had none
+        private int users;
+        private long idleSince = System.nanoTime();
+
+        private OpenDraw(DrawProgress progress) {
+            this.progress = progress;
+        }
+    }
+
+    // Draw ids are generated, but keep them to a plain file name in any case
+    private static String fileName(String drawId, String suffix) {
+        return drawId.replaceAll("[^A-Za-z0-9._-]", "_") + suffix;
+    }
+}
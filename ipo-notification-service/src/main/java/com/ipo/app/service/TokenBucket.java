@@ -0,0 +1,40 @@
+package com.ipo.app.service;
+
+import java.util.concurrent.TimeUnit;
+
+// Rate limit shared by a channel's workers: permits refill at ratePerSecond up to burst.
+// acquire() reserves its permits at once, running into debt if need be, and sleeps
+// until the debt is repaid, so callers are served in arrival order and a request larger
+// than the burst still goes through at the configured rate.
+public class TokenBucket {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private double permits;
+    private long refilledAt;
+
+    // ratePerSecond <= 0 means unlimited
+    public TokenBucket(double ratePerSecond, int burst) {
+        this.permitsPerNano = ratePerSecond / 1e9;
+        this.burst = Math.max(1, burst);
+        this.permits = this.burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    public void acquire(int count) throws InterruptedException {
+        if (permitsPerNano <= 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            permits = Math.min(burst, permits + (now - refilledAt) * permitsPerNano);
+            refilledAt = now;
+            permits -= count;
+            waitNanos = permits >= 0 ? 0 : (long) (-permits / permitsPerNano);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.ipo.app.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Every test closes or abandons a DrawProgress and replays its file into a new one, the
+// way a restart does: what was claimed must never be handed out again
+class DrawProgressTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void claimedRangesAreNotHandedOutAgainAfterAReplay() throws IOException {
+        Path file = directory.resolve("draw-1.progress");
+        DrawProgress progress = new DrawProgress("draw-1", file);
+        assertTrue(progress.claim("email", 0, 0, 100));
+        progress.sent("email", 0, 0, 100);
+        assertTrue(progress.claim("email", 0, 100, 100));
+        progress.close();
+
+        DrawProgress replayed = new DrawProgress("draw-1", file);
+
+        assertEquals(200, replayed.claimedCount("email"));
+        // The second claim was never confirmed: its call may or may not have been made
+        assertEquals(100, replayed.inDoubtCount("email"));
+        assertRanges(List.of(new int[] { 200, 100 }, new int[] { 300, 50 }),
+                replayed.unclaimedRanges("email", 0, 350, 100));
+        assertFalse(replayed.claim("email", 0, 150, 10));
+        // Other channels and chunks are untouched
+        assertRanges(List.of(new int[] { 0, 100 }), replayed.unclaimedRanges("sms", 0, 100, 100));
+        assertRanges(List.of(new int[] { 0, 100 }), replayed.unclaimedRanges("email", 1, 100, 100));
+        replayed.close();
+    }
+
+    @Test
+    void claimsAreOnDiskBeforeClaimReturns() throws IOException {
+        Path file = directory.resolve("draw-1.progress");
+        DrawProgress progress = new DrawProgress("draw-1", file);
+        assertTrue(progress.claim("email", 0, 0, 10));
+
+        // Replayed while the first instance still has the file open, as after a kill -9
+        DrawProgress replayed = new DrawProgress("draw-1", file);
+
+        assertEquals(10, replayed.claimedCount("email"));
+        replayed.close();
+        progress.close();
+    }
+
+    @Test
+    void releasedRangesCanBeClaimedAgain() throws IOException {
+        Path file = directory.resolve("draw-1.progress");
+        DrawProgress progress = new DrawProgress("draw-1", file);
+        assertTrue(progress.claim("sms", 2, 0, 50));
+        progress.release("sms", 2, 0, 50);
+        progress.close();
+
+        DrawProgress replayed = new DrawProgress("draw-1", file);
+
+        assertEquals(0, replayed.claimedCount("sms"));
+        assertTrue(replayed.claim("sms", 2, 0, 50));
+        replayed.close();
+    }
+
+    @Test
+    void tornRecordIsCutOffAndTheFileStaysAppendable() throws IOException {
+        Path file = directory.resolve("draw-1.progress");
+        DrawProgress progress = new DrawProgress("draw-1", file);
+        assertTrue(progress.claim("email", 0, 0, 100));
+        progress.close();
+        long intact = Files.size(file);
+        // The first bytes of a CLAIM record, as a crash mid-write leaves them
+        Files.write(file, new byte[] { 1, 5, 'e', 'm', 'a' }, StandardOpenOption.APPEND);
+
+        DrawProgress replayed = new DrawProgress("draw-1", file);
+
+        assertEquals(intact, Files.size(file));
+        assertEquals(100, replayed.claimedCount("email"));
+        assertTrue(replayed.claim("email", 0, 100, 100));
+        replayed.close();
+
+        DrawProgress again = new DrawProgress("draw-1", file);
+        assertEquals(200, again.claimedCount("email"));
+        again.close();
+    }
+
+    @Test
+    void unknownRecordTypeEndsTheReplay() throws IOException {
+        Path file = directory.resolve("draw-1.progress");
+        DrawProgress progress = new DrawProgress("draw-1", file);
+        assertTrue(progress.claim("email", 0, 0, 10));
+        progress.close();
+        long intact = Files.size(file);
+        Files.write(file, new byte[] { 9, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 }, StandardOpenOption.APPEND);
+
+        DrawProgress replayed = new DrawProgress("draw-1", file);
+
+        assertEquals(intact, Files.size(file));
+        assertEquals(10, replayed.claimedCount("email"));
+        replayed.close();
+    }
+
+    @Test
+    void completionIsRecordedAndSurvivesAReplay() throws IOException {
+        Path file = directory.resolve("draw-1.progress");
+        DrawProgress progress = new DrawProgress("draw-1", file);
+
+        assertFalse(progress.chunkDone(1, 3));
+        // A redelivered chunk does not count twice
+        assertFalse(progress.chunkDone(1, 3));
+        assertFalse(progress.chunkDone(0, 3));
+        progress.close();
+
+        DrawProgress replayed = new DrawProgress("draw-1", file);
+        assertFalse(replayed.isComplete());
+        assertTrue(replayed.chunkDone(2, 3));
+        assertTrue(replayed.isComplete());
+        replayed.close();
+
+        DrawProgress completed = new DrawProgress("draw-1", file);
+        assertTrue(completed.isComplete());
+        assertFalse(completed.chunkDone(2, 3));
+        completed.close();
+    }
+
+    @Test
+    void nothingIsClaimedOnceClosed() throws IOException {
+        DrawProgress progress = new DrawProgress("draw-1", directory.resolve("draw-1.progress"));
+        progress.close();
+
+        assertFalse(progress.claim("email", 0, 0, 10));
+        assertFalse(progress.chunkDone(0, 1));
+    }
+
+    private static void assertRanges(List<int[]> expected, List<int[]> actual) {
+        assertEquals(expected.size(), actual.size(), "ranges");
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i), "range " + i);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.ipo.app.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationProgressLogTest {
+
+    @TempDir
+    Path directory;
+
+    private NotificationProgressLog log;
+
+    @AfterEach
+    void closeLog() {
+        if (log != null) {
+            log.closeAll();
+        }
+    }
+
+    @Test
+    void secondInstanceOnTheSameDirectoryFailsToStart() throws IOException {
+        log = open();
+
+        assertThrows(IllegalStateException.class, this::open);
+
+        // Once the first one has shut down, a restart takes the directory over
+        log.closeAll();
+        log = open();
+    }
+
+    @Test
+    void completedDrawIsRenamedAndStaysCompleteWhenPublishedAgain() throws IOException {
+        log = open();
+        DrawProgress progress = log.acquire("draw-1");
+        assertTrue(progress.claim("email", 0, 0, 10));
+        log.chunkDone(progress, 0, 1);
+        log.release(progress);
+
+        assertFalse(Files.exists(directory.resolve("draw-1.progress")));
+        assertTrue(Files.exists(directory.resolve("draw-1.complete")));
+
+        DrawProgress again = log.acquire("draw-1");
+        assertTrue(again.isComplete());
+        assertEquals(10, again.claimedCount("email"));
+        log.release(again);
+    }
+
+    @Test
+    void incompleteDrawIsResumedAfterARestart() throws IOException {
+        log = open();
+        DrawProgress progress = log.acquire("draw-1");
+        assertTrue(progress.claim("sms", 0, 0, 10));
+        progress.sent("sms", 0, 0, 10);
+        log.chunkDone(progress, 0, 2);
+        log.release(progress);
+        log.closeAll();
+
+        log = open();
+        DrawProgress resumed = log.acquire("draw-1");
+        assertFalse(resumed.isComplete());
+        assertEquals(10, resumed.claimedCount("sms"));
+        assertEquals(0, resumed.inDoubtCount("sms"));
+        log.release(resumed);
+    }
+
+    private NotificationProgressLog open() throws IOException {
+        NotificationProgressLog progressLog = new NotificationProgressLog();
+        ReflectionTestUtils.setField(progressLog, "directory", directory.toString());
+        ReflectionTestUtils.setField(progressLog, "retentionHours", 168L);
+        ReflectionTestUtils.setField(progressLog, "idleTimeoutMs", 600_000L);
+        progressLog.init();
+        return progressLog;
+    }
+}
@@ -0,0 +1,75 @@
+package com.ipo.app.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Wall-clock bounds are loose on the slow side, so a busy build machine cannot fail them;
+// the fast side is what shows a caller was held back
+class TokenBucketTest {
+
+    @Test
+    void unlimitedBucketNeverWaits() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(0, 1);
+
+        long elapsedMs = timeMs(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                bucket.acquire(1_000);
+            }
+        });
+
+        assertTrue(elapsedMs < 500, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void burstIsServedAtOnceAndTheRestAtTheRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 10);
+
+        long burstMs = timeMs(() -> bucket.acquire(10));
+        // 5 permits at 100/s once the burst is spent
+        long nextMs = timeMs(() -> bucket.acquire(5));
+
+        assertTrue(burstMs < 40, "burst took " + burstMs + " ms");
+        assertTrue(nextMs >= 40, "waited only " + nextMs + " ms");
+        assertTrue(nextMs < 1_000, "waited " + nextMs + " ms");
+    }
+
+    @Test
+    void requestLargerThanTheBurstGoesThroughAtTheRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 10);
+
+        // Runs 20 permits into debt and sleeps until they have refilled
+        long largeMs = timeMs(() -> bucket.acquire(30));
+        // By then the debt is repaid, so the next caller only waits for its own permit
+        long nextMs = timeMs(() -> bucket.acquire(1));
+
+        assertTrue(largeMs >= 180 && largeMs < 2_000, "large request took " + largeMs + " ms");
+        assertTrue(nextMs < 100, "waited " + nextMs + " ms");
+    }
+
+    @Test
+    void idleTimeRefillsNoMoreThanTheBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 5);
+        bucket.acquire(5);
+        // Long enough to refill 20 permits, but only 5 are kept
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        long burstMs = timeMs(() -> bucket.acquire(5));
+        long nextMs = timeMs(() -> bucket.acquire(5));
+
+        assertTrue(burstMs < 40, "refilled burst took " + burstMs + " ms");
+        assertTrue(nextMs >= 40, "waited only " + nextMs + " ms");
+    }
+
+    private static long timeMs(Acquisition acquisition) throws InterruptedException {
+        long start = System.nanoTime();
+        acquisition.run();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private interface Acquisition {
+        void run() throws InterruptedException;
+    }
+}
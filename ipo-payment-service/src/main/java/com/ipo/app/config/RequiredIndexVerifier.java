@@ -0,0 +1,35 @@
+package com.ipo.app.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Fails startup when a unique index the writers depend on is missing or invalid, instead
+// of letting ON CONFLICT statements fail (or duplicates pile up) at runtime. Runs once
+// every bean, schema.sql included, is initialized and before the JMS listeners start.
+@Component
+public class RequiredIndexVerifier implements SmartInitializingSingleton {
+
+    static final List<String> UNIQUE_INDEXES = List.of("uk_mandates_application_id", "uk_webhook_inbox_dedup_key");
+
+    private static final String UNIQUE_INDEX_SQL = "SELECT count(*) FROM pg_index i "
+            + "JOIN pg_class c ON c.oid = i.indexrelid "
+            + "WHERE c.relname = ? AND pg_table_is_visible(c.oid) AND i.indisunique AND i.indisvalid";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String index : UNIQUE_INDEXES) {
+            Integer found = jdbcTemplate.queryForObject(UNIQUE_INDEX_SQL, Integer.class, index);
+            if (found == null || found == 0) {
+                throw new IllegalStateException("Unique index " + index + " is missing or invalid; "
+                        + "schema.sql creates it unless spring.sql.init.mode is never");
+            }
+        }
+    }
+}
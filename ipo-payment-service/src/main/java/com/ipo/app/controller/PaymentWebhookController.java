@@ -1,54 +1,65 @@
 package com.ipo.app.controller;
 
-import com.ipo.app.entity.Mandate;
-import com.ipo.app.repository.MandateRepository;
-import com.ipo.events.MandateApprovedEvent;
-import com.ipo.events.MandateFailedEvent;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.ipo.app.dto.WebhookPayload;
+import com.ipo.app.entity.MandateStatus;
+import com.ipo.app.service.WebhookInbox;
+import com.ipo.app.service.WebhookRejectedException;
+import com.ipo.app.service.WebhookSignatureVerifier;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jms.core.JmsTemplate;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
-import java.util.Optional;
-
+// Acknowledges the bank's status webhook once it is stored: the payload is checked and
+// handed to WebhookInbox, and the response waits for the group commit holding it.
+// WebhookRelay then applies it and queues the outcome events
 @RestController
 @RequestMapping("/webhook")
 public class PaymentWebhookController {
 
     @Autowired
-    private MandateRepository mandateRepository;
+    private WebhookSignatureVerifier signatureVerifier;
 
     @Autowired
-    private JmsTemplate jmsTemplate;
+    private WebhookInbox webhookInbox;
 
     @PostMapping
-    public ResponseEntity<String> handleWebhook(@RequestBody Map<String, Object> payload) {
-        String mandateId = (String) payload.get("mandateId");
-        String status = (String) payload.get("status"); // APPROVED or FAILED
-
-        Optional<Mandate> optionalMandate = mandateRepository.findById(mandateId);
-        if (optionalMandate.isEmpty()) {
-            return ResponseEntity.badRequest().body("Mandate not found");
+    public CompletableFuture<ResponseEntity<String>> handleWebhook(@RequestBody WebhookPayload payload) {
+        if (payload.getMandateId() == null && payload.getApplicationId() == null) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.badRequest().body("mandateId or applicationId required"));
+        }
+        if (MandateStatus.ofBankOutcome(payload.getStatus()) == null) { // APPROVED or FAILED
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Unknown status"));
+        }
+        if (!signatureVerifier.isValid(payload)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Invalid signature"));
         }
 
-        Mandate mandate = optionalMandate.get();
-        mandate.setStatus(status);
-        mandateRepository.save(mandate);
-
-        if ("APPROVED".equals(status)) {
-            MandateApprovedEvent approvedEvent = new MandateApprovedEvent();
-            approvedEvent.setApplicationId(mandate.getApplicationId());
-            approvedEvent.setMandateId(mandateId);
-            jmsTemplate.convertAndSend("mandate.approved.topic", approvedEvent);
-        } else if ("FAILED".equals(status)) {
-            MandateFailedEvent failedEvent = new MandateFailedEvent();
-            failedEvent.setApplicationId(mandate.getApplicationId());
-            failedEvent.setMandateId(mandateId);
-            failedEvent.setReason("Bank rejected");
-            jmsTemplate.convertAndSend("mandate.failed.topic", failedEvent);
+        try {
+            return webhookInbox.submit(payload)
+                    .handle((stored, failure) -> failure == null ? storedResponse(stored)
+                            : rejectedResponse(failure));
+        } catch (WebhookRejectedException e) {
+            return CompletableFuture.completedFuture(rejectedResponse(e));
         }
+    }
+
+    private ResponseEntity<String> storedResponse(boolean stored) {
+        return stored ? ResponseEntity.accepted().body("Webhook accepted")
+                : ResponseEntity.ok("Webhook already received");
+    }
 
-        return ResponseEntity.ok("Webhook processed");
+    // A webhook that could not be stored is not acknowledged: the bank gets a retryable
+    // status and redelivers it, whether it was turned away up front or its group commit failed
+    private ResponseEntity<String> rejectedResponse(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        int status = cause instanceof WebhookRejectedException rejected ? rejected.getReason().getStatus()
+                : WebhookRejectedException.Reason.UNAVAILABLE.getStatus();
+        return ResponseEntity.status(status).header("Retry-After", "1").build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.ipo.app.controller;
+
+import com.ipo.app.entity.SettlementImport;
+import com.ipo.app.service.SettlementImportException;
+import com.ipo.app.service.SettlementImporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Bulk mandate outcomes from the bank's settlement files, which are dropped into
+// payment.settlement.directory and imported by name
+@RestController
+@RequestMapping("/settlements")
+public class SettlementController {
+
+    @Autowired
+    private SettlementImporter settlementImporter;
+
+    // Starts or resumes an import; offset restarts it from a given byte position
+    @PostMapping("/{fileName}/import")
+    public ResponseEntity<?> importFile(@PathVariable String fileName, @RequestParam(required = false) Long offset) {
+        try {
+            return ResponseEntity.accepted().body(settlementImporter.start(fileName, offset));
+        } catch (SettlementImportException e) {
+            return ResponseEntity.status(e.getReason().getStatus()).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{fileName}")
+    public ResponseEntity<SettlementImport> progress(@PathVariable String fileName) {
+        return settlementImporter.progress(fileName)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,11 +1,22 @@
 package com.ipo.app.dto;
 
+// Body of the bank's mandate status webhook. The mandate is identified by mandateId,
+// or by applicationId for banks that only echo our reference
 public class WebhookPayload {
+    private String mandateId;
     private String applicationId;
     private String status;
     private String bankReferenceId;
     private String signature;
 
+    public String getMandateId() {
+        return mandateId;
+    }
+
+    public void setMandateId(String mandateId) {
+        this.mandateId = mandateId;
+    }
+
     public String getApplicationId() {
         return applicationId;
     }
@@ -37,4 +48,14 @@ public String getSignature() {
     public void setSignature(String signature) {
         this.signature = signature;
     }
-}
\ No newline at end of file
+
+    // Identifies the mandate for deduplication, whichever reference the bank sent
+    public String mandateKey() {
+        return mandateId != null ? mandateId : "application:" + applicationId;
+    }
+
+    // One webhook per mandate reference and outcome: a bank retry repeats it exactly
+    public String dedupKey() {
+        return mandateKey() + ":" + status;
+    }
+}
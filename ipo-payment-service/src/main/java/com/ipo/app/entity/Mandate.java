@@ -1,15 +1,21 @@
 package com.ipo.app.entity;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Objects;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "mandates")
+// One mandate per application; MandateBatchWriter relies on the unique index for ON CONFLICT
+@Table(name = "mandates", indexes = @Index(name = "uk_mandates_application_id", columnList = "application_id",
+        unique = true))
 public class Mandate {
 
     @Id
@@ -19,13 +25,31 @@ public class Mandate {
     @Column(name = "application_id")
     private String applicationId;
 
+    // Application details passed on in MandateApprovedEvent; null for mandates created
+    // from events sent before they were included
+    @Column(name = "ipo_id")
+    private String ipoId;
+
+    @Column(name = "investor_id")
+    private String investorId;
+
+    private Integer lots;
+
     private BigDecimal amount;
 
-    private String status;
+    @Enumerated(EnumType.STRING)
+    private MandateStatus status;
 
     @Column(name = "bank_reference_id")
     private String bankReferenceId;
 
+    // Set by the database; rows that predate the column got the time it was added. The
+    // expiry sweep finds old PENDING mandates through idx_mandates_pending_created_at
+    // (schema.sql), a partial index that holds only PENDING rows
+    @Column(name = "created_at", insertable = false, updatable = false,
+            columnDefinition = "timestamp(6) with time zone default now()")
+    private Instant createdAt;
+
     public String getId() {
         return id;
     }
@@ -42,6 +66,30 @@ public void setApplicationId(String applicationId) {
         this.applicationId = applicationId;
     }
 
+    public String getIpoId() {
+        return ipoId;
+    }
+
+    public void setIpoId(String ipoId) {
+        this.ipoId = ipoId;
+    }
+
+    public String getInvestorId() {
+        return investorId;
+    }
+
+    public void setInvestorId(String investorId) {
+        this.investorId = investorId;
+    }
+
+    public Integer getLots() {
+        return lots;
+    }
+
+    public void setLots(Integer lots) {
+        this.lots = lots;
+    }
+
     public BigDecimal getAmount() {
         return amount;
     }
@@ -50,11 +98,11 @@ public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
 
-    public String getStatus() {
+    public MandateStatus getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(MandateStatus status) {
         this.status = status;
     }
 
@@ -66,6 +114,10 @@ public void setBankReferenceId(String bankReferenceId) {
         this.bankReferenceId = bankReferenceId;
     }
 
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -86,8 +138,11 @@ public String toString() {
         return "Mandate{" +
                 "id='" + id + '\'' +
                 ", applicationId='" + applicationId + '\'' +
+                ", ipoId='" + ipoId + '\'' +
+                ", investorId='" + investorId + '\'' +
+                ", lots=" + lots +
                 ", amount=" + amount +
-                ", status='" + status + '\'' +
+                ", status=" + status +
                 ", bankReferenceId='" + bankReferenceId + '\'' +
                 '}';
     }
@@ -0,0 +1,27 @@
+package com.ipo.app.entity;
+
+// Lifecycle of a mandate: created PENDING (or decided at once by the bank), then moved
+// exactly once to a final state by the bank's webhook or settlement file, or by the
+// expiry sweep. Writers enforce this with compare-and-set UPDATEs on status = 'PENDING'
+public enum MandateStatus {
+    PENDING, APPROVED, FAILED, EXPIRED;
+
+    public boolean isFinal() {
+        return this != PENDING;
+    }
+
+    public boolean canBecome(MandateStatus next) {
+        return this == PENDING && next.isFinal();
+    }
+
+    // A bank outcome as sent in webhooks and settlement files: APPROVED or FAILED, else null
+    public static MandateStatus ofBankOutcome(String value) {
+        if ("APPROVED".equals(value)) {
+            return APPROVED;
+        }
+        if ("FAILED".equals(value)) {
+            return FAILED;
+        }
+        return null;
+    }
+}
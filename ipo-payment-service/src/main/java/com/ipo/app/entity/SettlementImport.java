@@ -0,0 +1,140 @@
+package com.ipo.app.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// Progress of one settlement file import. committedOffset is the file position up to
+// which every line has been applied; it is written in the same transaction as the
+// mandate updates of the batch it ends, so an import resumes from there
+@Entity
+@Table(name = "settlement_imports")
+public class SettlementImport {
+
+    @Id
+    @Column(name = "file_name")
+    private String fileName;
+
+    // QUEUED, RUNNING, COMPLETED, FAILED or INTERRUPTED (by shutdown)
+    private String status;
+
+    @Column(name = "file_size")
+    private long fileSize;
+
+    @Column(name = "committed_offset")
+    private long committedOffset;
+
+    // Lines read, and of those: mandates moved out of PENDING, lines naming an unknown
+    // or already decided mandate, and malformed lines
+    private long records;
+
+    private long applied;
+
+    private long stale;
+
+    private long rejected;
+
+    private String error;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public long getCommittedOffset() {
+        return committedOffset;
+    }
+
+    public void setCommittedOffset(long committedOffset) {
+        this.committedOffset = committedOffset;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public void setRecords(long records) {
+        this.records = records;
+    }
+
+    public long getApplied() {
+        return applied;
+    }
+
+    public void setApplied(long applied) {
+        this.applied = applied;
+    }
+
+    public long getStale() {
+        return stale;
+    }
+
+    public void setStale(long stale) {
+        this.stale = stale;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    // Share of the file committed, 0-100
+    public double getPercentComplete() {
+        return fileSize == 0 ? 100 : Math.min(100, committedOffset * 100.0 / fileSize);
+    }
+}
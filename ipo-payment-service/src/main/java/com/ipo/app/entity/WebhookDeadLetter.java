@@ -0,0 +1,140 @@
+package com.ipo.app.entity;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// A webhook WebhookRelay failed to apply max-attempts times, moved here with the last
+// error so it stops holding up the inbox. Rows are inserted by WebhookRelay, not through
+// JPA, and keep the id they had in webhook_inbox; the bank's redelivery is accepted anew.
+@Entity
+@Table(name = "webhook_dead_letters")
+public class WebhookDeadLetter {
+
+    @Id
+    private Long id;
+
+    @Column(name = "dedup_key")
+    private String dedupKey;
+
+    @Column(name = "mandate_id")
+    private String mandateId;
+
+    @Column(name = "application_id")
+    private String applicationId;
+
+    private String status;
+
+    @Column(name = "bank_reference_id")
+    private String bankReferenceId;
+
+    @Column(name = "received_at")
+    private Instant receivedAt;
+
+    @Column(name = "dead_lettered_at")
+    private Instant deadLetteredAt;
+
+    private Integer attempts;
+
+    @Column(columnDefinition = "text")
+    private String error;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDedupKey() {
+        return dedupKey;
+    }
+
+    public void setDedupKey(String dedupKey) {
+        this.dedupKey = dedupKey;
+    }
+
+    public String getMandateId() {
+        return mandateId;
+    }
+
+    public void setMandateId(String mandateId) {
+        this.mandateId = mandateId;
+    }
+
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(String applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getBankReferenceId() {
+        return bankReferenceId;
+    }
+
+    public void setBankReferenceId(String bankReferenceId) {
+        this.bankReferenceId = bankReferenceId;
+    }
+
+    public Instant getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(Instant receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    public Instant getDeadLetteredAt() {
+        return deadLetteredAt;
+    }
+
+    public void setDeadLetteredAt(Instant deadLetteredAt) {
+        this.deadLetteredAt = deadLetteredAt;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        WebhookDeadLetter that = (WebhookDeadLetter) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ipo.app.entity;
+
+import java.time.Instant;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// A bank webhook as acknowledged: the row is committed before the bank gets its 202, so
+// a crash cannot lose it. Rows are inserted by WebhookInbox and applied by WebhookRelay,
+// not through JPA; applied rows are kept for the dedup ttl, so a replay of the same
+// webhook meets the unique dedup_key (schema.sql) instead of being stored twice.
+@Entity
+@Table(name = "webhook_inbox", indexes = @Index(name = "uk_webhook_inbox_dedup_key", columnList = "dedup_key",
+        unique = true))
+public class WebhookInboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The mandate reference and status the webhook carries, see WebhookPayload.dedupKey()
+    @Column(name = "dedup_key", nullable = false)
+    private String dedupKey;
+
+    @Column(name = "mandate_id")
+    private String mandateId;
+
+    @Column(name = "application_id")
+    private String applicationId;
+
+    private String status;
+
+    @Column(name = "bank_reference_id")
+    private String bankReferenceId;
+
+    @Column(name = "received_at")
+    private Instant receivedAt;
+
+    // Null until WebhookRelay has applied the webhook
+    @Column(name = "applied_at")
+    private Instant appliedAt;
+
+    // Failed attempts to apply it; at max-attempts the row moves to webhook_dead_letters
+    @Column(columnDefinition = "integer default 0")
+    private Integer attempts;
+
+    @Column(name = "last_error", columnDefinition = "text")
+    private String lastError;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDedupKey() {
+        return dedupKey;
+    }
+
+    public void setDedupKey(String dedupKey) {
+        this.dedupKey = dedupKey;
+    }
+
+    public String getMandateId() {
+        return mandateId;
+    }
+
+    public void setMandateId(String mandateId) {
+        this.mandateId = mandateId;
+    }
+
+    public String getApplicationId() {
+        return applicationId;
+    }
+
+    public void setApplicationId(String applicationId) {
+        this.applicationId = applicationId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getBankReferenceId() {
+        return bankReferenceId;
+    }
+
+    public void setBankReferenceId(String bankReferenceId) {
+        this.bankReferenceId = bankReferenceId;
+    }
+
+    public Instant getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(Instant receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
+    public Instant getAppliedAt() {
+        return appliedAt;
+    }
+
+    public void setAppliedAt(Instant appliedAt) {
+        this.appliedAt = appliedAt;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        WebhookInboxEntry that = (WebhookInboxEntry) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+}
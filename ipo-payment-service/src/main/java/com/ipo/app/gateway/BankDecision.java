@@ -0,0 +1,32 @@
+package com.ipo.app.gateway;
+
+// The bank's answer to one mandate registration
+public class BankDecision {
+
+    public enum Status {
+        APPROVED, FAILED, PENDING
+    }
+
+    private final Status status;
+    private final String bankReferenceId;
+    private final String reason;
+
+    public BankDecision(Status status, String bankReferenceId, String reason) {
+        this.status = status;
+        this.bankReferenceId = bankReferenceId;
+        this.reason = reason;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getBankReferenceId() {
+        return bankReferenceId;
+    }
+
+    // Why a FAILED mandate was declined; null otherwise
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,13 @@
+package com.ipo.app.gateway;
+
+import java.util.List;
+
+import com.ipo.app.entity.Mandate;
+
+// The bank's mandate API. Implementations register a whole batch of mandates per call
+// and return one decision per mandate, in the same order. A PENDING decision means the
+// bank answers later through the webhook.
+public interface BankGateway {
+
+    List<BankDecision> registerMandates(List<Mandate> mandates);
+}
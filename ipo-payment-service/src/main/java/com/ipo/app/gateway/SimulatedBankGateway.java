@@ -0,0 +1,64 @@
+package com.ipo.app.gateway;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.ipo.app.entity.Mandate;
+
+// Local stand-in for the bank (payment.bank.gateway=simulator, the default). Approves
+// each mandate with probability approval-rate and can hold every call for the latency
+// a real bank API would add: a fixed round trip, a per-mandate cost and random jitter,
+// so load tests see batching pay off the way it would against the bank.
+@Component
+@ConditionalOnProperty(name = "payment.bank.gateway", havingValue = "simulator", matchIfMissing = true)
+public class SimulatedBankGateway implements BankGateway {
+
+    @Value("${payment.bank.simulator.approval-rate:0.5}")
+    private double approvalRate;
+
+    @Value("${payment.bank.simulator.latency-ms:0}")
+    private long latencyMs;
+
+    @Value("${payment.bank.simulator.latency-per-mandate-us:0}")
+    private long latencyPerMandateUs;
+
+    @Value("${payment.bank.simulator.jitter-ms:0}")
+    private long jitterMs;
+
+    @Override
+    public List<BankDecision> registerMandates(List<Mandate> mandates) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        simulateLatency(mandates.size(), random);
+        List<BankDecision> decisions = new ArrayList<>(mandates.size());
+        for (Mandate mandate : mandates) {
+            String bankReferenceId = "BANK_REF_" + mandate.getApplicationId();
+            if (random.nextDouble() < approvalRate) {
+                decisions.add(new BankDecision(BankDecision.Status.APPROVED, bankReferenceId, null));
+            } else {
+                decisions.add(new BankDecision(BankDecision.Status.FAILED, bankReferenceId, "Insufficient funds"));
+            }
+        }
+        return decisions;
+    }
+
+    private void simulateLatency(int mandates, ThreadLocalRandom random) {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(latencyMs)
+                + TimeUnit.MICROSECONDS.toNanos(latencyPerMandateUs * mandates)
+                + (jitterMs > 0 ? TimeUnit.MILLISECONDS.toNanos(random.nextLong(jitterMs + 1)) : 0);
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the simulated bank", e);
+        }
+    }
+}
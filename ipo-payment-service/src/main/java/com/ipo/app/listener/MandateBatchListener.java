@@ -0,0 +1,157 @@
+package com.ipo.app.listener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jms.annotation.JmsListenerConfigurer;
+import org.springframework.jms.config.JmsListenerContainerFactory;
+import org.springframework.jms.config.JmsListenerEndpointRegistrar;
+import org.springframework.jms.config.SimpleJmsListenerEndpoint;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.app.entity.MandateStatus;
+import com.ipo.app.gateway.BankDecision;
+import com.ipo.app.gateway.BankGateway;
+import com.ipo.app.repository.MandateBatchWriter;
+import com.ipo.app.service.MandateEvents;
+import com.ipo.events.ApplicationCreatedEvent;
+import com.ipo.events.MandateApprovedEvent;
+import com.ipo.events.MandateFailedEvent;
+import com.ipo.jms.BatchMessageListener;
+import com.ipo.jms.EventJmsTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+
+// Creates the mandates for a batch of new applications (ipo.jms.listener.batch-size).
+// The mandates are first reserved as PENDING in their own committed transaction, and
+// only the rows this batch reserved go to the bank gateway, in one call; the decisions
+// are then stored and the outcome events sent on the listener's session, committed
+// together with the acknowledgement of the batch. A redelivered batch, or the same
+// application delivered to another consumer, finds the reserved rows: the bank is not
+// asked again and the outcomes already stored are republished. If the batch fails after
+// the bank call, its mandates stay PENDING until the bank's webhook or settlement file
+// decides them, or the expiry sweep does.
+@Component
+public class MandateBatchListener implements BatchMessageListener, JmsListenerConfigurer {
+
+    @Autowired
+    private BankGateway bankGateway;
+
+    @Autowired
+    private MandateBatchWriter mandateBatchWriter;
+
+    @Autowired
+    private EventJmsTemplate jmsTemplate;
+
+    @Autowired
+    private MessageConverter messageConverter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("queueListenerFactory")
+    private JmsListenerContainerFactory<?> queueListenerFactory;
+
+    // Commits the reservation ahead of the bank call, outside the batch's transaction
+    private TransactionTemplate reservationTransaction;
+
+    @PostConstruct
+    public void init() {
+        reservationTransaction = new TransactionTemplate(transactionManager);
+        reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void configureJmsListeners(JmsListenerEndpointRegistrar registrar) {
+        SimpleJmsListenerEndpoint endpoint = new SimpleJmsListenerEndpoint();
+        endpoint.setId("mandateBatchListener");
+        endpoint.setDestination("app.created.queue");
+        endpoint.setMessageListener(this);
+        registrar.registerEndpoint(endpoint, queueListenerFactory);
+    }
+
+    @Override
+    public void onMessages(List<Message> messages) {
+        // An application delivered twice in one batch gets one mandate
+        Map<String, Mandate> byApplication = new LinkedHashMap<>();
+        for (Message message : messages) {
+            ApplicationCreatedEvent event = readEvent(message);
+            byApplication.putIfAbsent(event.getApplicationId(), newMandate(event));
+        }
+        MandateBatchWriter.Reservation reservation = reservationTransaction
+                .execute(status -> mandateBatchWriter.reserveAll(new ArrayList<>(byApplication.values())));
+
+        // Mandates stored by an earlier delivery keep the outcome they already have
+        List<Mandate> outcomes = new ArrayList<>(reservation.getExisting());
+        Map<String, String> reasons = new LinkedHashMap<>();
+        List<Mandate> reserved = reservation.getReserved();
+        if (!reserved.isEmpty()) {
+            List<BankDecision> decisions = bankGateway.registerMandates(reserved);
+            for (int i = 0; i < reserved.size(); i++) {
+                Mandate mandate = reserved.get(i);
+                BankDecision decision = decisions.get(i);
+                mandate.setStatus(switch (decision.getStatus()) {
+                    case APPROVED -> MandateStatus.APPROVED;
+                    case FAILED -> MandateStatus.FAILED;
+                    case PENDING -> MandateStatus.PENDING;
+                });
+                mandate.setBankReferenceId(decision.getBankReferenceId());
+                reasons.put(mandate.getApplicationId(), decision.getReason());
+            }
+            outcomes.addAll(mandateBatchWriter.recordDecisions(reserved));
+        }
+
+        // PENDING mandates are announced when the bank's webhook decides them
+        List<MandateApprovedEvent> approved = new ArrayList<>();
+        List<MandateFailedEvent> failed = new ArrayList<>();
+        for (Mandate mandate : outcomes) {
+            if (mandate.getStatus() == MandateStatus.APPROVED) {
+                approved.add(MandateEvents.approved(mandate));
+            } else if (mandate.getStatus() == MandateStatus.FAILED) {
+                String reason = reasons.get(mandate.getApplicationId());
+                failed.add(MandateEvents.failed(mandate, reason != null ? reason : "Bank rejected"));
+            }
+        }
+        if (!approved.isEmpty()) {
+            jmsTemplate.convertAndSendAll("mandate.approved.topic", approved);
+        }
+        if (!failed.isEmpty()) {
+            jmsTemplate.convertAndSendAll("mandate.failed.topic", failed);
+        }
+    }
+
+    private ApplicationCreatedEvent readEvent(Message message) {
+        try {
+            return (ApplicationCreatedEvent) messageConverter.fromMessage(message);
+        } catch (JMSException e) {
+            throw JmsUtils.convertJmsAccessException(e);
+        }
+    }
+
+    private Mandate newMandate(ApplicationCreatedEvent event) {
+        Mandate mandate = new Mandate();
+        mandate.setId(UUID.randomUUID().toString());
+        mandate.setApplicationId(event.getApplicationId());
+        mandate.setIpoId(event.getIpoId());
+        mandate.setInvestorId(event.getInvestorId());
+        mandate.setLots(event.getLots() > 0 ? event.getLots() : null);
+        mandate.setAmount(BigDecimal.valueOf(event.getAmount()));
+        mandate.setStatus(MandateStatus.PENDING);
+        return mandate;
+    }
+}
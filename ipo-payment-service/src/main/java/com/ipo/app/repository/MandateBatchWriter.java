@@ -0,0 +1,163 @@
+package com.ipo.app.repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.app.entity.MandateStatus;
+
+// Reserves the mandates for a batch of applications in one statement, the columns bound
+// as one array each, and later records the bank's decisions for the rows it reserved.
+// The unique index on application_id resolves duplicates inside the INSERT, so an
+// application redelivered to this or another consumer is never reserved twice; its
+// stored row is returned instead, and only freshly reserved rows go to the bank.
+@Repository
+public class MandateBatchWriter {
+
+    private static final String COLUMNS = "id, application_id, ipo_id, investor_id, lots, amount, status, "
+            + "bank_reference_id";
+
+    // The outer SELECT runs on the statement's snapshot, so it sees only rows that existed
+    // before the INSERT; a row another transaction is reserving concurrently is returned by
+    // neither branch and is left to that transaction
+    private static final String RESERVE_BATCH_SQL = "WITH input AS ("
+            + " SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::int[],"
+            + " ?::numeric[], ?::varchar[], ?::varchar[])"
+            + " AS t(" + COLUMNS + ")),"
+            + " inserted AS ("
+            + " INSERT INTO mandates (" + COLUMNS + ")"
+            + " SELECT " + COLUMNS + " FROM input"
+            + " ON CONFLICT (application_id) DO NOTHING"
+            + " RETURNING " + COLUMNS + ")"
+            + " SELECT " + COLUMNS + ", true AS reserved FROM inserted"
+            + " UNION ALL"
+            + " SELECT m.id, m.application_id, m.ipo_id, m.investor_id, m.lots, m.amount, m.status,"
+            + " m.bank_reference_id, false FROM mandates m JOIN input i ON m.application_id = i.application_id";
+
+    // Compare-and-set on PENDING like MandateStatusWriter, so a mandate a webhook or the
+    // expiry sweep decided while the bank call was in flight keeps that outcome
+    private static final String DECIDE_BATCH_SQL = "WITH input AS ("
+            + " SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::varchar[])"
+            + " AS t(id, status, bank_reference_id))"
+            + " UPDATE mandates m SET status = i.status,"
+            + " bank_reference_id = coalesce(i.bank_reference_id, m.bank_reference_id)"
+            + " FROM input i WHERE m.id = i.id AND m.status = '" + MandateStatus.PENDING + "'"
+            + " RETURNING m.id, m.application_id, m.ipo_id, m.investor_id, m.lots, m.amount, m.status,"
+            + " m.bank_reference_id";
+
+    static final RowMapper<Mandate> MANDATE_MAPPER = (rs, rowNum) -> {
+        Mandate mandate = new Mandate();
+        mandate.setId(rs.getString("id"));
+        mandate.setApplicationId(rs.getString("application_id"));
+        mandate.setIpoId(rs.getString("ipo_id"));
+        mandate.setInvestorId(rs.getString("investor_id"));
+        mandate.setLots((Integer) rs.getObject("lots"));
+        mandate.setAmount(rs.getBigDecimal("amount"));
+        mandate.setStatus(MandateStatus.valueOf(rs.getString("status")));
+        mandate.setBankReferenceId(rs.getString("bank_reference_id"));
+        return mandate;
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Inserts the mandates as given (normally PENDING) unless their application already has
+    // one. Application ids must be distinct within the batch
+    public Reservation reserveAll(List<Mandate> mandates) {
+        int size = mandates.size();
+        Object[][] columns = new Object[8][size];
+        for (int i = 0; i < size; i++) {
+            Mandate mandate = mandates.get(i);
+            columns[0][i] = mandate.getId();
+            columns[1][i] = mandate.getApplicationId();
+            columns[2][i] = mandate.getIpoId();
+            columns[3][i] = mandate.getInvestorId();
+            columns[4][i] = mandate.getLots();
+            columns[5][i] = mandate.getAmount();
+            columns[6][i] = mandate.getStatus().name();
+            columns[7][i] = mandate.getBankReferenceId();
+        }
+        String[] types = { "varchar", "varchar", "varchar", "varchar", "int4", "numeric", "varchar", "varchar" };
+
+        return execute(RESERVE_BATCH_SQL, columns, types, rs -> {
+            Reservation reservation = new Reservation(size);
+            while (rs.next()) {
+                Mandate mandate = MANDATE_MAPPER.mapRow(rs, rs.getRow());
+                (rs.getBoolean("reserved") ? reservation.reserved : reservation.existing).add(mandate);
+            }
+            return reservation;
+        });
+    }
+
+    // Stores the bank's status and reference for reserved mandates; returns the mandates
+    // that were still PENDING and so took the decision
+    public List<Mandate> recordDecisions(List<Mandate> mandates) {
+        int size = mandates.size();
+        Object[][] columns = new Object[3][size];
+        for (int i = 0; i < size; i++) {
+            Mandate mandate = mandates.get(i);
+            columns[0][i] = mandate.getId();
+            columns[1][i] = mandate.getStatus().name();
+            columns[2][i] = mandate.getBankReferenceId();
+        }
+        String[] types = { "varchar", "varchar", "varchar" };
+
+        return execute(DECIDE_BATCH_SQL, columns, types, rs -> {
+            List<Mandate> decided = new ArrayList<>(size);
+            while (rs.next()) {
+                decided.add(MANDATE_MAPPER.mapRow(rs, rs.getRow()));
+            }
+            return decided;
+        });
+    }
+
+    private <T> T execute(String sql, Object[][] columns, String[] types, ResultSetExtractor<T> extractor) {
+        return jdbcTemplate.execute(sql, (PreparedStatement ps) -> {
+            Array[] arrays = new Array[columns.length];
+            try {
+                for (int c = 0; c < columns.length; c++) {
+                    arrays[c] = ps.getConnection().createArrayOf(types[c], columns[c]);
+                    ps.setArray(c + 1, arrays[c]);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    return extractor.extractData(rs);
+                }
+            } finally {
+                for (Array array : arrays) {
+                    if (array != null) {
+                        array.free();
+                    }
+                }
+            }
+        });
+    }
+
+    // Rows this call inserted, and the rows earlier deliveries had already stored for the
+    // other applications of the batch
+    public static class Reservation {
+        private final List<Mandate> reserved;
+        private final List<Mandate> existing;
+
+        private Reservation(int size) {
+            this.reserved = new ArrayList<>(size);
+            this.existing = new ArrayList<>();
+        }
+
+        public List<Mandate> getReserved() {
+            return reserved;
+        }
+
+        public List<Mandate> getExisting() {
+            return existing;
+        }
+    }
+}
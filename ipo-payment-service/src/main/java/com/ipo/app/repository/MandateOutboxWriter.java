@@ -0,0 +1,64 @@
+package com.ipo.app.repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Stores a run of events in mandate_outbox with one INSERT, the columns bound as one
+// array each and the rows keeping list order. Runs in the caller's transaction.
+@Repository
+public class MandateOutboxWriter {
+
+    private static final String INSERT_BATCH_SQL = "INSERT INTO mandate_outbox "
+            + "(destination, payload_type, payload, created_at) "
+            + "SELECT destination, payload_type, payload, now() "
+            + "FROM unnest(?::varchar[], ?::varchar[], ?::text[]) WITH ORDINALITY "
+            + "AS t(destination, payload_type, payload, ord) ORDER BY ord";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // events.get(i) goes to destinations.get(i)
+    public int insertAll(List<String> destinations, List<?> events) {
+        int size = events.size();
+        Object[][] columns = new Object[3][size];
+        for (int i = 0; i < size; i++) {
+            Object event = events.get(i);
+            columns[0][i] = destinations.get(i);
+            columns[1][i] = event.getClass().getName();
+            try {
+                columns[2][i] = objectMapper.writeValueAsString(event);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Cannot serialize " + event.getClass().getName(), e);
+            }
+        }
+        String[] types = { "varchar", "varchar", "text" };
+
+        return jdbcTemplate.execute(INSERT_BATCH_SQL, (PreparedStatement ps) -> {
+            Array[] arrays = new Array[columns.length];
+            try {
+                for (int c = 0; c < columns.length; c++) {
+                    arrays[c] = ps.getConnection().createArrayOf(types[c], columns[c]);
+                    ps.setArray(c + 1, arrays[c]);
+                }
+                return ps.executeUpdate();
+            } finally {
+                for (Array array : arrays) {
+                    if (array != null) {
+                        array.free();
+                    }
+                }
+            }
+        });
+    }
+}
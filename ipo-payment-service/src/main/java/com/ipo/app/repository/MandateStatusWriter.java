@@ -0,0 +1,133 @@
+package com.ipo.app.repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.app.entity.MandateStatus;
+
+// Moves mandates out of PENDING in bulk: bank outcomes from webhooks or settlement files,
+// and expiry. Every UPDATE is a compare-and-set on status = 'PENDING', so a replayed or
+// conflicting outcome for a mandate that has already been decided changes nothing and
+// is not returned. Runs in the caller's transaction.
+@Repository
+public class MandateStatusWriter {
+
+    private static final String RETURNING = "m.id, m.application_id, m.ipo_id, m.investor_id, m.lots, m.amount,"
+            + " m.status, m.bank_reference_id";
+
+    // Outcomes name the mandate by id or, failing that, by application; each is resolved
+    // through its own index before the update. When two outcomes of a batch resolve to the
+    // same mandate the earlier one wins, as it would if they were applied one by one
+    private static final String UPDATE_BATCH_SQL = "WITH input AS ("
+            + " SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[]) WITH ORDINALITY"
+            + " AS t(mandate_id, application_id, status, bank_reference_id, ord)),"
+            + " targets AS ("
+            + " SELECT DISTINCT ON (id) * FROM ("
+            + " SELECT m.id, i.status, i.bank_reference_id, i.ord FROM input i"
+            + " JOIN mandates m ON m.id = i.mandate_id"
+            + " UNION ALL"
+            + " SELECT m.id, i.status, i.bank_reference_id, i.ord FROM input i"
+            + " JOIN mandates m ON i.mandate_id IS NULL AND m.application_id = i.application_id) r"
+            + " ORDER BY id, ord)"
+            + " UPDATE mandates m SET status = t.status,"
+            + " bank_reference_id = coalesce(t.bank_reference_id, m.bank_reference_id)"
+            + " FROM targets t WHERE m.id = t.id AND m.status = '" + MandateStatus.PENDING + "'"
+            + " RETURNING " + RETURNING;
+
+    // Oldest first through the partial index on PENDING mandates' created_at; rows another
+    // sweeper or a webhook has locked are left to them
+    private static final String EXPIRE_BATCH_SQL = "UPDATE mandates m SET status = '" + MandateStatus.EXPIRED + "'"
+            + " FROM (SELECT id FROM mandates WHERE status = '" + MandateStatus.PENDING + "'"
+            + " AND created_at < now() - ? * interval '1 millisecond'"
+            + " ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED) e"
+            + " WHERE m.id = e.id"
+            + " RETURNING " + RETURNING;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The mandates this batch moved out of PENDING, with their new status. Changes are
+    // taken in list order: of several changes resolving to one mandate, the first applies
+    public List<Mandate> applyAll(List<Change> changes) {
+        int size = changes.size();
+        Object[][] columns = new Object[4][size];
+        for (int i = 0; i < size; i++) {
+            Change change = changes.get(i);
+            columns[0][i] = change.getMandateId();
+            columns[1][i] = change.getApplicationId();
+            columns[2][i] = change.getStatus().name();
+            columns[3][i] = change.getBankReferenceId();
+        }
+
+        return jdbcTemplate.execute(UPDATE_BATCH_SQL, (PreparedStatement ps) -> {
+            Array[] arrays = new Array[columns.length];
+            try {
+                for (int c = 0; c < columns.length; c++) {
+                    arrays[c] = ps.getConnection().createArrayOf("varchar", columns[c]);
+                    ps.setArray(c + 1, arrays[c]);
+                }
+                List<Mandate> updated = new ArrayList<>(size);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        updated.add(MandateBatchWriter.MANDATE_MAPPER.mapRow(rs, rs.getRow()));
+                    }
+                }
+                return updated;
+            } finally {
+                for (Array array : arrays) {
+                    if (array != null) {
+                        array.free();
+                    }
+                }
+            }
+        });
+    }
+
+    // Moves up to limit mandates PENDING for longer than pendingTtlMs, by the database's
+    // clock, to EXPIRED and returns them
+    public List<Mandate> expirePending(long pendingTtlMs, int limit) {
+        return jdbcTemplate.query(EXPIRE_BATCH_SQL, MandateBatchWriter.MANDATE_MAPPER, pendingTtlMs, limit);
+    }
+
+    // The bank's outcome for one mandate, named by mandateId or else by applicationId
+    public static class Change {
+        private final String mandateId;
+        private final String applicationId;
+        private final MandateStatus status;
+        private final String bankReferenceId;
+
+        public Change(String mandateId, String applicationId, MandateStatus status, String bankReferenceId) {
+            if (!MandateStatus.PENDING.canBecome(status)) {
+                throw new IllegalArgumentException("Not an outcome for a pending mandate: " + status);
+            }
+            this.mandateId = mandateId;
+            this.applicationId = applicationId;
+            this.status = status;
+            this.bankReferenceId = bankReferenceId;
+        }
+
+        public String getMandateId() {
+            return mandateId;
+        }
+
+        public String getApplicationId() {
+            return applicationId;
+        }
+
+        public MandateStatus getStatus() {
+            return status;
+        }
+
+        public String getBankReferenceId() {
+            return bankReferenceId;
+        }
+    }
+}
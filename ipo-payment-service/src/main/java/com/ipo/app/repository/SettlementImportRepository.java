@@ -0,0 +1,10 @@
+package com.ipo.app.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.ipo.app.entity.SettlementImport;
+
+@Repository
+public interface SettlementImportRepository extends JpaRepository<SettlementImport, String> {
+}
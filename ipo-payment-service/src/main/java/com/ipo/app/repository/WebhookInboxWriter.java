@@ -0,0 +1,180 @@
+package com.ipo.app.repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import com.ipo.app.dto.WebhookPayload;
+import com.ipo.app.entity.MandateStatus;
+import com.ipo.app.repository.MandateStatusWriter.Change;
+
+// Stores bank webhooks in webhook_inbox and hands them to WebhookRelay. insertAll is one
+// multi-row INSERT whose ON CONFLICT on uk_webhook_inbox_dedup_key skips webhooks already
+// in the inbox; a single statement, so outside a transaction it commits on its own. The
+// other statements run in the caller's transaction.
+@Repository
+public class WebhookInboxWriter {
+
+    private static final String INSERT_BATCH_SQL = "INSERT INTO webhook_inbox "
+            + "(dedup_key, mandate_id, application_id, status, bank_reference_id, received_at, attempts) "
+            + "SELECT dedup_key, mandate_id, application_id, status, bank_reference_id, now(), 0 "
+            + "FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[]) WITH ORDINALITY "
+            + "AS t(dedup_key, mandate_id, application_id, status, bank_reference_id, ord) ORDER BY ord "
+            + "ON CONFLICT (dedup_key) DO NOTHING "
+            + "RETURNING dedup_key";
+
+    // Oldest first through idx_webhook_inbox_unapplied; rows another relay holds are left to it
+    private static final String CLAIM_BATCH_SQL = "SELECT id, dedup_key, mandate_id, application_id, "
+            + "status, bank_reference_id FROM webhook_inbox WHERE applied_at IS NULL "
+            + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String CLAIM_ONE_SQL = "SELECT id, dedup_key, mandate_id, application_id, "
+            + "status, bank_reference_id FROM webhook_inbox WHERE id = ? AND applied_at IS NULL "
+            + "FOR UPDATE SKIP LOCKED";
+
+    private static final String MARK_APPLIED_SQL = "UPDATE webhook_inbox SET applied_at = now() WHERE id = ANY(?)";
+
+    private static final String RECORD_FAILURE_SQL = "UPDATE webhook_inbox SET attempts = attempts + 1, "
+            + "last_error = ? WHERE id = ? RETURNING attempts";
+
+    private static final String DEAD_LETTER_SQL = "WITH moved AS (DELETE FROM webhook_inbox WHERE id = ? "
+            + "RETURNING id, dedup_key, mandate_id, application_id, status, bank_reference_id, received_at, "
+            + "attempts, last_error) "
+            + "INSERT INTO webhook_dead_letters (id, dedup_key, mandate_id, application_id, status, "
+            + "bank_reference_id, received_at, dead_lettered_at, attempts, error) "
+            + "SELECT id, dedup_key, mandate_id, application_id, status, bank_reference_id, received_at, now(), "
+            + "attempts, last_error FROM moved "
+            + "ON CONFLICT (id) DO NOTHING";
+
+    // Oldest first through idx_webhook_inbox_applied_at, limit rows at a time
+    private static final String PURGE_BATCH_SQL = "DELETE FROM webhook_inbox WHERE id IN ("
+            + "SELECT id FROM webhook_inbox WHERE applied_at < now() - ? * interval '1 millisecond' "
+            + "ORDER BY applied_at LIMIT ?)";
+
+    private static final RowMapper<InboxRow> ROW_MAPPER = (rs, rowNum) -> new InboxRow(rs.getLong("id"),
+            rs.getString("dedup_key"), rs.getString("mandate_id"), rs.getString("application_id"),
+            rs.getString("status"), rs.getString("bank_reference_id"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The dedup keys of the webhooks stored; the others were already in the inbox
+    public Set<String> insertAll(List<WebhookPayload> webhooks) {
+        int size = webhooks.size();
+        Object[][] columns = new Object[5][size];
+        for (int i = 0; i < size; i++) {
+            WebhookPayload webhook = webhooks.get(i);
+            columns[0][i] = webhook.dedupKey();
+            columns[1][i] = webhook.getMandateId();
+            columns[2][i] = webhook.getApplicationId();
+            columns[3][i] = webhook.getStatus();
+            columns[4][i] = webhook.getBankReferenceId();
+        }
+
+        return jdbcTemplate.execute(INSERT_BATCH_SQL, (PreparedStatement ps) -> {
+            Array[] arrays = new Array[columns.length];
+            try {
+                for (int c = 0; c < columns.length; c++) {
+                    arrays[c] = ps.getConnection().createArrayOf("varchar", columns[c]);
+                    ps.setArray(c + 1, arrays[c]);
+                }
+                Set<String> stored = new HashSet<>();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        stored.add(rs.getString("dedup_key"));
+                    }
+                }
+                return stored;
+            } finally {
+                for (Array array : arrays) {
+                    if (array != null) {
+                        array.free();
+                    }
+                }
+            }
+        });
+    }
+
+    // Locks up to limit unapplied webhooks, oldest first, until the transaction ends
+    public List<InboxRow> claimUnapplied(int limit) {
+        return jdbcTemplate.query(CLAIM_BATCH_SQL, ROW_MAPPER, limit);
+    }
+
+    // Locks the webhook if it is still unapplied and no other transaction holds it
+    public List<InboxRow> claimIfUnapplied(long id) {
+        return jdbcTemplate.query(CLAIM_ONE_SQL, ROW_MAPPER, id);
+    }
+
+    public void markApplied(List<Long> ids) {
+        jdbcTemplate.execute(MARK_APPLIED_SQL, (PreparedStatement ps) -> {
+            Array idArray = ps.getConnection().createArrayOf("bigint", ids.toArray());
+            try {
+                ps.setArray(1, idArray);
+                return ps.executeUpdate();
+            } finally {
+                idArray.free();
+            }
+        });
+    }
+
+    // Counts a failed attempt to apply the webhook and returns the attempts so far
+    public int recordFailure(long id, String error) {
+        Integer attempts = jdbcTemplate.queryForObject(RECORD_FAILURE_SQL, Integer.class, error, id);
+        return attempts == null ? 0 : attempts;
+    }
+
+    // Moves the webhook to webhook_dead_letters, freeing its dedup key for a redelivery
+    public int deadLetter(long id) {
+        return jdbcTemplate.update(DEAD_LETTER_SQL, id);
+    }
+
+    // Deletes up to limit webhooks applied more than retentionMs ago, by the database's clock
+    public int purgeApplied(long retentionMs, int limit) {
+        return jdbcTemplate.update(PURGE_BATCH_SQL, retentionMs, limit);
+    }
+
+    // An unapplied webhook as claimed by WebhookRelay
+    public static class InboxRow {
+        private final long id;
+        private final String dedupKey;
+        private final String mandateId;
+        private final String applicationId;
+        private final String status;
+        private final String bankReferenceId;
+
+        public InboxRow(long id, String dedupKey, String mandateId, String applicationId, String status,
+                String bankReferenceId) {
+            this.id = id;
+            this.dedupKey = dedupKey;
+            this.mandateId = mandateId;
+            this.applicationId = applicationId;
+            this.status = status;
+            this.bankReferenceId = bankReferenceId;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getDedupKey() {
+            return dedupKey;
+        }
+
+        // Identifies the mandate the way WebhookPayload.mandateKey() does
+        public String mandateKey() {
+            return mandateId != null ? mandateId : "application:" + applicationId;
+        }
+
+        public Change toChange() {
+            return new Change(mandateId, applicationId, MandateStatus.ofBankOutcome(status), bankReferenceId);
+        }
+    }
+}
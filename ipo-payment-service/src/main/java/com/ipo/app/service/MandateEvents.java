@@ -0,0 +1,33 @@
+package com.ipo.app.service;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.events.MandateApprovedEvent;
+import com.ipo.events.MandateFailedEvent;
+
+// The events announcing a mandate's outcome, built the same way wherever it is decided
+public final class MandateEvents {
+
+    private MandateEvents() {
+    }
+
+    // Passes on the application details stored with the mandate, so consumers need no lookup
+    public static MandateApprovedEvent approved(Mandate mandate) {
+        MandateApprovedEvent event = new MandateApprovedEvent();
+        event.setApplicationId(mandate.getApplicationId());
+        event.setMandateId(mandate.getId());
+        event.setIpoId(mandate.getIpoId());
+        event.setInvestorId(mandate.getInvestorId());
+        event.setLots(mandate.getLots() != null ? mandate.getLots() : 0);
+        event.setAmount(mandate.getAmount() != null ? mandate.getAmount().doubleValue() : 0);
+        event.setSchemaVersion(MandateApprovedEvent.SCHEMA_VERSION);
+        return event;
+    }
+
+    public static MandateFailedEvent failed(Mandate mandate, String reason) {
+        MandateFailedEvent event = new MandateFailedEvent();
+        event.setApplicationId(mandate.getApplicationId());
+        event.setMandateId(mandate.getId());
+        event.setReason(reason);
+        return event;
+    }
+}
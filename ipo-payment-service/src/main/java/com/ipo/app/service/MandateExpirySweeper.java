@@ -0,0 +1,73 @@
+package com.ipo.app.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.app.repository.MandateStatusWriter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+// Expires mandates the bank has left PENDING for longer than pending-ttl-ms, batch-size
+// at a time, and announces them as failed so their applications are closed. Each batch
+// is one UPDATE over the partial index of PENDING mandates, claimed with SKIP LOCKED so
+// instances sweep side by side; a bank outcome arriving afterwards finds the mandate
+// no longer PENDING and is ignored.
+@Component
+@ConditionalOnProperty(name = "payment.mandate.expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class MandateExpirySweeper {
+
+    @Autowired
+    private MandateStatusWriter mandateStatusWriter;
+
+    @Autowired
+    private MandateOutcomePublisher outcomePublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payment.mandate.expiry.pending-ttl-ms:86400000}")
+    private long pendingTtlMs;
+
+    @Value("${payment.mandate.expiry.batch-size:1000}")
+    private int batchSize;
+
+    private Counter expiredCounter;
+
+    @PostConstruct
+    public void init() {
+        expiredCounter = Counter.builder("ipo.payment.mandate.expired")
+                .description("Mandates expired after staying PENDING too long")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.mandate.expiry.sweep-interval-ms:60000}",
+            initialDelayString = "${payment.mandate.expiry.sweep-interval-ms:60000}")
+    public void sweep() {
+        long total = 0;
+        int swept;
+        do {
+            swept = transactionTemplate.execute(status -> {
+                List<Mandate> expired = mandateStatusWriter.expirePending(pendingTtlMs, batchSize);
+                outcomePublisher.publish(expired);
+                return expired.size();
+            });
+            total += swept;
+            expiredCounter.increment(swept);
+        } while (swept == batchSize);
+        if (total > 0) {
+            System.out.println("Expired " + total + " mandates left PENDING for over " + pendingTtlMs + " ms");
+        }
+    }
+}
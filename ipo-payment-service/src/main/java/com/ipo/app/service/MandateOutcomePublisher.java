@@ -0,0 +1,64 @@
+package com.ipo.app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.app.repository.MandateOutboxWriter;
+
+// Announces mandates decided after the fact (webhooks, settlement files, expiry). The
+// events are written to mandate_outbox inside the transaction that changed the mandates,
+// so they are stored exactly when the decisions commit and never sent for a rolled back
+// one; MandateOutboxRelay sends them after the commit. A relay crash between its send and
+// its delete repeats events, which consumers already tolerate.
+@Component
+public class MandateOutcomePublisher {
+
+    @Autowired
+    private MandateOutboxWriter outboxWriter;
+
+    @Autowired
+    private MandateOutboxRelay outboxRelay;
+
+    public void publish(List<Mandate> decided) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Mandate outcomes must be published in the transaction deciding them");
+        }
+        List<String> destinations = new ArrayList<>();
+        List<Object> events = new ArrayList<>();
+        for (Mandate mandate : decided) {
+            switch (mandate.getStatus()) {
+                case APPROVED -> {
+                    destinations.add("mandate.approved.topic");
+                    events.add(MandateEvents.approved(mandate));
+                }
+                case FAILED -> {
+                    destinations.add("mandate.failed.topic");
+                    events.add(MandateEvents.failed(mandate, "Bank rejected"));
+                }
+                // The investor's application fails the same way as on a bank rejection
+                case EXPIRED -> {
+                    destinations.add("mandate.failed.topic");
+                    events.add(MandateEvents.failed(mandate, "Mandate expired"));
+                }
+                case PENDING -> {
+                }
+            }
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        outboxWriter.insertAll(destinations, events);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.wakeUp();
+            }
+        });
+    }
+}
@@ -0,0 +1,220 @@
+package com.ipo.app.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import com.ipo.app.entity.MandateStatus;
+
+// Cursor over the lines of a settlement file, "mandateId,status[,bankReferenceId]" in
+// UTF-8 with status APPROVED or FAILED. The file is memory-mapped a window at a time
+// and lines are parsed in place: a record is a set of field positions in the window,
+// its status is matched without decoding, and only the ids the caller asks for become
+// Strings. Blank lines, '#' comments and a "mandateId,..." header are skipped. Starting
+// from an offset inside a line skips to the next one.
+public class SettlementFileReader {
+
+    private static final int MAX_FIELDS = 3;
+    private static final byte[] APPROVED = "APPROVED".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FAILED = "FAILED".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEADER = "mandateId".getBytes(StandardCharsets.US_ASCII);
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowBytes;
+
+    private MappedByteBuffer window;
+    // File offset of window position 0
+    private long windowStart;
+    // File offset of the line after the current one
+    private long position;
+    private boolean skipPartialLine;
+
+    // Current record: field boundaries within the window
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private int fields;
+    private boolean overflow;
+    private byte[] scratch = new byte[64];
+
+    // windowBytes bounds both the mapping and the longest line
+    public SettlementFileReader(FileChannel channel, long startOffset, long windowBytes) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowBytes = windowBytes;
+        this.position = startOffset;
+        this.skipPartialLine = startOffset > 0;
+    }
+
+    // Advances to the next record; false at the end of the file
+    public boolean next() throws IOException {
+        while (position < size) {
+            int from = (int) (position - windowStart);
+            if (window == null || from >= window.limit()) {
+                map(position);
+                from = 0;
+            }
+            if (skipPartialLine) {
+                skipPartialLine = false;
+                if (byteBefore(position) != '\n') {
+                    skipToNextLine(from);
+                    continue;
+                }
+            }
+            int newline = indexOfNewline(from);
+            int end;
+            if (newline >= 0) {
+                end = newline;
+                position = windowStart + newline + 1;
+            } else if (windowStart + window.limit() < size) {
+                // The line runs past the window: remap from its start, unless it fills one
+                if (from == 0) {
+                    throw new IOException("Line at offset " + position + " is longer than " + windowBytes
+                            + " bytes");
+                }
+                map(position);
+                continue;
+            } else {
+                // Last line, without a newline
+                end = window.limit();
+                position = size;
+            }
+            if (end > from && window.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end == from || window.get(from) == '#') {
+                continue;
+            }
+            split(from, end);
+            if (fieldEquals(0, HEADER)) {
+                continue;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // File offset just past the current record's line, where a resumed import starts
+    public long offset() {
+        return position;
+    }
+
+    // Whether the current line has a mandate id and a known status
+    public boolean isValid() {
+        return !overflow && fields >= 2 && fieldEnd[0] > fieldStart[0] && status() != null;
+    }
+
+    public String mandateId() {
+        return field(0);
+    }
+
+    // APPROVED, FAILED or null, matched on the raw bytes
+    public MandateStatus status() {
+        if (fields < 2) {
+            return null;
+        }
+        if (fieldEquals(1, APPROVED)) {
+            return MandateStatus.APPROVED;
+        }
+        if (fieldEquals(1, FAILED)) {
+            return MandateStatus.FAILED;
+        }
+        return null;
+    }
+
+    // Null when the line has none
+    public String bankReferenceId() {
+        return fields >= 3 && fieldEnd[2] > fieldStart[2] ? field(2) : null;
+    }
+
+    private void map(long offset) throws IOException {
+        windowStart = offset;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowBytes, size - offset));
+    }
+
+    private byte byteBefore(long offset) throws IOException {
+        long relative = offset - 1 - windowStart;
+        if (relative >= 0) {
+            return window.get((int) relative);
+        }
+        ByteBuffer one = ByteBuffer.allocate(1);
+        channel.read(one, offset - 1);
+        return one.get(0);
+    }
+
+    private void skipToNextLine(int from) throws IOException {
+        int newline = indexOfNewline(from);
+        if (newline >= 0) {
+            position = windowStart + newline + 1;
+        } else {
+            position = windowStart + window.limit();
+            skipPartialLine = position < size;
+        }
+    }
+
+    private int indexOfNewline(int from) {
+        int limit = window.limit();
+        for (int i = from; i < limit; i++) {
+            if (window.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void split(int from, int end) {
+        fields = 0;
+        overflow = false;
+        int start = from;
+        for (int i = from; i <= end; i++) {
+            if (i == end || window.get(i) == ',') {
+                if (fields == MAX_FIELDS) {
+                    overflow = true;
+                    return;
+                }
+                fieldStart[fields] = trimStart(start, i);
+                fieldEnd[fields] = trimEnd(fieldStart[fields], i);
+                fields++;
+                start = i + 1;
+            }
+        }
+    }
+
+    private int trimStart(int from, int end) {
+        while (from < end && window.get(from) == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    private int trimEnd(int from, int end) {
+        while (end > from && window.get(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private boolean fieldEquals(int field, byte[] expected) {
+        int start = fieldStart[field];
+        if (fieldEnd[field] - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (window.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String field(int field) {
+        int length = fieldEnd[field] - fieldStart[field];
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        window.get(fieldStart[field], scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,35 @@
+package com.ipo.app.service;
+
+// Thrown when a settlement file import cannot be started
+public class SettlementImportException extends RuntimeException {
+
+    public enum Reason {
+        // Not a plain file name inside payment.settlement.directory, or an offset past its end (400)
+        INVALID_REQUEST(400),
+        // No such file (404)
+        FILE_NOT_FOUND(404),
+        // The file is already being imported by this instance (409)
+        ALREADY_RUNNING(409);
+
+        private final int status;
+
+        Reason(int status) {
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    private final Reason reason;
+
+    public SettlementImportException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
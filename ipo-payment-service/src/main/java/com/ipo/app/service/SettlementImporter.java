@@ -0,0 +1,270 @@
+package com.ipo.app.service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.app.entity.SettlementImport;
+import com.ipo.app.repository.MandateStatusWriter;
+import com.ipo.app.repository.MandateStatusWriter.Change;
+import com.ipo.app.repository.SettlementImportRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Imports the bank's end-of-day settlement files from payment.settlement.directory.
+// Each file is streamed through SettlementFileReader on one background thread and
+// applied in batches of batch-size lines: one conditional UPDATE, the outcome events
+// queued in mandate_outbox and the new committed offset per transaction. Starting an
+// import that has been interrupted, has failed or whose file has grown continues from
+// its committed offset; lines replayed from before it change nothing, since only
+// PENDING mandates move.
+@Service
+public class SettlementImporter {
+
+    @Autowired
+    private MandateStatusWriter mandateStatusWriter;
+
+    @Autowired
+    private MandateOutcomePublisher outcomePublisher;
+
+    @Autowired
+    private SettlementImportRepository settlementImportRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payment.settlement.directory:/var/ipo/settlements}")
+    private String directory;
+
+    @Value("${payment.settlement.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${payment.settlement.window-mb:64}")
+    private int windowMb;
+
+    private Path root;
+    private ExecutorService executor;
+    // Files queued or running in this instance
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+
+    private Counter appliedCounter;
+    private Counter staleCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        root = Paths.get(directory).toAbsolutePath().normalize();
+        // One file at a time: imports compete for the same mandates and connection pool
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "settlement-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        appliedCounter = records("applied");
+        staleCounter = records("stale");
+        rejectedCounter = records("rejected");
+    }
+
+    private Counter records(String outcome) {
+        return Counter.builder("ipo.payment.settlement.records").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    // Interrupts the running import; its committed offset is where the next start resumes
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Queues the import of a file, from fromOffset if given, otherwise from where the
+    // last import of it stopped
+    public SettlementImport start(String fileName, Long fromOffset) {
+        Path file = resolve(fileName);
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            throw new SettlementImportException(SettlementImportException.Reason.FILE_NOT_FOUND,
+                    "Cannot read " + fileName + ": " + e.getMessage());
+        }
+        if (fromOffset != null && (fromOffset < 0 || fromOffset > size)) {
+            throw new SettlementImportException(SettlementImportException.Reason.INVALID_REQUEST,
+                    "Offset " + fromOffset + " is outside " + fileName + " (" + size + " bytes)");
+        }
+        if (!active.add(fileName)) {
+            throw new SettlementImportException(SettlementImportException.Reason.ALREADY_RUNNING,
+                    fileName + " is already being imported");
+        }
+        try {
+            SettlementImport settlementImport = settlementImportRepository.findById(fileName).orElseGet(() -> {
+                SettlementImport created = new SettlementImport();
+                created.setFileName(fileName);
+                return created;
+            });
+            if (fromOffset != null) {
+                // A restart from a given offset counts afresh
+                settlementImport.setCommittedOffset(fromOffset);
+                settlementImport.setRecords(0);
+                settlementImport.setApplied(0);
+                settlementImport.setStale(0);
+                settlementImport.setRejected(0);
+            }
+            settlementImport.setFileSize(size);
+            settlementImport.setStatus("QUEUED");
+            settlementImport.setError(null);
+            settlementImport.setStartedAt(Instant.now());
+            settlementImport.setUpdatedAt(Instant.now());
+            SettlementImport saved = settlementImportRepository.save(settlementImport);
+            executor.execute(() -> run(fileName, file));
+            return saved;
+        } catch (RuntimeException e) {
+            active.remove(fileName);
+            throw e;
+        }
+    }
+
+    public Optional<SettlementImport> progress(String fileName) {
+        return settlementImportRepository.findById(fileName);
+    }
+
+    // Plain file names only, so a request cannot reach outside the settlement directory
+    private Path resolve(String fileName) {
+        Path file = root.resolve(fileName).normalize();
+        if (fileName.isBlank() || !root.equals(file.getParent())) {
+            throw new SettlementImportException(SettlementImportException.Reason.INVALID_REQUEST,
+                    "Not a settlement file name: " + fileName);
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new SettlementImportException(SettlementImportException.Reason.FILE_NOT_FOUND,
+                    "No settlement file " + fileName);
+        }
+        return file;
+    }
+
+    private void run(String fileName, Path file) {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SettlementImport settlementImport = settlementImportRepository.findById(fileName).orElseThrow();
+            long startOffset = settlementImport.getCommittedOffset();
+            settlementImport.setStatus("RUNNING");
+            settlementImport.setFileSize(channel.size());
+            settlementImport = settlementImportRepository.save(settlementImport);
+            System.out.println("Importing settlement file " + fileName + " from offset " + startOffset
+                    + " of " + channel.size());
+
+            SettlementFileReader reader = new SettlementFileReader(channel, startOffset, windowMb * 1024L * 1024L);
+            List<Change> batch = new ArrayList<>(batchSize);
+            long lines = 0;
+            long rejected = 0;
+            int nextReport = 10;
+            while (reader.next()) {
+                lines++;
+                if (reader.isValid()) {
+                    batch.add(new Change(reader.mandateId(), null, reader.status(), reader.bankReferenceId()));
+                } else {
+                    rejected++;
+                    if (rejected <= 10) {
+                        System.err.println("Skipping malformed line before offset " + reader.offset() + " of "
+                                + fileName);
+                    }
+                }
+                if (lines % batchSize == 0) {
+                    settlementImport = commit(settlementImport, batch, lines, rejected, reader.offset());
+                    batch.clear();
+                    lines = 0;
+                    rejected = 0;
+                    if (settlementImport.getPercentComplete() >= nextReport) {
+                        System.out.println("Settlement file " + fileName + ": "
+                                + (int) settlementImport.getPercentComplete() + "% (" + settlementImport.getRecords()
+                                + " lines)");
+                        nextReport = ((int) settlementImport.getPercentComplete() / 10 + 1) * 10;
+                    }
+                    if (Thread.currentThread().isInterrupted()) {
+                        System.err.println("Settlement import of " + fileName + " interrupted at offset "
+                                + settlementImport.getCommittedOffset());
+                        settlementImport.setStatus("INTERRUPTED");
+                        settlementImportRepository.save(settlementImport);
+                        return;
+                    }
+                }
+            }
+            settlementImport.setStatus("COMPLETED");
+            settlementImport = commit(settlementImport, batch, lines, rejected, reader.offset());
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("Imported settlement file " + fileName + " in " + elapsedMs + " ms: "
+                    + settlementImport.getApplied() + " applied, " + settlementImport.getStale() + " stale, "
+                    + settlementImport.getRejected() + " malformed");
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Settlement import of " + fileName + " failed: " + e.getMessage());
+            try {
+                settlementImportRepository.findById(fileName).ifPresent(stored -> {
+                    stored.setStatus("FAILED");
+                    stored.setError(String.valueOf(e.getMessage()));
+                    stored.setUpdatedAt(Instant.now());
+                    settlementImportRepository.save(stored);
+                });
+            } catch (RuntimeException statusFailure) {
+                System.err.println("Could not record failure of " + fileName + ": " + statusFailure.getMessage());
+            }
+        } finally {
+            active.remove(fileName);
+        }
+    }
+
+    // Applies one batch and advances the committed offset past it, atomically
+    private SettlementImport commit(SettlementImport settlementImport, List<Change> batch, long lines,
+            long rejected, long offset) {
+        // Of several lines for one mandate the first wins, as it would one batch at a time
+        Map<String, Change> byMandate = new LinkedHashMap<>();
+        for (Change change : batch) {
+            byMandate.putIfAbsent(change.getMandateId(), change);
+        }
+        List<Change> changes = new ArrayList<>(byMandate.values());
+        long appliedBefore = settlementImport.getApplied();
+        SettlementImport saved = transactionTemplate.execute(status -> {
+            int applied = 0;
+            if (!changes.isEmpty()) {
+                List<Mandate> changed = mandateStatusWriter.applyAll(changes);
+                outcomePublisher.publish(changed);
+                applied = changed.size();
+            }
+            long stale = batch.size() - applied;
+            settlementImport.setCommittedOffset(offset);
+            settlementImport.setRecords(settlementImport.getRecords() + lines);
+            settlementImport.setApplied(settlementImport.getApplied() + applied);
+            settlementImport.setStale(settlementImport.getStale() + stale);
+            settlementImport.setRejected(settlementImport.getRejected() + rejected);
+            settlementImport.setUpdatedAt(Instant.now());
+            return settlementImportRepository.save(settlementImport);
+        });
+        long applied = saved.getApplied() - appliedBefore;
+        appliedCounter.increment(applied);
+        staleCounter.increment(batch.size() - applied);
+        rejectedCounter.increment(rejected);
+        return saved;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ipo.app.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Remembers the webhooks accepted in the last ttl-ms, at most max-entries of them, so a
+// bank retrying or replaying a webhook is answered without a database round trip. Memory
+// is only the fast path in front of webhook_inbox: its unique dedup_key catches a replay
+// that has left the window or reaches another instance, and the conditional UPDATE in
+// MandateStatusWriter one that arrives after the inbox has purged the original.
+@Component
+public class WebhookDedupWindow {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    // Key -> time first seen, oldest first
+    private final LinkedHashMap<String, Long> seen;
+
+    public WebhookDedupWindow(@Value("${payment.webhook.dedup.max-entries:100000}") int maxEntries,
+            @Value("${payment.webhook.dedup.ttl-ms:600000}") long ttlMs) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.seen = new LinkedHashMap<>(Math.min(this.maxEntries, 1 << 16), 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > WebhookDedupWindow.this.maxEntries;
+            }
+        };
+    }
+
+    // True the first time a key is seen within the window
+    public synchronized boolean add(String key) {
+        long now = System.nanoTime();
+        expire(now);
+        Long firstSeen = seen.get(key);
+        if (firstSeen != null) {
+            return false;
+        }
+        seen.put(key, now);
+        return true;
+    }
+
+    // For a webhook that was accepted here but then not stored, or dead-lettered, so a
+    // retry is let through
+    public synchronized void remove(String key) {
+        seen.remove(key);
+    }
+
+    public synchronized int size() {
+        return seen.size();
+    }
+
+    private void expire(long now) {
+        Iterator<Long> it = seen.values().iterator();
+        while (it.hasNext() && now - it.next() > ttlNanos) {
+            it.remove();
+        }
+    }
+}
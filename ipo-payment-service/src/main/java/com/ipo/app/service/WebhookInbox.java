@@ -0,0 +1,221 @@
+package com.ipo.app.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import com.ipo.app.dto.WebhookPayload;
+import com.ipo.app.repository.WebhookInboxWriter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+// Stores bank webhooks in webhook_inbox before they are acknowledged. A webhook that
+// passes the dedup window is queued and a single writer thread stores them as group
+// commits of up to max-batch-size, waiting at most max-delay-ms after the first, so a
+// burst of webhooks costs one INSERT and one commit per group instead of one per request.
+// Each request's future completes once its group has committed: true if the webhook was
+// stored, false if its dedup key was already in the inbox. WebhookRelay is then woken to
+// apply what was stored.
+@Service
+public class WebhookInbox implements SmartLifecycle {
+
+    @Autowired
+    private WebhookInboxWriter inboxWriter;
+
+    @Autowired
+    private WebhookDedupWindow dedupWindow;
+
+    @Autowired
+    private WebhookRelay webhookRelay;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payment.webhook.inbox.capacity:10000}")
+    private int capacity;
+
+    @Value("${payment.webhook.inbox.max-batch-size:200}")
+    private int maxBatchSize;
+
+    @Value("${payment.webhook.inbox.max-delay-ms:2}")
+    private long maxDelayMs;
+
+    private BlockingQueue<Pending> queue;
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    private Counter accepted;
+    private Counter duplicate;
+    private Counter rejected;
+    private DistributionSummary flushSize;
+    private Timer flushTime;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("ipo.payment.webhook.inbox.depth", queue, BlockingQueue::size)
+                .description("Webhooks waiting for a group commit")
+                .register(meterRegistry);
+        Gauge.builder("ipo.payment.webhook.dedup.size", dedupWindow, WebhookDedupWindow::size)
+                .register(meterRegistry);
+        accepted = received("accepted");
+        duplicate = received("duplicate");
+        rejected = received("rejected");
+        flushSize = DistributionSummary.builder("ipo.payment.webhook.inbox.flush.size")
+                .description("Webhooks per group commit")
+                .register(meterRegistry);
+        flushTime = Timer.builder("ipo.payment.webhook.inbox.flush.time").register(meterRegistry);
+    }
+
+    private Counter received(String outcome) {
+        return Counter.builder("ipo.payment.webhook.received").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    // Completes with true once the webhook is stored, false if it repeats one already
+    // received; throws WebhookRejectedException instead of blocking when full
+    public CompletableFuture<Boolean> submit(WebhookPayload payload) {
+        if (!running) {
+            rejected.increment();
+            throw new WebhookRejectedException(WebhookRejectedException.Reason.UNAVAILABLE);
+        }
+        if (!dedupWindow.add(payload.dedupKey())) {
+            duplicate.increment();
+            return CompletableFuture.completedFuture(false);
+        }
+        Pending pending = new Pending(payload);
+        if (!queue.offer(pending)) {
+            dedupWindow.remove(payload.dedupKey());
+            rejected.increment();
+            throw new WebhookRejectedException(WebhookRejectedException.Reason.QUEUE_FULL);
+        }
+        return pending.future;
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "webhook-inbox-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Stops taking webhooks and lets the writer store what is already queued
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            try {
+                thread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        for (Pending pending : abandoned) {
+            dedupWindow.remove(pending.payload.dedupKey());
+            pending.future.completeExceptionally(
+                    new WebhookRejectedException(WebhookRejectedException.Reason.UNAVAILABLE));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Tops the group up to maxBatchSize, waiting no longer than maxDelayMs after its first entry
+    private void fill(List<Pending> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        List<WebhookPayload> webhooks = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            webhooks.add(pending.payload);
+        }
+        flushSize.record(batch.size());
+        long start = System.nanoTime();
+        Set<String> stored;
+        try {
+            stored = inboxWriter.insertAll(webhooks);
+        } catch (RuntimeException e) {
+            // The group shares one statement, so a failure fails every webhook in it; they
+            // are forgotten here so the bank's retry is stored instead of answered as a duplicate
+            System.err.println("Group commit of " + batch.size() + " webhooks failed: " + e.getMessage());
+            for (Pending pending : batch) {
+                dedupWindow.remove(pending.payload.dedupKey());
+                pending.future.completeExceptionally(e);
+            }
+            return;
+        }
+        flushTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!stored.isEmpty()) {
+            webhookRelay.wakeUp();
+        }
+        for (Pending pending : batch) {
+            boolean isNew = stored.contains(pending.payload.dedupKey());
+            (isNew ? accepted : duplicate).increment();
+            pending.future.complete(isNew);
+        }
+    }
+
+    private static class Pending {
+        private final WebhookPayload payload;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private Pending(WebhookPayload payload) {
+            this.payload = payload;
+        }
+    }
+}
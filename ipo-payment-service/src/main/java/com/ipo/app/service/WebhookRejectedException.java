@@ -0,0 +1,33 @@
+package com.ipo.app.service;
+
+// Thrown when the webhook inbox cannot take another webhook; the bank retries it later
+public class WebhookRejectedException extends RuntimeException {
+
+    public enum Reason {
+        // Inbox queue at capacity (503 with Retry-After, which banks honour)
+        QUEUE_FULL(503),
+        // Inbox not running, e.g. during shutdown, or the webhook could not be stored (503)
+        UNAVAILABLE(503);
+
+        private final int status;
+
+        Reason(int status) {
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+
+    private final Reason reason;
+
+    public WebhookRejectedException(Reason reason) {
+        super("Webhook rejected: " + reason);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,294 @@
+package com.ipo.app.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.app.repository.MandateStatusWriter;
+import com.ipo.app.repository.MandateStatusWriter.Change;
+import com.ipo.app.repository.WebhookInboxWriter;
+import com.ipo.app.repository.WebhookInboxWriter.InboxRow;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+// Applies the webhooks WebhookInbox has stored. A single relay thread claims up to
+// batch-size unapplied rows with FOR UPDATE SKIP LOCKED and, in one transaction, applies
+// them with one conditional UPDATE, queues the outcome events of the mandates that changed
+// and marks the rows applied, so a crash at any point leaves them to be claimed again. When
+// a batch fails its webhooks are retried one by one, so a single bad webhook cannot hold up
+// the others; each failure is counted on its row and a webhook that has failed max-attempts
+// times is moved to webhook_dead_letters. Applied rows are kept for the dedup ttl, then
+// purged. Once drained, the relay waits for wakeUp() after a group commit, polling with a
+// doubling backoff for rows stored by other instances.
+@Service
+public class WebhookRelay implements SmartLifecycle {
+
+    @Autowired
+    private WebhookInboxWriter inboxWriter;
+
+    @Autowired
+    private MandateStatusWriter mandateStatusWriter;
+
+    @Autowired
+    private MandateOutcomePublisher outcomePublisher;
+
+    @Autowired
+    private WebhookDedupWindow dedupWindow;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payment.webhook.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${payment.webhook.relay.max-attempts:3}")
+    private int maxAttempts;
+
+    // Idle polls after a short batch: first wait, doubled while the inbox stays empty
+    @Value("${payment.webhook.relay.idle-initial-backoff-ms:20}")
+    private long idleInitialBackoffMs;
+
+    @Value("${payment.webhook.relay.idle-max-backoff-ms:1000}")
+    private long idleMaxBackoffMs;
+
+    @Value("${payment.webhook.relay.error-backoff-ms:1000}")
+    private long errorBackoffMs;
+
+    // Applied webhooks stay in the inbox this long, answering replays through its unique key
+    @Value("${payment.webhook.dedup.ttl-ms:600000}")
+    private long retentionMs;
+
+    @Value("${payment.webhook.relay.purge-interval-ms:60000}")
+    private long purgeIntervalMs;
+
+    private final Semaphore wakeups = new Semaphore(0);
+    private volatile Thread relay;
+    private volatile boolean running;
+    private long nextPurgeNanos;
+
+    private Counter applied;
+    private Counter stale;
+    private Counter failed;
+    private Counter deadLettered;
+    private DistributionSummary appliedBatchSize;
+
+    @PostConstruct
+    public void init() {
+        applied = Counter.builder("ipo.payment.webhook.applied")
+                .description("Webhooks that moved a mandate out of PENDING")
+                .register(meterRegistry);
+        stale = Counter.builder("ipo.payment.webhook.stale")
+                .description("Webhooks for unknown or already decided mandates")
+                .register(meterRegistry);
+        failed = Counter.builder("ipo.payment.webhook.failed")
+                .description("Failed attempts to apply a webhook")
+                .register(meterRegistry);
+        deadLettered = Counter.builder("ipo.payment.webhook.dead_lettered")
+                .description("Webhooks moved to webhook_dead_letters after max-attempts failures")
+                .register(meterRegistry);
+        appliedBatchSize = DistributionSummary.builder("ipo.payment.webhook.relay.batch.size")
+                .description("Webhooks per relay batch")
+                .register(meterRegistry);
+    }
+
+    // Called once new webhooks are committed, so an idle relay picks them up at once
+    public void wakeUp() {
+        if (wakeups.availablePermits() == 0) {
+            wakeups.release();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        nextPurgeNanos = System.nanoTime();
+        relay = new Thread(this::relayLoop, "webhook-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    // Unapplied webhooks stay in the inbox for the next start, or another instance
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = relay;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts before and stops after WebhookInbox, so every webhook it stores gets a relay
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 1;
+    }
+
+    private void relayLoop() {
+        long idleBackoffMs = idleInitialBackoffMs;
+        while (running) {
+            try {
+                purgeIfDue();
+                // Full batches go back to back; a short one means the inbox is drained
+                int claimed = relayBatch();
+                if (claimed < batchSize) {
+                    idleBackoffMs = claimed > 0 ? idleInitialBackoffMs
+                            : Math.min(idleBackoffMs * 2, idleMaxBackoffMs);
+                    if (wakeups.tryAcquire(idleBackoffMs, TimeUnit.MILLISECONDS)) {
+                        idleBackoffMs = idleInitialBackoffMs;
+                    }
+                    wakeups.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Webhook relay failed, retrying in " + errorBackoffMs + " ms: " + e.getMessage());
+                try {
+                    Thread.sleep(errorBackoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Applies one batch of stored webhooks and returns the number of rows it claimed
+    public int relayBatch() throws InterruptedException {
+        List<InboxRow> claimed = new ArrayList<>();
+        int[] changed = new int[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                claimed.addAll(inboxWriter.claimUnapplied(batchSize));
+                if (!claimed.isEmpty()) {
+                    changed[0] = apply(claimed);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (claimed.isEmpty()) {
+                throw e;
+            }
+            System.err.println("Applying " + claimed.size() + " webhooks failed, retrying them one by one: "
+                    + e.getMessage());
+            retryOneByOne(claimed);
+            return claimed.size();
+        }
+        record(claimed.size(), changed[0]);
+        return claimed.size();
+    }
+
+    // Applies the claimed rows in one run and marks them applied; returns the mandates changed
+    private int apply(List<InboxRow> rows) {
+        // Of several webhooks for one mandate the first wins, as it would one at a time
+        Set<String> mandates = new HashSet<>();
+        List<Change> changes = new ArrayList<>(rows.size());
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (InboxRow row : rows) {
+            if (mandates.add(row.mandateKey())) {
+                changes.add(row.toChange());
+            }
+            ids.add(row.getId());
+        }
+        List<Mandate> changed = mandateStatusWriter.applyAll(changes);
+        outcomePublisher.publish(changed);
+        inboxWriter.markApplied(ids);
+        return changed.size();
+    }
+
+    // Gives each webhook of a failed batch one attempt of its own, in its own transaction;
+    // rows applied or claimed by another relay meanwhile are skipped. A failure is counted
+    // on the row, and the next batch waits error-backoff-ms, as failed rows come first again
+    private void retryOneByOne(List<InboxRow> batch) throws InterruptedException {
+        boolean anyFailed = false;
+        for (InboxRow row : batch) {
+            int[] changed = { -1 };
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<InboxRow> rows = inboxWriter.claimIfUnapplied(row.getId());
+                    if (!rows.isEmpty()) {
+                        changed[0] = apply(rows);
+                    }
+                });
+            } catch (RuntimeException e) {
+                anyFailed = true;
+                recordFailure(row, e);
+                continue;
+            }
+            if (changed[0] >= 0) {
+                record(1, changed[0]);
+            }
+        }
+        if (anyFailed) {
+            Thread.sleep(errorBackoffMs);
+        }
+    }
+
+    private void recordFailure(InboxRow row, RuntimeException e) {
+        failed.increment();
+        String error = String.valueOf(e.getMessage());
+        boolean[] movedOut = new boolean[1];
+        transactionTemplate.executeWithoutResult(status -> {
+            int attempts = inboxWriter.recordFailure(row.getId(), error);
+            if (attempts >= maxAttempts) {
+                movedOut[0] = inboxWriter.deadLetter(row.getId()) > 0;
+            }
+        });
+        if (movedOut[0]) {
+            System.err.println("Dead-lettering webhook " + row.getId() + " (" + row.getDedupKey() + ") after "
+                    + maxAttempts + " failed attempts: " + error);
+            deadLettered.increment();
+            // Its dedup key is free in the inbox again, so the bank's redelivery is stored
+            dedupWindow.remove(row.getDedupKey());
+        }
+    }
+
+    private void record(int rows, int changed) {
+        if (rows == 0) {
+            return;
+        }
+        appliedBatchSize.record(rows);
+        applied.increment(changed);
+        stale.increment(rows - changed);
+    }
+
+    private void purgeIfDue() {
+        long now = System.nanoTime();
+        if (now - nextPurgeNanos < 0) {
+            return;
+        }
+        nextPurgeNanos = now + TimeUnit.MILLISECONDS.toNanos(purgeIntervalMs);
+        int purged;
+        do {
+            purged = inboxWriter.purgeApplied(retentionMs, batchSize);
+        } while (purged >= batchSize && running);
+    }
+}
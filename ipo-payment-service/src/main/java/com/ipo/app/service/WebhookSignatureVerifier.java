@@ -0,0 +1,87 @@
+package com.ipo.app.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ipo.app.dto.WebhookPayload;
+
+import jakarta.annotation.PostConstruct;
+
+// Checks the webhook's signature: hex HMAC-SHA256, keyed with payment.webhook.secret,
+// of "mandateId|applicationId|status|bankReferenceId" (absent fields empty). The service
+// refuses to start without a secret; unsigned webhooks are accepted only when
+// payment.webhook.allow-unsigned is set explicitly, which is meant for local runs.
+@Component
+public class WebhookSignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Value("${payment.webhook.secret:}")
+    private String secret;
+
+    @Value("${payment.webhook.allow-unsigned:false}")
+    private boolean allowUnsigned;
+
+    private SecretKeySpec key;
+
+    @PostConstruct
+    public void init() {
+        if (!secret.isEmpty()) {
+            key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+            return;
+        }
+        if (!allowUnsigned) {
+            throw new IllegalStateException("payment.webhook.secret is not set; set it, or set "
+                    + "payment.webhook.allow-unsigned=true to accept unsigned webhooks in a local run");
+        }
+        System.err.println("payment.webhook.secret is not set and payment.webhook.allow-unsigned=true; "
+                + "webhook signatures are not checked");
+    }
+
+    public boolean isValid(WebhookPayload payload) {
+        if (key == null) {
+            return allowUnsigned;
+        }
+        if (payload.getSignature() == null) {
+            return false;
+        }
+        byte[] expected = sign(payload);
+        byte[] actual;
+        try {
+            actual = HexFormat.of().parseHex(payload.getSignature());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    public String signatureOf(WebhookPayload payload) {
+        return HexFormat.of().formatHex(sign(payload));
+    }
+
+    private byte[] sign(WebhookPayload payload) {
+        String signed = String.join("|", orEmpty(payload.getMandateId()), orEmpty(payload.getApplicationId()),
+                orEmpty(payload.getStatus()), orEmpty(payload.getBankReferenceId()));
+        try {
+            // Mac instances are not thread-safe and cheap to create from a parsed key
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(signed.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Cannot compute webhook signature", e);
+        }
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,26 @@
+-- Runs after Hibernate's schema update (spring.jpa.defer-datasource-initialization)
+-- and adds what the entities cannot declare, or what the update cannot be relied on for.
+
+-- One mandate per application, the ON CONFLICT target of MandateBatchWriter. Hibernate's
+-- update only logs a failed CREATE INDEX, so while duplicate mandates exist the index is
+-- silently missing. Until it exists, duplicates are removed first, keeping each
+-- application's decided mandate, else its oldest; RequiredIndexVerifier stops startup
+-- if the index is still missing afterwards.
+DELETE FROM mandates m
+USING (SELECT id, row_number() OVER (PARTITION BY application_id ORDER BY (status = 'PENDING'), created_at, id) AS rn
+       FROM mandates WHERE application_id IS NOT NULL) d
+WHERE m.id = d.id AND d.rn > 1 AND to_regclass('uk_mandates_application_id') IS NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_mandates_application_id ON mandates (application_id);
+
+-- Only PENDING mandates, oldest first: the expiry sweep reads it in created_at order,
+-- and it stays as small as the backlog of undecided mandates however large the table grows
+CREATE INDEX IF NOT EXISTS idx_mandates_pending_created_at ON mandates (created_at) WHERE status = 'PENDING';
+
+-- One inbox row per webhook: the ON CONFLICT target of WebhookInboxWriter, so a replay
+-- of a stored webhook is answered as a duplicate instead of being applied twice
+CREATE UNIQUE INDEX IF NOT EXISTS uk_webhook_inbox_dedup_key ON webhook_inbox (dedup_key);
+
+-- Unapplied webhooks in arrival order, for WebhookRelay's claims, and applied ones by
+-- age, for the purge; each stays as small as its part of the inbox
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_unapplied ON webhook_inbox (id) WHERE applied_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_webhook_inbox_applied_at ON webhook_inbox (applied_at) WHERE applied_at IS NOT NULL;
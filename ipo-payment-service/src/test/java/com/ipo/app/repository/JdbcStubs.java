@@ -0,0 +1,87 @@
+package com.ipo.app.repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.mockito.Mockito.when;
+
+// Runs the writers' PreparedStatementCallbacks against a mocked statement: records the
+// SQL and every array bound to it, and answers executeQuery() with the given rows
+final class JdbcStubs {
+
+    final List<String> statements = new ArrayList<>();
+    final List<String> arrayTypes = new ArrayList<>();
+    final List<List<Object>> arrays = new ArrayList<>();
+    final List<Array> freedArrays = new ArrayList<>();
+
+    private final List<Array> createdArrays = new ArrayList<>();
+
+    // Each call of JdbcTemplate.execute(sql, callback) answers with the next row set
+    JdbcStubs(JdbcTemplate jdbcTemplate, List<List<Map<String, Object>>> results) throws SQLException {
+        List<List<Map<String, Object>>> remaining = new ArrayList<>(results);
+        when(jdbcTemplate.execute(anyString(), any(PreparedStatementCallback.class))).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            PreparedStatementCallback<?> callback = invocation.getArgument(1);
+            return callback.doInPreparedStatement(statement(remaining.remove(0)));
+        });
+    }
+
+    private PreparedStatement statement(List<Map<String, Object>> rows) throws SQLException {
+        Connection connection = lenientMock(Connection.class);
+        when(connection.createArrayOf(anyString(), any(Object[].class))).thenAnswer(this::createArray);
+        PreparedStatement ps = lenientMock(PreparedStatement.class);
+        when(ps.getConnection()).thenReturn(connection);
+        when(ps.executeQuery()).thenAnswer(invocation -> resultSet(rows));
+        return ps;
+    }
+
+    private Array createArray(InvocationOnMock invocation) throws SQLException {
+        arrayTypes.add(invocation.getArgument(0));
+        arrays.add(Arrays.asList((Object[]) invocation.getArgument(1)));
+        Array array = lenientMock(Array.class);
+        doAnswer(freed -> freedArrays.add(array)).when(array).free();
+        createdArrays.add(array);
+        return array;
+    }
+
+    boolean allArraysFreed() {
+        return freedArrays.containsAll(createdArrays);
+    }
+
+    static ResultSet resultSet(List<Map<String, Object>> rows) throws SQLException {
+        ResultSet rs = lenientMock(ResultSet.class);
+        int[] row = { -1 };
+        when(rs.next()).thenAnswer(invocation -> ++row[0] < rows.size());
+        when(rs.getRow()).thenAnswer(invocation -> row[0] + 1);
+        when(rs.getString(anyString()))
+                .thenAnswer(invocation -> (String) rows.get(row[0]).get(invocation.getArgument(0)));
+        when(rs.getObject(anyString())).thenAnswer(invocation -> rows.get(row[0]).get(invocation.getArgument(0)));
+        when(rs.getBigDecimal(anyString()))
+                .thenAnswer(invocation -> rows.get(row[0]).get(invocation.getArgument(0)));
+        when(rs.getBoolean(anyString()))
+                .thenAnswer(invocation -> Boolean.TRUE.equals(rows.get(row[0]).get(invocation.getArgument(0))));
+        return rs;
+    }
+
+    // Stubbed for whatever a writer reads; a writer need not read all of it
+    private static <T> T lenientMock(Class<T> type) {
+        return mock(type, withSettings().strictness(Strictness.LENIENT));
+    }
+}
@@ -0,0 +1,122 @@
+package com.ipo.app.repository;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.app.entity.MandateStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The conflict and compare-and-set are resolved by Postgres; these pin the statements,
+// the column arrays bound to them and how their rows are read back
+@ExtendWith(MockitoExtension.class)
+class MandateBatchWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private MandateBatchWriter writer;
+
+    @Test
+    void reserveBindsOneArrayPerColumnAndSplitsReservedFromExisting() throws Exception {
+        JdbcStubs jdbc = new JdbcStubs(jdbcTemplate, List.of(List.of(
+                row(mandate("m-1", "app-1", MandateStatus.PENDING, null), true),
+                row(mandate("m-0", "app-2", MandateStatus.APPROVED, "ref-0"), false))));
+
+        MandateBatchWriter.Reservation reservation = writer.reserveAll(List.of(
+                mandate("m-1", "app-1", MandateStatus.PENDING, null),
+                mandate("m-2", "app-2", MandateStatus.PENDING, null)));
+
+        String sql = jdbc.statements.get(0);
+        assertTrue(sql.contains("ON CONFLICT (application_id) DO NOTHING"));
+        assertEquals(List.of("varchar", "varchar", "varchar", "varchar", "int4", "numeric", "varchar", "varchar"),
+                jdbc.arrayTypes);
+        assertEquals(List.of("m-1", "m-2"), jdbc.arrays.get(0));
+        assertEquals(List.of("app-1", "app-2"), jdbc.arrays.get(1));
+        assertEquals(List.of(3, 3), jdbc.arrays.get(4));
+        assertEquals(List.of("PENDING", "PENDING"), jdbc.arrays.get(6));
+        assertTrue(jdbc.allArraysFreed());
+
+        assertEquals(1, reservation.getReserved().size());
+        assertEquals("m-1", reservation.getReserved().get(0).getId());
+        assertEquals(1, reservation.getExisting().size());
+        Mandate existing = reservation.getExisting().get(0);
+        assertEquals("m-0", existing.getId());
+        assertEquals(MandateStatus.APPROVED, existing.getStatus());
+        assertEquals("ref-0", existing.getBankReferenceId());
+        assertEquals(new BigDecimal("300.00"), existing.getAmount());
+    }
+
+    @Test
+    void decisionsOnlyApplyToPendingMandatesAndReturnTheRowsThatChanged() throws Exception {
+        JdbcStubs jdbc = new JdbcStubs(jdbcTemplate, List.of(List.of(
+                row(mandate("m-1", "app-1", MandateStatus.APPROVED, "ref-1"), null))));
+
+        List<Mandate> decided = writer.recordDecisions(List.of(
+                mandate("m-1", "app-1", MandateStatus.APPROVED, "ref-1"),
+                mandate("m-2", "app-2", MandateStatus.FAILED, null)));
+
+        String sql = jdbc.statements.get(0);
+        assertTrue(sql.contains("m.status = 'PENDING'"));
+        assertTrue(sql.contains("coalesce(i.bank_reference_id, m.bank_reference_id)"));
+        assertEquals(List.of("m-1", "m-2"), jdbc.arrays.get(0));
+        assertEquals(List.of("APPROVED", "FAILED"), jdbc.arrays.get(1));
+        assertEquals(Arrays.asList("ref-1", null), jdbc.arrays.get(2));
+        assertTrue(jdbc.allArraysFreed());
+
+        assertEquals(1, decided.size());
+        assertEquals("m-1", decided.get(0).getId());
+        assertEquals(MandateStatus.APPROVED, decided.get(0).getStatus());
+    }
+
+    @Test
+    void emptyBatchStillRunsOneStatement() throws Exception {
+        JdbcStubs jdbc = new JdbcStubs(jdbcTemplate, List.of(List.of()));
+
+        MandateBatchWriter.Reservation reservation = writer.reserveAll(List.of());
+
+        assertEquals(1, jdbc.statements.size());
+        assertTrue(reservation.getReserved().isEmpty());
+        assertTrue(reservation.getExisting().isEmpty());
+    }
+
+    static Mandate mandate(String id, String applicationId, MandateStatus status, String bankReferenceId) {
+        Mandate mandate = new Mandate();
+        mandate.setId(id);
+        mandate.setApplicationId(applicationId);
+        mandate.setIpoId("ipo-1");
+        mandate.setInvestorId("inv-" + applicationId);
+        mandate.setLots(3);
+        mandate.setAmount(new BigDecimal("300.00"));
+        mandate.setStatus(status);
+        mandate.setBankReferenceId(bankReferenceId);
+        return mandate;
+    }
+
+    static Map<String, Object> row(Mandate mandate, Boolean reserved) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", mandate.getId());
+        row.put("application_id", mandate.getApplicationId());
+        row.put("ipo_id", mandate.getIpoId());
+        row.put("investor_id", mandate.getInvestorId());
+        row.put("lots", mandate.getLots());
+        row.put("amount", mandate.getAmount());
+        row.put("status", mandate.getStatus().name());
+        row.put("bank_reference_id", mandate.getBankReferenceId());
+        row.put("reserved", reserved);
+        return row;
+    }
+}
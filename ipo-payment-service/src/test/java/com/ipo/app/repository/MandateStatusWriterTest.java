@@ -0,0 +1,93 @@
+package com.ipo.app.repository;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.app.entity.MandateStatus;
+import com.ipo.app.repository.MandateStatusWriter.Change;
+
+import static com.ipo.app.repository.MandateBatchWriterTest.mandate;
+import static com.ipo.app.repository.MandateBatchWriterTest.row;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+// The compare-and-set itself is Postgres's; these pin that every statement carries the
+// PENDING condition, binds the changes in list order and returns only the rows it moved
+@ExtendWith(MockitoExtension.class)
+class MandateStatusWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private MandateStatusWriter writer;
+
+    @Test
+    void appliesOutcomesOnlyToPendingMandatesInListOrder() throws Exception {
+        JdbcStubs jdbc = new JdbcStubs(jdbcTemplate, List.of(List.of(
+                row(mandate("m-2", "app-2", MandateStatus.FAILED, null), null))));
+
+        List<Mandate> changed = writer.applyAll(List.of(
+                new Change("m-1", "app-1", MandateStatus.APPROVED, "ref-1"),
+                new Change(null, "app-2", MandateStatus.FAILED, null),
+                new Change("m-1", "app-1", MandateStatus.FAILED, null)));
+
+        String sql = jdbc.statements.get(0);
+        assertTrue(sql.contains("m.status = 'PENDING'"));
+        assertTrue(sql.contains("WITH ORDINALITY"));
+        // Of two changes resolving to one mandate, the earlier one is kept
+        assertTrue(sql.contains("DISTINCT ON (id)") && sql.contains("ORDER BY id, ord"));
+        assertTrue(sql.contains("coalesce(t.bank_reference_id, m.bank_reference_id)"));
+        assertEquals(List.of("varchar", "varchar", "varchar", "varchar"), jdbc.arrayTypes);
+        assertEquals(Arrays.asList("m-1", null, "m-1"), jdbc.arrays.get(0));
+        assertEquals(List.of("app-1", "app-2", "app-1"), jdbc.arrays.get(1));
+        assertEquals(List.of("APPROVED", "FAILED", "FAILED"), jdbc.arrays.get(2));
+        assertEquals(Arrays.asList("ref-1", null, null), jdbc.arrays.get(3));
+        assertTrue(jdbc.allArraysFreed());
+
+        assertEquals(1, changed.size());
+        assertEquals("m-2", changed.get(0).getId());
+        assertEquals(MandateStatus.FAILED, changed.get(0).getStatus());
+    }
+
+    @Test
+    void alreadyDecidedMandatesComeBackEmpty() throws Exception {
+        JdbcStubs jdbc = new JdbcStubs(jdbcTemplate, List.of(List.of()));
+
+        List<Mandate> changed = writer.applyAll(List.of(new Change("m-1", null, MandateStatus.APPROVED, null)));
+
+        assertEquals(1, jdbc.statements.size());
+        assertTrue(changed.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void expiryOnlyClaimsPendingRowsNobodyElseHolds() {
+        writer.expirePending(86_400_000L, 500);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class), eq(86_400_000L), eq(500));
+        assertTrue(sql.getValue().contains("status = 'PENDING'"));
+        assertTrue(sql.getValue().contains("FOR UPDATE SKIP LOCKED"));
+        assertTrue(sql.getValue().contains("SET status = 'EXPIRED'"));
+    }
+
+    @Test
+    void onlyBankOutcomesCanBeApplied() {
+        assertThrows(IllegalArgumentException.class, () -> new Change("m-1", null, MandateStatus.PENDING, null));
+    }
+}
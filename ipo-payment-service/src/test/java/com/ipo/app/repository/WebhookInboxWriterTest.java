@@ -0,0 +1,72 @@
+package com.ipo.app.repository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ipo.app.dto.WebhookPayload;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The dedup itself is the unique index's; these pin the statement and its bound columns,
+// and that only the webhooks it returned count as stored
+@ExtendWith(MockitoExtension.class)
+class WebhookInboxWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private WebhookInboxWriter writer;
+
+    @Test
+    void storesEachWebhookOnceUnderItsDedupKey() throws Exception {
+        JdbcStubs jdbc = new JdbcStubs(jdbcTemplate, List.of(List.of(Map.of("dedup_key", "m-1:APPROVED"))));
+
+        Set<String> stored = writer.insertAll(List.of(
+                webhook("m-1", null, "APPROVED", "ref-1"),
+                webhook(null, "app-2", "FAILED", null)));
+
+        String sql = jdbc.statements.get(0);
+        assertTrue(sql.contains("ON CONFLICT (dedup_key) DO NOTHING"));
+        assertTrue(sql.contains("RETURNING dedup_key"));
+        assertEquals(List.of("m-1:APPROVED", "application:app-2:FAILED"), jdbc.arrays.get(0));
+        assertEquals(Arrays.asList("m-1", null), jdbc.arrays.get(1));
+        assertEquals(Arrays.asList(null, "app-2"), jdbc.arrays.get(2));
+        assertEquals(List.of("APPROVED", "FAILED"), jdbc.arrays.get(3));
+        assertEquals(Arrays.asList("ref-1", null), jdbc.arrays.get(4));
+        assertTrue(jdbc.allArraysFreed());
+
+        assertEquals(Set.of("m-1:APPROVED"), stored);
+    }
+
+    @Test
+    void markingAppliedBindsTheIdsAsOneArray() throws Exception {
+        JdbcStubs jdbc = new JdbcStubs(jdbcTemplate, List.of(List.of()));
+
+        writer.markApplied(List.of(3L, 4L));
+
+        assertTrue(jdbc.statements.get(0).contains("SET applied_at = now() WHERE id = ANY(?)"));
+        assertEquals(List.of("bigint"), jdbc.arrayTypes);
+        assertEquals(List.of(3L, 4L), jdbc.arrays.get(0));
+        assertTrue(jdbc.allArraysFreed());
+    }
+
+    static WebhookPayload webhook(String mandateId, String applicationId, String status, String bankReferenceId) {
+        WebhookPayload payload = new WebhookPayload();
+        payload.setMandateId(mandateId);
+        payload.setApplicationId(applicationId);
+        payload.setStatus(status);
+        payload.setBankReferenceId(bankReferenceId);
+        return payload;
+    }
+}
@@ -0,0 +1,116 @@
+package com.ipo.app.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.app.entity.MandateStatus;
+import com.ipo.app.repository.MandateOutboxWriter;
+import com.ipo.events.MandateApprovedEvent;
+import com.ipo.events.MandateFailedEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+// Outcome events are only ever stored with the transaction deciding the mandates, and
+// the relay is only woken once that transaction has committed
+@ExtendWith(MockitoExtension.class)
+class MandateOutcomePublisherTest {
+
+    @Mock
+    private MandateOutboxWriter outboxWriter;
+
+    @Mock
+    private MandateOutboxRelay outboxRelay;
+
+    @InjectMocks
+    private MandateOutcomePublisher publisher;
+
+    @AfterEach
+    void clearTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void refusesToPublishOutsideATransaction() {
+        assertThrows(IllegalStateException.class,
+                () -> publisher.publish(List.of(mandate("m-1", MandateStatus.APPROVED))));
+
+        verifyNoInteractions(outboxWriter, outboxRelay);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void queuesOneEventPerDecidedMandateAndWakesTheRelayAfterCommit() {
+        beginTransaction();
+
+        publisher.publish(List.of(
+                mandate("m-1", MandateStatus.APPROVED),
+                mandate("m-2", MandateStatus.FAILED),
+                mandate("m-3", MandateStatus.PENDING),
+                mandate("m-4", MandateStatus.EXPIRED)));
+
+        ArgumentCaptor<List<String>> destinations = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Object>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxWriter).insertAll(destinations.capture(), events.capture());
+        assertEquals(List.of("mandate.approved.topic", "mandate.failed.topic", "mandate.failed.topic"),
+                destinations.getValue());
+        assertEquals("m-1", assertInstanceOf(MandateApprovedEvent.class, events.getValue().get(0)).getMandateId());
+        assertEquals("Bank rejected",
+                assertInstanceOf(MandateFailedEvent.class, events.getValue().get(1)).getReason());
+        assertEquals("Mandate expired",
+                assertInstanceOf(MandateFailedEvent.class, events.getValue().get(2)).getReason());
+
+        verify(outboxRelay, never()).wakeUp();
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        verify(outboxRelay).wakeUp();
+    }
+
+    @Test
+    void writesNothingWhenNoMandateWasDecided() {
+        beginTransaction();
+
+        publisher.publish(List.of(mandate("m-1", MandateStatus.PENDING)));
+
+        verify(outboxWriter, never()).insertAll(anyList(), any());
+        assertEquals(0, TransactionSynchronizationManager.getSynchronizations().size());
+    }
+
+    private static void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    private static Mandate mandate(String id, MandateStatus status) {
+        Mandate mandate = new Mandate();
+        mandate.setId(id);
+        mandate.setApplicationId("app-" + id);
+        mandate.setIpoId("ipo-1");
+        mandate.setInvestorId("inv-" + id);
+        mandate.setLots(2);
+        mandate.setAmount(new BigDecimal("200.00"));
+        mandate.setStatus(status);
+        return mandate;
+    }
+}
@@ -0,0 +1,174 @@
+package com.ipo.app.service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ipo.app.entity.MandateStatus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Window size must never change what is read: every size from the longest line up to the
+// whole file has to yield the same records and offsets, wherever the window edges fall
+class SettlementFileReaderTest {
+
+    private static final String FILE = "mandateId,status\r\n"
+            + "m-1,APPROVED,ref-1\r\n"
+            + "\n"
+            + "# resent\n"
+            + "m-2 , FAILED\n"
+            + "m-3,PENDING\n"
+            + "m-4,APPROVED,ref-4,extra\n"
+            + ",FAILED\n"
+            + "m-5,FAILED,\n"
+            + "m-6,APPROVED,ref-6";
+
+    private static final List<String> RECORDS = List.of(
+            "m-1|APPROVED|ref-1|valid",
+            "m-2|FAILED|null|valid",
+            "m-3|null|null|invalid",
+            "m-4|APPROVED|ref-4|invalid",
+            "|FAILED|null|invalid",
+            "m-5|FAILED|null|valid",
+            "m-6|APPROVED|ref-6|valid");
+
+    // Longest line, "m-4,APPROVED,ref-4,extra", with its newline
+    private static final int LONGEST_LINE = 25;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void everyWindowSizeReadsTheSameRecords() throws IOException {
+        Path file = write(FILE);
+        List<Long> expectedOffsets = offsets(file, FILE.length());
+
+        for (int window = LONGEST_LINE; window <= FILE.length() + 1; window++) {
+            assertEquals(RECORDS, records(file, 0, window), "window of " + window + " bytes");
+            assertEquals(expectedOffsets, offsets(file, window), "offsets with a window of " + window + " bytes");
+        }
+    }
+
+    @Test
+    void resumingFromAnyCommittedOffsetReadsTheRest() throws IOException {
+        Path file = write(FILE);
+        List<Long> offsets = offsets(file, FILE.length());
+
+        for (int window : new int[] { LONGEST_LINE, 32, 64, FILE.length() }) {
+            for (int i = 0; i < offsets.size(); i++) {
+                assertEquals(RECORDS.subList(i + 1, RECORDS.size()), records(file, offsets.get(i), window),
+                        "from offset " + offsets.get(i) + " with a window of " + window + " bytes");
+            }
+        }
+    }
+
+    @Test
+    void startingInsideALineSkipsToTheNextOne() throws IOException {
+        Path file = write(FILE);
+        long lineStart = FILE.indexOf("m-2 , FAILED");
+
+        for (int window : new int[] { LONGEST_LINE, 32, FILE.length() }) {
+            // At the line start it is read; from one byte in, it is skipped
+            assertEquals(RECORDS.subList(1, RECORDS.size()), records(file, lineStart, window));
+            assertEquals(RECORDS.subList(2, RECORDS.size()), records(file, lineStart + 1, window));
+        }
+    }
+
+    @Test
+    void skippingAPartialLineCanCrossSeveralWindows() throws IOException {
+        // With a window of 16 bytes, skipping the rest of the long first line takes three maps
+        String content = "m-1,APPROVED," + "r".repeat(40) + "\n" + "m-2,FAILED\n";
+        Path file = write(content);
+
+        assertEquals(List.of("m-2|FAILED|null|valid"), records(file, 1, 16));
+    }
+
+    @Test
+    void lineLongerThanTheWindowIsAnError() throws IOException {
+        Path file = write(FILE);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SettlementFileReader reader = new SettlementFileReader(channel, 0, LONGEST_LINE - 1);
+            IOException e = assertThrows(IOException.class, () -> {
+                while (reader.next()) {
+                    // Reads up to the long line
+                }
+            });
+            assertTrue(e.getMessage().contains("longer than " + (LONGEST_LINE - 1) + " bytes"));
+        }
+    }
+
+    @Test
+    void idsAreDecodedAsUtf8WhereverTheWindowEnds() throws IOException {
+        String content = "mandät-1,APPROVED\nmandät-2,FAILED,réf\n";
+        Path file = write(content);
+
+        for (int window = 24; window <= 48; window++) {
+            assertEquals(List.of("mandät-1|APPROVED|null|valid", "mandät-2|FAILED|réf|valid"),
+                    records(file, 0, window));
+        }
+    }
+
+    @Test
+    void emptyFileHasNoRecords() throws IOException {
+        Path file = write("");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SettlementFileReader reader = new SettlementFileReader(channel, 0, 16);
+            assertFalse(reader.next());
+            assertEquals(0, reader.offset());
+        }
+    }
+
+    @Test
+    void headerIsOnlySkippedWhenItsFirstFieldMatchesExactly() throws IOException {
+        Path file = write("mandateIds,APPROVED\n");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SettlementFileReader reader = new SettlementFileReader(channel, 0, 64);
+            assertTrue(reader.next());
+            assertEquals("mandateIds", reader.mandateId());
+            assertEquals(MandateStatus.APPROVED, reader.status());
+            assertNull(reader.bankReferenceId());
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(directory.resolve("settlement.csv"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> records(Path file, long offset, long window) throws IOException {
+        List<String> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SettlementFileReader reader = new SettlementFileReader(channel, offset, window);
+            while (reader.next()) {
+                records.add(reader.mandateId() + "|" + reader.status() + "|" + reader.bankReferenceId() + "|"
+                        + (reader.isValid() ? "valid" : "invalid"));
+            }
+        }
+        return records;
+    }
+
+    private static List<Long> offsets(Path file, long window) throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SettlementFileReader reader = new SettlementFileReader(channel, 0, window);
+            while (reader.next()) {
+                offsets.add(reader.offset());
+            }
+        }
+        return offsets;
+    }
+}
@@ -0,0 +1,151 @@
+package com.ipo.app.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ipo.app.entity.Mandate;
+import com.ipo.app.entity.MandateStatus;
+import com.ipo.app.repository.MandateStatusWriter;
+import com.ipo.app.repository.MandateStatusWriter.Change;
+import com.ipo.app.repository.WebhookInboxWriter;
+import com.ipo.app.repository.WebhookInboxWriter.InboxRow;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Stored webhooks are only marked applied in the transaction that applies them, and one
+// that keeps failing is dead-lettered on its own without holding up the rest of its batch
+@ExtendWith(MockitoExtension.class)
+class WebhookRelayTest {
+
+    @Mock
+    private WebhookInboxWriter inboxWriter;
+
+    @Mock
+    private MandateStatusWriter mandateStatusWriter;
+
+    @Mock
+    private MandateOutcomePublisher outcomePublisher;
+
+    @Mock
+    private WebhookDedupWindow dedupWindow;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private WebhookRelay relay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 2);
+        ReflectionTestUtils.setField(relay, "errorBackoffMs", 0L);
+        relay.init();
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void appliesABatchAndMarksEveryRowApplied() throws Exception {
+        when(inboxWriter.claimUnapplied(10)).thenReturn(List.of(
+                row(1, "m-1", "APPROVED"), row(2, "m-1", "FAILED"), row(3, "m-2", "FAILED")));
+        List<Mandate> changed = List.of(mandate("m-1", MandateStatus.APPROVED));
+        when(mandateStatusWriter.applyAll(anyList())).thenAnswer(invocation -> {
+            List<Change> changes = invocation.getArgument(0);
+            // The first webhook for a mandate wins, as it would one at a time
+            assertEquals(2, changes.size());
+            assertEquals(MandateStatus.APPROVED, changes.get(0).getStatus());
+            return changed;
+        });
+
+        assertEquals(3, relay.relayBatch());
+
+        verify(outcomePublisher).publish(changed);
+        verify(inboxWriter).markApplied(List.of(1L, 2L, 3L));
+        assertEquals(1, meterRegistry.counter("ipo.payment.webhook.applied").count());
+        assertEquals(2, meterRegistry.counter("ipo.payment.webhook.stale").count());
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRowAndTheFailingRowDeadLettered() throws Exception {
+        InboxRow good = row(1, "m-1", "APPROVED");
+        InboxRow bad = row(2, "m-2", "FAILED");
+        when(inboxWriter.claimUnapplied(10)).thenReturn(List.of(good, bad));
+        when(inboxWriter.claimIfUnapplied(1L)).thenReturn(List.of(good));
+        when(inboxWriter.claimIfUnapplied(2L)).thenReturn(List.of(bad));
+        when(mandateStatusWriter.applyAll(anyList())).thenAnswer(invocation -> {
+            List<Change> changes = invocation.getArgument(0);
+            if (changes.stream().anyMatch(change -> "m-2".equals(change.getMandateId()))) {
+                throw new IllegalStateException("bad webhook");
+            }
+            return List.of(mandate("m-1", MandateStatus.APPROVED));
+        });
+        when(inboxWriter.recordFailure(2L, "bad webhook")).thenReturn(2);
+        when(inboxWriter.deadLetter(2L)).thenReturn(1);
+
+        assertEquals(2, relay.relayBatch());
+
+        verify(inboxWriter).markApplied(List.of(1L));
+        verify(inboxWriter, never()).recordFailure(1L, "bad webhook");
+        verify(inboxWriter).deadLetter(2L);
+        verify(dedupWindow).remove("m-2:FAILED");
+        assertEquals(1, meterRegistry.counter("ipo.payment.webhook.applied").count());
+        assertEquals(1, meterRegistry.counter("ipo.payment.webhook.failed").count());
+        assertEquals(1, meterRegistry.counter("ipo.payment.webhook.dead_lettered").count());
+    }
+
+    @Test
+    void failedRowBelowMaxAttemptsStaysInTheInbox() throws Exception {
+        InboxRow bad = row(2, "m-2", "FAILED");
+        when(inboxWriter.claimUnapplied(10)).thenReturn(List.of(bad));
+        when(inboxWriter.claimIfUnapplied(2L)).thenReturn(List.of(bad));
+        when(mandateStatusWriter.applyAll(anyList())).thenThrow(new IllegalStateException("database busy"));
+        when(inboxWriter.recordFailure(2L, "database busy")).thenReturn(1);
+
+        relay.relayBatch();
+
+        verify(inboxWriter, never()).deadLetter(anyLong());
+        verify(inboxWriter, never()).markApplied(anyList());
+        verify(dedupWindow, never()).remove(anyString());
+    }
+
+    private static InboxRow row(long id, String mandateId, String status) {
+        return new InboxRow(id, mandateId + ":" + status, mandateId, null, status, null);
+    }
+
+    private static Mandate mandate(String id, MandateStatus status) {
+        Mandate mandate = new Mandate();
+        mandate.setId(id);
+        mandate.setApplicationId("app-" + id);
+        mandate.setStatus(status);
+        return mandate;
+    }
+}
@@ -15,6 +15,9 @@
 BLUE='\033[0;34m'
 NC='\033[0m' # No Color
 
+# Local run: the payment service accepts unsigned webhooks unless a secret is given
+export PAYMENT_WEBHOOK_ALLOW_UNSIGNED="${PAYMENT_WEBHOOK_ALLOW_UNSIGNED:-true}"
+
 # Function to print colored output
 print_status() {
     echo -e "${GREEN}[INFO]${NC} $1"